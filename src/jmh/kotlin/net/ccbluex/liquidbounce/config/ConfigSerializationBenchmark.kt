@@ -0,0 +1,79 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.config
+
+import com.google.gson.JsonElement
+import com.google.gson.JsonParser
+import net.ccbluex.liquidbounce.Headless
+import net.ccbluex.liquidbounce.config.gson.fileGson
+import net.ccbluex.liquidbounce.config.types.Configurable
+import net.ccbluex.liquidbounce.render.engine.Color4b
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Serializes a configurable shaped like a module tree. [ConfigSystem] itself needs a running client
+ * (it resolves the run directory), so the [fileGson] instance it uses is called directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class ConfigSerializationBenchmark {
+
+    @Param("50", "250")
+    @JvmField
+    var modules = 0
+
+    private lateinit var root: Configurable
+    private lateinit var json: String
+
+    @Setup
+    fun setup() {
+        Headless.bootstrap()
+
+        root = Configurable("Benchmark")
+        repeat(modules) { i ->
+            root.tree(Configurable("Module$i").apply {
+                boolean("Enabled", i % 2 == 0)
+                int("Range", 4, 1..8, "blocks")
+                float("Speed", 0.5f, 0f..1f)
+                floatRange("Delay", 1f..3f, 0f..10f, "ticks")
+                text("Text", "Module $i")
+                color("Color", Color4b(i % 255, 128, 64, 255))
+
+                tree(Configurable("Inner").apply {
+                    boolean("Option", true)
+                    int("Amount", i, 0..1000)
+                })
+            })
+        }
+
+        json = fileGson.toJson(root, Configurable::class.javaObjectType)
+    }
+
+    @Benchmark
+    fun serializeTree(): JsonElement = fileGson.toJsonTree(root, Configurable::class.javaObjectType)
+
+    @Benchmark
+    fun serializeString(): String = fileGson.toJson(root, Configurable::class.javaObjectType)
+
+    @Benchmark
+    fun parse(): JsonElement = JsonParser.parseString(json)
+
+}
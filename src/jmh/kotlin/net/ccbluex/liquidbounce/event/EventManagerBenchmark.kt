@@ -0,0 +1,65 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.event
+
+import net.ccbluex.liquidbounce.event.events.GameTickEvent
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class EventManagerBenchmark {
+
+    @Param("1", "10", "100")
+    @JvmField
+    var listeners = 0
+
+    private val registered = ArrayList<EventListener>()
+
+    private var blackhole: Blackhole? = null
+
+    private class BenchmarkListener(override val running: Boolean) : EventListener
+
+    @Setup
+    fun setup(blackhole: Blackhole) {
+        this.blackhole = blackhole
+
+        repeat(listeners) { i ->
+            // Every fourth listener is disabled, like modules which are turned off
+            val listener = BenchmarkListener(running = i % 4 != 0)
+
+            listener.handler<GameTickEvent>(priority = (i % 3).toShort()) { event ->
+                this.blackhole?.consume(event)
+            }
+            registered += listener
+        }
+    }
+
+    @TearDown
+    fun tearDown() {
+        registered.forEach(EventManager::unregisterEventHandler)
+        registered.clear()
+    }
+
+    @Benchmark
+    fun callEvent() = EventManager.callEvent(GameTickEvent())
+
+}
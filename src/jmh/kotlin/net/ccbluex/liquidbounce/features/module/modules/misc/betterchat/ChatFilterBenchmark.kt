@@ -0,0 +1,77 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.misc.betterchat
+
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class ChatFilterBenchmark {
+
+    /**
+     * Amount of user defined filters, half of them patterns and half of them literals
+     */
+    @Param("10", "200")
+    @JvmField
+    var filterCount = 0
+
+    private lateinit var regexes: List<Regex>
+    private lateinit var matcher: ChatFilterMatcher
+    private lateinit var messages: List<String>
+
+    @Setup
+    fun setup() {
+        val filters = listOf(
+            "discord.gg/\\w+",
+            "Buy cheap coins at .*",
+            "(?i)free rank",
+            "(\\w+) \\1",
+        ) + List(filterCount / 2) { "Spammer$it says .*" } + List(filterCount / 2) { "literal filter $it" }
+
+        regexes = filters.map(::Regex)
+        matcher = ChatFilterMatcher(filters)
+        messages = chatLog(1_000)
+    }
+
+    /**
+     * Every filter as its own regex, like AntiSpam matched before the filters were combined
+     */
+    @Benchmark
+    fun separateRegexes() = messages.count { message -> regexes.any { it.matches(message) } }
+
+    @Benchmark
+    fun combinedMatcher() = messages.count(matcher::matches)
+
+    private fun chatLog(size: Int): List<String> {
+        val random = Random(1337)
+        val samples = listOf(
+            "gg", "hello hello", "anyone wanna team?", "Buy cheap coins at example.com", "discord.gg/abc",
+            "literal filter 7", "Spammer12 says hi", "free RANK", "ad here", "nice shot", "lag", "Welcome back!"
+        )
+
+        return List(size) {
+            val sample = samples.random(random)
+            if (random.nextInt(4) == 0) "$sample ${random.nextInt(1000)}" else sample
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.misc.nameprotect
+
+import net.ccbluex.liquidbounce.render.engine.Color4b
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class NameProtectBenchmark {
+
+    /**
+     * Amount of other players on the tab list
+     */
+    @Param("20", "200")
+    @JvmField
+    var players = 0
+
+    private val coloringInfo = NameProtectMappings.ColoringInfo({ Color4b.WHITE }, { Color4b.WHITE }, { Color4b.WHITE })
+
+    private val username = "Benchmarker" to "Protected"
+    private val friends = listOf("FriendOne" to "Friend1", "FriendTwo" to "Friend2")
+
+    private lateinit var otherPlayers: List<String>
+    private lateinit var mappings: NameProtectMappings
+
+    private lateinit var line: String
+
+    @Setup
+    fun setup() {
+        otherPlayers = List(players) { "Player_$it" }
+        mappings = NameProtectMappings().apply { update(username, friends, otherPlayers, coloringInfo) }
+
+        line = "<Player_${players / 2}> gg Benchmarker, FriendOne and Player_${players - 1} won against Player_0"
+    }
+
+    @Benchmark
+    fun findReplacements() = mappings.findReplacements(line)
+
+    /**
+     * Rebuilds the matcher, like it happens every time a player joins or leaves
+     */
+    @Benchmark
+    fun rebuildMappings() =
+        NameProtectMappings().apply { update(username, friends, otherPlayers, coloringInfo) }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.render.engine.font.processor
+
+import net.ccbluex.liquidbounce.render.engine.Color4b
+import net.ccbluex.liquidbounce.utils.client.toText
+import net.minecraft.text.StringVisitable.StyledVisitor
+import net.minecraft.text.Style
+import net.minecraft.text.Text
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class TextProcessingBenchmark {
+
+    /**
+     * A typical scoreboard/chat line with legacy formatting codes
+     */
+    private val legacyText = Text.literal(
+        "§7[§a§lVIP§7] §bPlayer123§r§7: §fHello §cWorld§r, §nthis§r is a §mtest§r of §kformatting §eand colors"
+    )
+
+    /**
+     * The same line using modern styles only
+     */
+    private val styledText = Text.empty()
+        .append(Text.literal("[").styled { it.withColor(0xAAAAAA) })
+        .append(Text.literal("VIP").styled { it.withColor(0x55FF55).withBold(true) })
+        .append(Text.literal("] ").styled { it.withColor(0xAAAAAA) })
+        .append(Text.literal("Player123").styled { it.withColor(0x55FFFF) })
+        .append(Text.literal(": Hello World, this is a test of formatting and colors"))
+
+    @Benchmark
+    fun sanitizeLegacyText(blackhole: Blackhole) {
+        legacyText.visit(LegacyTextSanitizer(ConsumingVisitor(blackhole)), Style.EMPTY)
+    }
+
+    /**
+     * The same path `FontRenderer.process` takes for foreign text (without name protect)
+     */
+    @Benchmark
+    fun processLegacyText() =
+        MinecraftTextProcessor(LegacyTextSanitizer.SanitizedLegacyText(legacyText).toText(), Color4b.WHITE, 0L)
+            .process()
+
+    @Benchmark
+    fun processStyledText() = MinecraftTextProcessor(styledText, Color4b.WHITE, 0L).process()
+
+    private class ConsumingVisitor(private val blackhole: Blackhole) : StyledVisitor<Unit> {
+        override fun accept(style: Style, asString: String): Optional<Unit> {
+            blackhole.consume(style)
+            blackhole.consume(asString)
+            return Optional.empty()
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.script.bindings.api
+
+import org.openjdk.jmh.annotations.*
+import java.lang.reflect.Method
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class ScriptReflectionBenchmark {
+
+    @Suppress("unused")
+    class Target(@JvmField var value: Int = 5) {
+        fun add(a: Int, b: Int) = a + b
+        fun add(a: Double, b: Double) = a * b
+    }
+
+    private val target = Target()
+    private var counter = 0
+
+    /**
+     * Resolving by hand, like the bindings did before member handles were cached
+     */
+    @Benchmark
+    fun uncachedInvoke(): Any? {
+        val method: Method = target.javaClass.methods.find { method ->
+            method.name == "add" && method.parameterTypes.contentEquals(arrayOf(Int::class.java, Int::class.java))
+        }!!.apply { isAccessible = true }
+
+        return method.invoke(target, counter++, 1)
+    }
+
+    @Benchmark
+    fun invokeMethod() = ScriptReflectionUtil.invokeMethod(target, "add", counter++, 1)
+
+    @Benchmark
+    fun getField() = ScriptReflectionUtil.getField(target, "value")
+
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.block
+
+import net.ccbluex.liquidbounce.Headless
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.Vec3d
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class BlockIterationBenchmark {
+
+    @Param("4.5", "6.0")
+    @JvmField
+    var radius = 0f
+
+    private val center = BlockPos(128, 64, -128)
+    private val eyes = Vec3d(128.5, 65.62, -127.5)
+
+    private lateinit var region: Region
+
+    @Setup
+    fun setup() {
+        // BlockExtensions has top level values using the block registry
+        Headless.bootstrap()
+
+        region = Region.quadAround(center, radius.toInt(), radius.toInt())
+    }
+
+    @Benchmark
+    fun sortedSphere() = center.getSortedSphere(radius)
+
+    @Benchmark
+    fun sphere(blackhole: Blackhole) {
+        for (pair in center.getSphere(radius)) {
+            blackhole.consume(pair)
+        }
+    }
+
+    @Benchmark
+    fun cuboidSearch(): Int {
+        var sum = 0
+
+        for (pos in eyes.searchBlocksInCuboid(radius)) {
+            sum += pos.x xor pos.y xor pos.z
+        }
+
+        return sum
+    }
+
+    @Benchmark
+    fun regionIteration(): Int {
+        var sum = 0
+
+        for (pos in region) {
+            sum += pos.x xor pos.y xor pos.z
+        }
+
+        return sum
+    }
+
+    @Benchmark
+    fun regionContains(): Int {
+        val region = Region.quadAround(center, radius.toInt(), radius.toInt())
+        var hits = 0
+
+        for (pos in center.searchBlocksInCuboid(radius.toInt() * 2)) {
+            if (pos in region) {
+                hits++
+            }
+        }
+
+        return hits
+    }
+
+}
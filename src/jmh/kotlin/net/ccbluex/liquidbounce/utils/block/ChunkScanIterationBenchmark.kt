@@ -0,0 +1,107 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.block
+
+import net.minecraft.util.math.BlockPos
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Mirrors the block loop of [ChunkScanner.ChunkScannerThread] on a synthetic chunk, so different
+ * iteration orders can be compared without a world. Block states are replaced by palette indices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class ChunkScanIterationBenchmark {
+
+    private val bottomY = -64
+    private val topYInclusive = 319
+    private val sectionCount = (topYInclusive - bottomY + 1) shr 4
+
+    private val startX = 16 * 20
+    private val startZ = 16 * -7
+
+    /**
+     * Each section stores its states in the same `y, z, x` order as a vanilla paletted container,
+     * the upper half of the chunk is empty like most of the overworld.
+     */
+    private val sections = Array(sectionCount) { section ->
+        if (section >= sectionCount / 2) null else IntArray(4096) { i -> if (i % 7 == 0) ORE else STONE }
+    }
+
+    private val mutable = BlockPos.Mutable()
+
+    private fun stateAt(x: Int, y: Int, z: Int): Int {
+        val section = sections[(y shr 4) - (bottomY shr 4)] ?: return AIR
+        return section[(y and 15) shl 8 or (z shl 4) or x]
+    }
+
+    /**
+     * The current order of the chunk scanner: y, then x, then z
+     */
+    @Benchmark
+    fun scanYXZ(): Int {
+        var found = 0
+
+        for (y in bottomY..topYInclusive) {
+            for (x in 0..15) {
+                for (z in 0..15) {
+                    val state = stateAt(x, y, z)
+                    val pos = mutable.set(startX or x, y, startZ or z)
+
+                    if (state == ORE) {
+                        found += pos.y
+                    }
+                }
+            }
+        }
+
+        return found
+    }
+
+    /**
+     * Iterates section by section in storage order and skips empty sections
+     */
+    @Benchmark
+    fun scanSections(): Int {
+        var found = 0
+
+        for ((index, section) in sections.withIndex()) {
+            section ?: continue
+            val baseY = (index + (bottomY shr 4)) shl 4
+
+            for (i in 0 until 4096) {
+                if (section[i] == ORE) {
+                    val pos = mutable.set(startX or (i and 15), baseY or (i shr 8), startZ or (i shr 4 and 15))
+                    found += pos.y
+                }
+            }
+        }
+
+        return found
+    }
+
+    private companion object {
+        const val AIR = 0
+        const val STONE = 1
+        const val ORE = 2
+    }
+
+}
@@ -22,9 +22,11 @@ package net.ccbluex.liquidbounce.injection.mixins.minecraft.client;
 import com.llamalad7.mixinextras.injector.ModifyReturnValue;
 import net.ccbluex.liquidbounce.features.module.modules.render.ModuleAntiBlind;
 import net.ccbluex.liquidbounce.features.module.modules.render.ModuleTrueSight;
+import net.ccbluex.liquidbounce.utils.entity.EntityIndex;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
 import net.minecraft.particle.ParticleEffect;
 import net.minecraft.particle.ParticleTypes;
 import org.spongepowered.asm.mixin.Mixin;
@@ -51,4 +53,14 @@ public class MixinClientWorld {
         }
     }
 
+    @Inject(method = "addEntity", at = @At("RETURN"))
+    private void hookEntityAdded(Entity entity, CallbackInfo ci) {
+        EntityIndex.INSTANCE.invalidate();
+    }
+
+    @Inject(method = "removeEntity", at = @At("RETURN"))
+    private void hookEntityRemoved(int entityId, Entity.RemovalReason removalReason, CallbackInfo ci) {
+        EntityIndex.INSTANCE.invalidate();
+    }
+
 }
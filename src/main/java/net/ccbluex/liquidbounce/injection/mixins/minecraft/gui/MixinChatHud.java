@@ -26,6 +26,7 @@ import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.hud.ChatHud;
 import net.minecraft.client.gui.hud.ChatHudLine;
 import net.minecraft.text.OrderedText;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -37,7 +38,9 @@ import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.invoke.arg.Args;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Mixin(ChatHud.class)
 public abstract class MixinChatHud implements ChatHudAddition {
@@ -68,6 +71,42 @@ public abstract class MixinChatHud implements ChatHudAddition {
     @Unique
     private int chatY = -1;
 
+    /**
+     * Lines with an ID by their ID, used to find duplicates without scanning {@link #messages}
+     */
+    @Unique
+    private final Map<String, ChatHudLine> messagesById = new HashMap<>();
+
+    @Inject(method = "addMessage(Lnet/minecraft/client/gui/hud/ChatHudLine;)V", at = @At("HEAD"))
+    private void hookIndexMessage(ChatHudLine message, CallbackInfo ci) {
+        //noinspection DataFlowIssue
+        var id = ChatMessageAddition.class.cast(message).liquid_bounce$getId();
+
+        if (id != null) {
+            messagesById.put(id, message);
+        }
+    }
+
+    @Redirect(method = "addMessage(Lnet/minecraft/client/gui/hud/ChatHudLine;)V", at = @At(value = "INVOKE", target = "Ljava/util/List;removeLast()Ljava/lang/Object;"))
+    private Object hookEvictMessage(List<ChatHudLine> list) {
+        var evicted = list.removeLast();
+        //noinspection DataFlowIssue
+        var id = ChatMessageAddition.class.cast(evicted).liquid_bounce$getId();
+
+        if (id != null) {
+            messagesById.remove(id, evicted);
+        }
+
+        return evicted;
+    }
+
+    @Inject(method = "clear", at = @At("TAIL"))
+    private void hookClearIndex(boolean clearHistory, CallbackInfo ci) {
+        if (messages.isEmpty()) {
+            messagesById.clear();
+        }
+    }
+
     /**
      * Spoofs the message size to be empty to avoid deletion.
      */
@@ -154,5 +193,15 @@ public abstract class MixinChatHud implements ChatHudAddition {
     public int liquidbounce_getChatY() {
         return chatY;
     }
+
+    @Override
+    public @Nullable ChatHudLine liquidbounce_getMessageById(String id) {
+        return messagesById.get(id);
+    }
+
+    @Override
+    public void liquidbounce_unindexMessage(String id) {
+        messagesById.remove(id);
+    }
 }
 
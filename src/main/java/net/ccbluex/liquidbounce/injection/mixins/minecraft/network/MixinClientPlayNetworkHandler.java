@@ -29,6 +29,7 @@ import net.ccbluex.liquidbounce.features.module.modules.exploit.disabler.disable
 import net.ccbluex.liquidbounce.features.module.modules.misc.betterchat.ModuleBetterChat;
 import net.ccbluex.liquidbounce.features.module.modules.player.ModuleAntiExploit;
 import net.ccbluex.liquidbounce.features.module.modules.player.ModuleNoRotateSet;
+import net.ccbluex.liquidbounce.integration.interop.protocol.rest.v1.game.RegistrySnapshot;
 import net.ccbluex.liquidbounce.utils.aiming.Rotation;
 import net.ccbluex.liquidbounce.utils.aiming.RotationManager;
 import net.ccbluex.liquidbounce.utils.kotlin.Priority;
@@ -82,6 +83,14 @@ public abstract class MixinClientPlayNetworkHandler extends ClientCommonNetworkH
         ChunkUpdateFlag.chunkUpdate = false;
     }
 
+    /**
+     * Runs on the main thread once synchronized tags are applied, so a snapshot built from now on sees them.
+     */
+    @Inject(method = "refreshTagBasedData", at = @At("RETURN"))
+    private void injectTagsRefreshed(CallbackInfo ci) {
+        RegistrySnapshot.INSTANCE.invalidate();
+    }
+
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
     @ModifyExpressionValue(method = "onExplosion", at = @At(value = "INVOKE", target = "Lnet/minecraft/network/packet/s2c/play/ExplosionS2CPacket;playerKnockback()Ljava/util/Optional;"))
     private Optional<Vec3d> onExplosionVelocity(Optional<Vec3d> original) {
@@ -27,6 +27,7 @@ import net.minecraft.client.render.VertexConsumerProvider;
 import net.minecraft.client.render.block.entity.BlockEntityRenderDispatcher;
 import net.minecraft.client.render.block.entity.BlockEntityRenderer;
 import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.ColorHelper;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Redirect;
@@ -50,10 +51,11 @@ public class MixinBlockEntityRenderDispatcher {
             var type = ModuleStorageESP.categorize(blockEntity);
 
             if (type != null && type.shouldRender(blockEntity.getPos())) {
-                var color = type.getColor();
+                var color = type.getArgb();
 
-                if (color.getA() > 0) {
-                    outlineVertexConsumerProvider.setColor(color.getR(), color.getG(), color.getB(), color.getA());
+                if (ColorHelper.getAlpha(color) > 0) {
+                    outlineVertexConsumerProvider.setColor(ColorHelper.getRed(color), ColorHelper.getGreen(color),
+                            ColorHelper.getBlue(color), ColorHelper.getAlpha(color));
 
                     blockEntityRenderer.render(blockEntity, tickDelta, matrices, outlineVertexConsumerProvider, light, overlay);
                     OutlineFlag.drawOutline = true;
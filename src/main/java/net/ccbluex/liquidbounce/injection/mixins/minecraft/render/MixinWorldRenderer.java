@@ -24,7 +24,6 @@ import net.ccbluex.liquidbounce.common.OutlineFlag;
 import net.ccbluex.liquidbounce.event.EventManager;
 import net.ccbluex.liquidbounce.event.events.DrawOutlinesEvent;
 import net.ccbluex.liquidbounce.features.module.modules.render.*;
-import net.ccbluex.liquidbounce.render.engine.Color4b;
 import net.ccbluex.liquidbounce.render.engine.RenderingFlags;
 import net.ccbluex.liquidbounce.render.shader.shaders.OutlineShader;
 import net.ccbluex.liquidbounce.utils.client.ClientUtilsKt;
@@ -111,7 +110,7 @@ public abstract class MixinWorldRenderer {
             return;
         }
 
-        Color4b color;
+        int color;
 
         if (ModuleESP.OutlineMode.INSTANCE.getRunning() && entity instanceof LivingEntity && CombatExtensionsKt.shouldBeShown(entity)) {
             color = ModuleESP.INSTANCE.getColor((LivingEntity) entity);
@@ -236,23 +235,22 @@ public abstract class MixinWorldRenderer {
     @Redirect(method = "renderEntities", at = @At(value = "INVOKE", target = "Lnet/minecraft/entity/Entity;getTeamColorValue()I"))
     private int injectTeamColor(Entity instance) {
         if (ModuleItemESP.GlowMode.INSTANCE.getRunning() && ModuleItemESP.INSTANCE.shouldRender(instance)) {
-            return ModuleItemESP.INSTANCE.getColor().toARGB();
+            return ModuleItemESP.INSTANCE.getColor();
         }
 
         if (instance instanceof TntEntity && ModuleTNTTimer.INSTANCE.getRunning() && ModuleTNTTimer.INSTANCE.getEsp()) {
-            return ModuleTNTTimer.INSTANCE.getTntColor(((TntEntity) instance).getFuse()).toARGB();
+            return ModuleTNTTimer.INSTANCE.getTntColor(((TntEntity) instance).getFuse());
         }
 
         if (ModuleStorageESP.Glow.INSTANCE.getRunning()) {
             var categorizedEntity = ModuleStorageESP.categorize(instance);
             if (categorizedEntity != null) {
-                return categorizedEntity.getColor().toARGB();
+                return categorizedEntity.getArgb();
             }
         }
 
         if (instance instanceof LivingEntity && ModuleESP.GlowMode.INSTANCE.getRunning()) {
-            final Color4b color = ModuleESP.INSTANCE.getColor((LivingEntity) instance);
-            return color.toARGB();
+            return ModuleESP.INSTANCE.getColor((LivingEntity) instance);
         }
 
         return instance.getTeamColorValue();
@@ -301,7 +299,7 @@ public abstract class MixinWorldRenderer {
             return;
         }
 
-        args.set(6, ModuleBlockOutline.INSTANCE.getOutlineColor().toARGB());
+        args.set(6, ModuleBlockOutline.INSTANCE.getOutlineColor());
     }
 
 }
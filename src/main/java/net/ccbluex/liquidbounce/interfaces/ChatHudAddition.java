@@ -1,5 +1,20 @@
 package net.ccbluex.liquidbounce.interfaces;
 
+import net.minecraft.client.gui.hud.ChatHudLine;
+import org.jetbrains.annotations.Nullable;
+
 public interface ChatHudAddition {
     int liquidbounce_getChatY();
+
+    /**
+     * Gets the newest chat line with the given ID in constant time.
+     * The index is updated when lines are added, evicted or cleared.
+     */
+    @Nullable
+    ChatHudLine liquidbounce_getMessageById(String id);
+
+    /**
+     * Removes the ID from the index, has to be called when lines are removed outside of vanilla code.
+     */
+    void liquidbounce_unindexMessage(String id);
 }
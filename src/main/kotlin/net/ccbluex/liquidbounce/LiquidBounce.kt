@@ -19,6 +19,7 @@
  */
 package net.ccbluex.liquidbounce
 
+import com.google.gson.JsonElement
 import net.ccbluex.liquidbounce.api.ClientUpdate.gitInfo
 import net.ccbluex.liquidbounce.api.ClientUpdate.hasUpdate
 import net.ccbluex.liquidbounce.api.IpInfoApi
@@ -60,14 +61,17 @@ import net.ccbluex.liquidbounce.utils.client.InteractionTracker
 import net.ccbluex.liquidbounce.utils.client.mc
 import net.ccbluex.liquidbounce.utils.combat.CombatManager
 import net.ccbluex.liquidbounce.utils.combat.combatTargetsConfigurable
+import net.ccbluex.liquidbounce.utils.entity.EntityIndex
 import net.ccbluex.liquidbounce.utils.input.InputTracker
 import net.ccbluex.liquidbounce.utils.inventory.InventoryManager
+import net.ccbluex.liquidbounce.utils.kotlin.TaskGraph
 import net.ccbluex.liquidbounce.utils.mappings.EnvironmentRemapper
 import net.ccbluex.liquidbounce.utils.render.WorldToScreen
 import net.minecraft.resource.ReloadableResourceManagerImpl
 import net.minecraft.resource.ResourceManager
 import net.minecraft.resource.ResourceReloader
 import net.minecraft.resource.SynchronousResourceReloader
+import net.minecraft.util.Util
 import org.apache.logging.log4j.LogManager
 import java.io.File
 import kotlin.time.measureTime
@@ -114,8 +118,27 @@ object LiquidBounce : EventListener {
      */
     val updateAvailable by lazy { hasUpdate() }
 
+    /**
+     * Timings of the startup tasks and the tasks of the latest reload, exposed through the interop API
+     */
+    val taskTimings: List<TaskGraph.Timing>
+        get() = startupTimings + reloadTimings
+
+    @Volatile
+    private var startupTimings = emptyList<TaskGraph.Timing>()
+
+    /**
+     * Replaced on every resource reload, so reloading does not accumulate timings
+     */
+    @Volatile
+    private var reloadTimings = emptyList<TaskGraph.Timing>()
+
     /**
      * Should be executed to start the client.
+     *
+     * Startup is expressed as a graph of tasks. Independent tasks (mappings, translations, fonts,
+     * script engine, config reading) run on worker threads, while everything touching the game
+     * or our registries stays on the render thread.
      */
     @Suppress("unused")
     val startHandler = handler<ClientStartEvent> {
@@ -123,89 +146,153 @@ object LiquidBounce : EventListener {
             logger.info("Launching $CLIENT_NAME v$clientVersion by $CLIENT_AUTHOR")
             logger.debug("Loading from cloud: '$CLIENT_CLOUD'")
 
-            // Load mappings
-            EnvironmentRemapper
-
-            // Load translations
-            LanguageManager.loadDefault()
-
-            // Initialize client features
-            EventManager
-
-            // Config
-            ConfigSystem
-            combatTargetsConfigurable
-
-            ChunkScanner
-            InputTracker
-
-            // Features
-            ModuleManager
-            CommandManager
-            ScriptManager
-            RotationManager
-            InteractionTracker
-            CombatManager
-            FriendManager
-            ProxyManager
-            AccountManager
-            InventoryManager
-            WorldToScreen
-            Reconnect
-            ActiveServerList
-            ConfigSystem.root(ClientItemGroups)
-            ConfigSystem.root(LanguageManager)
-            ConfigSystem.root(ClientAccountManager)
-            BrowserManager
-            FontManager
-            PostRotationExecutor
-
-            // Register commands and modules
-            CommandManager.registerInbuilt()
-            ModuleManager.registerInbuilt()
-
-            // Load user scripts
-            ScriptManager.loadAll()
-
-            // Load theme and component overlay
-            ThemeManager
-            ComponentOverlay.insertComponents()
-
-            // Load config system from disk
-            ConfigSystem.loadAll()
-
-            // Netty WebSocket
-            ClientInteropServer.start()
-
-            // Initialize browser
-            logger.info("Refresh Rate: ${mc.window.refreshRate} Hz")
-
-            IntegrationListener
-            BrowserManager.initBrowser()
-
-            // Register resource reloader
-            val resourceManager = mc.resourceManager
-            val clientResourceReloader = ClientResourceReloader()
-            if (resourceManager is ReloadableResourceManagerImpl) {
-                resourceManager.registerReloader(clientResourceReloader)
-            } else {
-                logger.warn("Failed to register resource reloader!")
-
-                // Run resource reloader directly as fallback
-                clientResourceReloader.reload(resourceManager)
+            var preReadConfigs = emptyMap<String, JsonElement>()
+            val graph = TaskGraph("Startup").apply {
+                // Load mappings
+                task("mappings") { EnvironmentRemapper.prepare() }
+
+                // Load translations
+                task("translations") { LanguageManager.loadDefault() }
+
+                // Parse theme fonts ahead of the resource reload, which only has to bake them
+                task("fonts") {
+                    FontManager
+                    queueThemeFonts()
+                }
+
+                // Starting the script engine takes a while and does not depend on anything
+                task("script-engine") { ScriptManager }
+
+                // Read config files from disk, they will be applied once all configurables are registered
+                task("config-read") { preReadConfigs = ConfigSystem.readAll() }
+
+                // Initialize client features
+                task("events", mainThread = true) { EventManager }
+
+                // Config
+                task("config", "events", mainThread = true) {
+                    ConfigSystem
+                    combatTargetsConfigurable
+
+                    ChunkScanner
+                    InputTracker
+                }
+
+                // Features
+                task("features", "config", "translations", mainThread = true) {
+                    ModuleManager
+                    CommandManager
+                    RotationManager
+                    InteractionTracker
+                    CombatManager
+                    FriendManager
+                    ProxyManager
+                    AccountManager
+                    InventoryManager
+                    EntityIndex
+                    WorldToScreen
+                    Reconnect
+                    ActiveServerList
+                    ConfigSystem.root(ClientItemGroups)
+                    ConfigSystem.root(LanguageManager)
+                    ConfigSystem.root(ClientAccountManager)
+                    BrowserManager
+                    PostRotationExecutor
+                }
+
+                // Register commands and modules
+                task("register", "features", mainThread = true) {
+                    CommandManager.registerInbuilt()
+                    ModuleManager.registerInbuilt()
+                }
+
+                // Load user scripts
+                task("scripts", "register", "mappings", "script-engine", mainThread = true) {
+                    ScriptManager.loadAll()
+                }
+
+                // Load theme and component overlay
+                task("theme", "features", mainThread = true) {
+                    ThemeManager
+                    ComponentOverlay.insertComponents()
+                }
+
+                // Load config system from disk
+                task("config-load", "scripts", "theme", "config-read", mainThread = true) {
+                    ConfigSystem.loadAll(preReadConfigs)
+                }
+
+                // Netty WebSocket
+                task("interop", "config-load", mainThread = true) { ClientInteropServer.start() }
+
+                // Initialize browser
+                task("browser", "interop", mainThread = true) {
+                    logger.info("Refresh Rate: ${mc.window.refreshRate} Hz")
+
+                    IntegrationListener
+                    BrowserManager.initBrowser()
+                }
+
+                // Register resource reloader
+                task("resource-reloader", "browser", "fonts", mainThread = true) {
+                    val resourceManager = mc.resourceManager
+                    val clientResourceReloader = ClientResourceReloader()
+                    if (resourceManager is ReloadableResourceManagerImpl) {
+                        resourceManager.registerReloader(clientResourceReloader)
+                    } else {
+                        logger.warn("Failed to register resource reloader!")
+
+                        // Run resource reloader directly as fallback
+                        clientResourceReloader.reload(resourceManager)
+                    }
+
+                    ItemImageAtlas
+                }
             }
 
-            ItemImageAtlas
+            startupTimings = graph.run(Util.getMainWorkerExecutor().service)
+            logTimings(graph)
         }.onSuccess {
             logger.info("Successfully loaded client!")
         }.onFailure(ErrorHandler::fatal)
     }
 
+    /**
+     * Queue fonts of all themes
+     *
+     * Runs before [ThemeManager] is initialized, so the themes folder is resolved without it.
+     *
+     * TODO: Will be removed with PR #3884 as it is not needed anymore
+     */
+    private fun queueThemeFonts() {
+        File(ConfigSystem.rootFolder, "themes").listFiles()
+            ?.filter { file -> file.isDirectory }
+            ?.forEach { file ->
+                runCatching {
+                    val assetsFolder = File(file, "assets")
+                    if (!assetsFolder.exists()) {
+                        return@forEach
+                    }
+
+                    FontManager.queueFolder(assetsFolder)
+                }.onFailure {
+                    logger.error("Failed to queue fonts from theme '${file.name}'.", it)
+                }
+            }
+    }
+
+    private fun logTimings(graph: TaskGraph) {
+        logger.info("[${graph.name}] ${graph.timings.sortedByDescending { it.duration }.joinToString { timing ->
+            "${timing.name}: ${timing.duration} ms"
+        }}")
+    }
+
     /**
      * Resource reloader which is executed on client start and reload.
      * This is used to run async tasks without blocking the main thread.
      *
-     * For now this is only used to check for updates and request additional information from the internet.
+     * Fonts are baked on the render thread as part of the reload, while update checks and
+     * other information from the internet are fetched in the background without blocking the reload.
      *
      * @see SynchronousResourceReloader
      * @see ResourceReloader
@@ -213,23 +300,11 @@ object LiquidBounce : EventListener {
     class ClientResourceReloader : SynchronousResourceReloader {
 
         override fun reload(manager: ResourceManager) {
-            runCatching {
-                // Queue fonts of all themes
-                // TODO: Will be removed with PR #3884 as it is not needed anymore
-                ThemeManager.themesFolder.listFiles()
-                    ?.filter { file -> file.isDirectory }
-                    ?.forEach { file ->
-                        runCatching {
-                            val assetsFolder = File(file, "assets")
-                            if (!assetsFolder.exists()) {
-                                return@forEach
-                            }
+            reloadTimings = emptyList()
 
-                            FontManager.queueFolder(assetsFolder)
-                        }.onFailure {
-                            logger.error("Failed to queue fonts from theme '${file.name}'.", it)
-                        }
-                    }
+            runCatching {
+                // Fonts which were already queued on startup are skipped
+                queueThemeFonts()
 
                 // Load fonts
                 val duration = measureTime {
@@ -240,54 +315,79 @@ object LiquidBounce : EventListener {
                 logger.info("Fonts: [ ${FontManager.fontFaces.joinToString { face -> face.name }} ]")
             }.onFailure(ErrorHandler::fatal)
 
+            prefetchGraph().runAsync(Util.getIoWorkerExecutor().service)
+        }
+
+        /**
+         * Network requests that have to be refreshed on every reload, none of them depend on each other
+         */
+        private fun prefetchGraph() = TaskGraph("Prefetch").apply {
             // Check for newest version
-            if (updateAvailable) {
-                logger.info("Update available! Please download the latest version from https://liquidbounce.net/")
+            task("update-check") {
+                if (updateAvailable) {
+                    logger.info("Update available! Please download the latest version from https://liquidbounce.net/")
+                }
             }
 
-            runCatching {
-                ipcConfiguration.let {
-                    logger.info("Loaded Discord IPC configuration.")
+            task("discord-ipc") {
+                runCatching {
+                    ipcConfiguration.let {
+                        logger.info("Loaded Discord IPC configuration.")
+                    }
+                }.onFailure {
+                    logger.error("Failed to load Discord IPC configuration.", it)
                 }
-            }.onFailure {
-                logger.error("Failed to load Discord IPC configuration.", it)
             }
 
             // Refresh local IP info
-            logger.info("Refreshing local IP info...")
-            IpInfoApi
+            task("ip-info") {
+                logger.info("Refreshing local IP info...")
+                IpInfoApi
+            }
 
             // Check if client account is available
-            if (ClientAccountManager.clientAccount != ClientAccount.EMPTY_ACCOUNT) {
-                OAuthClient.runWithScope {
-                    runCatching {
-                        ClientAccountManager.clientAccount.renew()
-                    }.onFailure {
-                        logger.error("Failed to renew client account token.", it)
-                        ClientAccountManager.clientAccount = ClientAccount.EMPTY_ACCOUNT
-                    }.onSuccess {
-                        logger.info("Successfully renewed client account token.")
-                        ConfigSystem.storeConfigurable(ClientAccountManager)
+            task("client-account") {
+                if (ClientAccountManager.clientAccount != ClientAccount.EMPTY_ACCOUNT) {
+                    OAuthClient.runWithScope {
+                        runCatching {
+                            ClientAccountManager.clientAccount.renew()
+                        }.onFailure {
+                            logger.error("Failed to renew client account token.", it)
+                            ClientAccountManager.clientAccount = ClientAccount.EMPTY_ACCOUNT
+                        }.onSuccess {
+                            logger.info("Successfully renewed client account token.")
+                            ConfigSystem.storeConfigurable(ClientAccountManager)
+                        }
                     }
                 }
             }
 
             // Refresh cosmetic service
-            CosmeticService.refreshCarriers(force = true) {
-                logger.info("Successfully loaded ${CosmeticService.carriers.size} cosmetics carriers.")
+            task("cosmetics") {
+                CosmeticService.refreshCarriers(force = true) {
+                    logger.info("Successfully loaded ${CosmeticService.carriers.size} cosmetics carriers.")
+                }
             }
 
             // Load Head collection
-            headsCollection
+            task("heads") { headsCollection }
 
             // Load settings list from API
-            runCatching {
-                logger.info("Loading settings list from API...")
-                AutoConfig.configs
-            }.onSuccess {
-                logger.info("Loaded ${it.size} settings from API.")
-            }.onFailure {
-                logger.error("Failed to load settings list from API", it)
+            task("auto-configs") {
+                runCatching {
+                    logger.info("Loading settings list from API...")
+                    AutoConfig.configs
+                }.onSuccess {
+                    logger.info("Loaded ${it.size} settings from API.")
+                }.onFailure {
+                    logger.error("Failed to load settings list from API", it)
+                }
+            }
+
+            // Publish timings once everything has been fetched
+            task("timings", "update-check", "discord-ipc", "ip-info", "client-account", "cosmetics", "heads",
+                "auto-configs") {
+                reloadTimings = timings
             }
         }
     }
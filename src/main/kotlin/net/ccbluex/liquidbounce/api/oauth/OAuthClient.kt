@@ -4,14 +4,13 @@ import com.google.gson.JsonObject
 import com.google.gson.annotations.SerializedName
 import io.netty.bootstrap.ServerBootstrap
 import io.netty.channel.*
-import io.netty.channel.nio.NioEventLoopGroup
 import io.netty.channel.socket.SocketChannel
-import io.netty.channel.socket.nio.NioServerSocketChannel
 import io.netty.handler.codec.http.*
 import kotlinx.coroutines.*
 import net.ccbluex.liquidbounce.api.ClientApi.API_V3_ENDPOINT
 import net.ccbluex.liquidbounce.config.gson.util.decode
 import net.ccbluex.liquidbounce.features.cosmetic.Cosmetic
+import net.ccbluex.liquidbounce.utils.io.ClientEventLoop
 import net.ccbluex.liquidbounce.utils.io.HttpClient
 import java.net.InetSocketAddress
 import java.util.*
@@ -29,6 +28,7 @@ object OAuthClient {
     private val scope = CoroutineScope(Dispatchers.IO + SupervisorJob())
 
     private var serverPort: Int? = null
+    private var serverChannel: Channel? = null
     @Volatile
     private var authCodeContinuation: Continuation<String>? = null
 
@@ -51,6 +51,8 @@ object OAuthClient {
         val code = waitForAuthCode()
         val tokenResponse = exchangeCodeForTokens(code, codeVerifier, redirectUri)
 
+        serverChannel?.close()
+        serverChannel = null
         serverPort = null
 
         return ClientAccount(session = tokenResponse.toAuthSession())
@@ -59,25 +61,15 @@ object OAuthClient {
     private suspend fun startNettyServer(): Int = suspendCoroutine { cont ->
         scope.launch {
             runCatching {
-                val bossGroup = NioEventLoopGroup(1)
-                val workerGroup = NioEventLoopGroup()
-
-                try {
-                    val bootstrap = ServerBootstrap()
-                    bootstrap.group(bossGroup, workerGroup)
-                        .channel(NioServerSocketChannel::class.java)
-                        .childHandler(NettyChannelInitializer())
-
-                    val channelFuture: ChannelFuture = bootstrap.bind(0).sync()
-                    val localPort = (channelFuture.channel().localAddress() as InetSocketAddress).port
-                    cont.resume(localPort)
-
-                    // Keep server running until closed
-                    channelFuture.channel().closeFuture().sync()
-                } finally {
-                    bossGroup.shutdownGracefully()
-                    workerGroup.shutdownGracefully()
-                }
+                val bootstrap = ServerBootstrap()
+                bootstrap.group(ClientEventLoop.group)
+                    .channel(ClientEventLoop.serverSocketChannel)
+                    .childHandler(NettyChannelInitializer())
+
+                val channelFuture: ChannelFuture = bootstrap.bind(0).sync()
+                serverChannel = channelFuture.channel()
+                val localPort = (channelFuture.channel().localAddress() as InetSocketAddress).port
+                cont.resume(localPort)
             }.onFailure { e -> cont.resumeWithException(e) }
         }
     }
@@ -107,27 +107,60 @@ object ConfigSystem {
         return configurable
     }
 
+    /**
+     * Reads and parses all config files of the root folder without applying them.
+     * This does not depend on any configurable and can be called from any thread.
+     *
+     * @return parsed config files by their name without extension
+     */
+    fun readAll(): Map<String, JsonElement> {
+        val files = rootFolder.listFiles { file -> file.isFile && file.extension == "json" } ?: return emptyMap()
+
+        return files.mapNotNull { file ->
+            runCatching {
+                file.nameWithoutExtension to file.bufferedReader().use { JsonParser.parseReader(it) }
+            }.onFailure {
+                logger.error("Unable to read config ${file.name}", it)
+            }.getOrNull()
+        }.toMap()
+    }
+
     /**
      * All configurables should load now.
+     *
+     * @param preRead config files which were already read by [readAll], missing ones are read from disk
      */
-    fun loadAll() {
+    fun loadAll(preRead: Map<String, JsonElement> = emptyMap()) {
         for (configurable in configurables) { // Make a new .json file to save our root configurable
             File(rootFolder, "${configurable.loweredName}.json").runCatching {
+                val jsonElement = preRead[configurable.loweredName]
+                // Values which fail to apply, e.g. a removed choice, are skipped and keep their current value
+                if (jsonElement != null) {
+                    deserializeConfigurable(configurable, jsonElement, lenient = true)
+                    return@runCatching
+                }
+
                 if (!exists()) {
                     // Do not try to load a non-existing file
                     return@runCatching
                 }
 
                 logger.debug("Reading config ${configurable.loweredName}...")
-                deserializeConfigurable(configurable, bufferedReader())
+                deserializeConfigurable(configurable, bufferedReader(), lenient = true)
             }.onSuccess {
                 logger.info("Successfully loaded config '${configurable.loweredName}'.")
+
+                // After loading the config, we need to store it again to make sure all values are up to date
+                storeConfigurable(configurable)
             }.onFailure {
                 logger.error("Unable to load config ${configurable.loweredName}", it)
-            }
 
-            // After loading the config, we need to store it again to make sure all values are up to date
-            storeConfigurable(configurable)
+                // The config was rolled back, so the file is left as it is. Keep a copy of it around,
+                // since the next save overwrites it with the restored values.
+                File(rootFolder, "${configurable.loweredName}.json").takeIf { file -> file.exists() }?.runCatching {
+                    copyTo(File(rootFolder, "${configurable.loweredName}.json.bak"), overwrite = true)
+                }
+            }
         }
     }
 
@@ -184,14 +217,17 @@ object ConfigSystem {
         gson: Gson = fileGson
     ) {
         JsonParser.parseReader(gson.newJsonReader(reader))?.let { jsonElement ->
-            modules.forEach { module ->
-                val moduleConfigurable = ModuleManager.modulesConfigurable.inner.find {
-                    it.name == module.name
-                } as? Configurable ?: return@forEach
-                val moduleElement = jsonElement.asJsonObject["value"].asJsonArray.find {
-                    it.asJsonObject["name"].asString == module.name
-                } ?: return@forEach
-                deserializeConfigurable(moduleConfigurable, moduleElement)
+            val moduleConfigurables = ModuleManager.modulesConfigurable.inner.associateBy { it.name }
+            val moduleElements = jsonElement.asJsonObject["value"].asJsonArray.associateBy {
+                it.asJsonObject["name"].asString
+            }
+
+            ConfigTransaction.run {
+                modules.forEach { module ->
+                    val moduleConfigurable = moduleConfigurables[module.name] as? Configurable ?: return@forEach
+                    val moduleElement = moduleElements[module.name] ?: return@forEach
+                    deserializeConfigurable(moduleConfigurable, moduleElement)
+                }
             }
         }
     }
@@ -199,16 +235,38 @@ object ConfigSystem {
     /**
      * Deserialize a configurable from a reader
      */
-    fun deserializeConfigurable(configurable: Configurable, reader: Reader, gson: Gson = fileGson) {
+    fun deserializeConfigurable(
+        configurable: Configurable,
+        reader: Reader,
+        gson: Gson = fileGson,
+        lenient: Boolean = false
+    ) {
         JsonParser.parseReader(gson.newJsonReader(reader))?.let {
-            deserializeConfigurable(configurable, it)
+            deserializeConfigurable(configurable, it, lenient)
         }
     }
 
     /**
      * Deserialize a configurable from a json element
+     *
+     * All values are applied in one [ConfigTransaction], which notifies about the configurable once it is
+     * completely deserialized and restores the previous values if it fails.
+     *
+     * @param lenient whether values which fail to apply are skipped instead of restoring all values
      */
-    fun deserializeConfigurable(configurable: Configurable, jsonElement: JsonElement) {
+    fun deserializeConfigurable(
+        configurable: Configurable,
+        jsonElement: JsonElement,
+        lenient: Boolean = false
+    ) = ConfigTransaction.run(lenient) {
+        deserializeConfigurable(it, configurable, jsonElement)
+    }
+
+    private fun deserializeConfigurable(
+        transaction: ConfigTransaction,
+        configurable: Configurable,
+        jsonElement: JsonElement
+    ) {
         val jsonObject = jsonElement.asJsonObject
 
         // Handle auto config
@@ -223,12 +281,15 @@ object ConfigSystem {
             .map { valueElement -> valueElement.asJsonObject }
             .associateBy { valueObj -> valueObj["name"].asString!! }
 
+        transaction.notifyAsWhole(configurable)
+
         when (configurable) {
 
             // On a dynamic configurable, we first create an instance of the value and then deserialize it
             is DynamicConfigurable -> {
                 if (values.isNotEmpty()) {
                     // Clear the current values
+                    transaction.stageStructure(configurable)
                     configurable.inner.clear()
                 }
 
@@ -253,8 +314,14 @@ object ConfigSystem {
 
     /**
      * Deserialize a value from a json object
+     *
+     * Failures are logged and recorded in the active [ConfigTransaction], which then restores all values
+     * instead of committing a partially applied config, unless it is lenient. Choices missing from the json
+     * are skipped.
      */
     internal fun deserializeValue(value: Value<*>, jsonObject: JsonObject) {
+        val transaction = ConfigTransaction.active
+
         // In case of a configurable, we need to go deeper and deserialize the configurable itself
         if (value is Configurable) {
             runCatching {
@@ -264,19 +331,24 @@ object ConfigSystem {
                         value.setByString(jsonObject["active"].asString)
                     }.onFailure {
                         logger.error("Unable to deserialize active choice for ${value.name}", it)
+                        transaction?.fail(it)
                     }
 
                     // Deserialize each choice
                     val choices = jsonObject["choices"].asJsonObject
 
                     for (choice in value.choices) {
-                        runCatching {
-                            val choiceElement = choices[choice.name]
-                                ?: error("Choice ${choice.name} not found")
+                        val choiceElement = choices[choice.name]
+                        if (choiceElement == null) {
+                            logger.debug("Choice ${choice.name} not found, keeping its current values")
+                            continue
+                        }
 
+                        runCatching {
                             deserializeConfigurable(choice, choiceElement)
                         }.onFailure {
                             logger.error("Unable to deserialize choice ${choice.name}", it)
+                            transaction?.fail(it)
                         }
                     }
                 }
@@ -285,6 +357,7 @@ object ConfigSystem {
                 deserializeConfigurable(value, jsonObject)
             }.onFailure {
                 logger.error("Unable to deserialize configurable ${value.name}", it)
+                transaction?.fail(it)
             }
 
             return
@@ -295,6 +368,7 @@ object ConfigSystem {
             value.deserializeFrom(fileGson, jsonObject["value"])
         }.onFailure {
             logger.error("Unable to deserialize value ${value.name}", it)
+            transaction?.fail(it)
         }
     }
 
@@ -0,0 +1,188 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.config
+
+import net.ccbluex.liquidbounce.config.types.ChoiceConfigurable
+import net.ccbluex.liquidbounce.config.types.Configurable
+import net.ccbluex.liquidbounce.config.types.Value
+import net.ccbluex.liquidbounce.event.EventManager
+import net.ccbluex.liquidbounce.event.events.ValueChangedEvent
+import java.util.*
+
+/**
+ * Applies many values as one change, e.g. when loading a config.
+ *
+ * While a transaction is active on the current thread, [Value.set] still runs the value listeners, which
+ * validate and adjust the new value, and applies it. The changed listeners and [ValueChangedEvent]s are deferred
+ * until the transaction commits, where every changed value runs its changed listeners once with its latest value
+ * and a single [ValueChangedEvent] is sent per deserialized configurable instead of one per value.
+ *
+ * If the transaction fails, all values it changed are restored and nothing is notified. It fails when the block
+ * throws or when a nested value [failed][fail] to apply, even if that failure was caught and logged. A lenient
+ * transaction ignores values which failed to apply, keeping their current value, and only fails when the block throws.
+ */
+class ConfigTransaction private constructor(private val lenient: Boolean) {
+
+    private val staged = LinkedHashMap<Value<*>, StagedValue>()
+    private val structures = LinkedHashMap<Configurable, List<Value<*>>>()
+    private val roots = LinkedHashSet<Configurable>()
+    private val failures = ArrayList<Throwable>()
+
+    /**
+     * Records [value] before it is set to [newValue]
+     */
+    internal fun stage(value: Value<*>, newValue: Any?) {
+        staged.getOrPut(value) { StagedValue(value.snapshot()) }.latest = newValue
+    }
+
+    /**
+     * Records the values of [configurable] before they are replaced
+     */
+    internal fun stageStructure(configurable: Configurable) {
+        structures.getOrPut(configurable) { ArrayList(configurable.inner) }
+    }
+
+    /**
+     * Marks [configurable] to be notified as a whole, covering all values within it
+     */
+    internal fun notifyAsWhole(configurable: Configurable) {
+        roots += configurable
+    }
+
+    /**
+     * Records a value which could not be applied, the transaction rolls back instead of committing unless it is
+     * lenient
+     */
+    internal fun fail(cause: Throwable) {
+        if (!lenient) {
+            failures += cause
+        }
+    }
+
+    private fun commit() {
+        for ((value, stagedValue) in staged) {
+            value.notifyChangedListeners(stagedValue.latest)
+        }
+
+        if (staged.isEmpty() && structures.isEmpty()) {
+            return
+        }
+
+        // Only notify the outermost configurables, nested ones are part of their notification
+        val covered = Collections.newSetFromMap(IdentityHashMap<Value<*>, Boolean>())
+        for (root in roots) {
+            if (root in covered) {
+                continue
+            }
+
+            collectTree(root, covered)
+            EventManager.callEvent(ValueChangedEvent(root))
+        }
+
+        for (value in staged.keys) {
+            if (value !in covered) {
+                EventManager.callEvent(ValueChangedEvent(value))
+            }
+        }
+    }
+
+    private fun rollback() {
+        staged.values.reversed().forEach { it.restore() }
+
+        for ((configurable, values) in structures) {
+            configurable.inner.clear()
+            configurable.inner.addAll(values)
+        }
+    }
+
+    /**
+     * Adds [configurable] and all values within it to [into]
+     */
+    private fun collectTree(configurable: Configurable, into: MutableSet<Value<*>>) {
+        if (!into.add(configurable)) {
+            return
+        }
+
+        for (value in configurable.inner) {
+            if (value is Configurable) {
+                collectTree(value, into)
+            } else {
+                into.add(value)
+            }
+        }
+
+        if (configurable is ChoiceConfigurable<*>) {
+            configurable.choices.forEach { collectTree(it, into) }
+        }
+    }
+
+    private class StagedValue(val restore: () -> Unit) {
+        var latest: Any? = null
+    }
+
+    companion object {
+
+        private val current = ThreadLocal<ConfigTransaction>()
+
+        /**
+         * The transaction of the current thread
+         */
+        internal val active: ConfigTransaction?
+            get() = current.get()
+
+        /**
+         * Runs [block] in a transaction, which commits once [block] returns. Joins the active transaction of the
+         * current thread instead, if there is one.
+         *
+         * @param lenient whether values failing to apply are skipped instead of rolling back all values,
+         * e.g. for the persistent configs, which might contain values of an older version
+         */
+        fun <R> run(lenient: Boolean = false, block: (ConfigTransaction) -> R): R {
+            current.get()?.let { return block(it) }
+
+            val transaction = ConfigTransaction(lenient)
+            current.set(transaction)
+
+            val result = try {
+                block(transaction)
+            } catch (e: Throwable) {
+                current.remove()
+                transaction.rollback()
+                throw e
+            }
+
+            current.remove()
+
+            if (transaction.failures.isNotEmpty()) {
+                transaction.rollback()
+                throw IllegalStateException(
+                    "${transaction.failures.size} values could not be applied, restored previous values",
+                    transaction.failures.first()
+                ).apply {
+                    transaction.failures.drop(1).forEach(::addSuppressed)
+                }
+            }
+
+            transaction.commit()
+            return result
+        }
+
+    }
+
+}
@@ -21,7 +21,6 @@ package net.ccbluex.liquidbounce.config.gson.adapter
 
 import com.google.gson.*
 import net.ccbluex.liquidbounce.render.engine.Color4b
-import java.awt.Color
 import java.lang.reflect.Type
 
 object ColorAdapter : JsonSerializer<Color4b>, JsonDeserializer<Color4b> {
@@ -31,7 +30,7 @@ object ColorAdapter : JsonSerializer<Color4b>, JsonDeserializer<Color4b> {
     }
 
     override fun deserialize(json: JsonElement, typeOfT: Type?, context: JsonDeserializationContext?): Color4b {
-        return Color4b(Color(json.asInt, true))
+        return Color4b(json.asInt, hasAlpha = true)
     }
 
 }
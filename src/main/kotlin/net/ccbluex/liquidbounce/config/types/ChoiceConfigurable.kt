@@ -104,6 +104,24 @@ class ChoiceConfigurable<T : Choice>(
         }
     }
 
+    override fun snapshot(): () -> Unit {
+        val previous = activeChoice
+
+        return {
+            if (activeChoice !== previous) {
+                if (this.activeChoice.running) {
+                    this.activeChoice.disable()
+                }
+
+                activeChoice = previous
+
+                if (this.activeChoice.running) {
+                    this.activeChoice.enable()
+                }
+            }
+        }
+    }
+
     @ScriptApiRequired
     fun getChoicesStrings(): Array<String> = this.choices.mapArray { it.name }
 
@@ -24,15 +24,15 @@ import com.google.gson.JsonElement
 import com.google.gson.annotations.SerializedName
 import com.mojang.brigadier.StringReader
 import net.ccbluex.liquidbounce.authlib.account.MinecraftAccount
+import net.ccbluex.liquidbounce.config.ConfigTransaction
 import net.ccbluex.liquidbounce.config.gson.stategies.Exclude
 import net.ccbluex.liquidbounce.config.gson.stategies.ProtocolExclude
 import net.ccbluex.liquidbounce.event.EventManager
 import net.ccbluex.liquidbounce.event.events.ValueChangedEvent
 import net.ccbluex.liquidbounce.features.misc.FriendManager
-import net.ccbluex.liquidbounce.lang.translation
+import net.ccbluex.liquidbounce.lang.translatedString
 import net.ccbluex.liquidbounce.render.engine.Color4b
 import net.ccbluex.liquidbounce.script.ScriptApiRequired
-import net.ccbluex.liquidbounce.utils.client.convertToString
 import net.ccbluex.liquidbounce.utils.client.logger
 import net.ccbluex.liquidbounce.utils.client.toLowerCamelCase
 import net.ccbluex.liquidbounce.utils.input.InputBind
@@ -41,7 +41,6 @@ import net.ccbluex.liquidbounce.utils.inventory.findBlocksEndingWith
 import net.ccbluex.liquidbounce.utils.kotlin.mapArray
 import net.minecraft.registry.Registries
 import net.minecraft.util.Identifier
-import java.awt.Color
 import java.util.*
 import java.util.function.Supplier
 import kotlin.reflect.KProperty
@@ -117,7 +116,7 @@ open class Value<T : Any>(
 
     @Exclude
     open var description = Supplier {
-        descriptionKey?.let { key -> translation(key).convertToString() }
+        descriptionKey?.let { key -> translatedString(key) }
     }
 
     /**
@@ -206,14 +205,52 @@ open class Value<T : Any>(
                 currT = it(t)
             }
         }.onSuccess {
+            val transaction = ConfigTransaction.active
+
+            // Within a transaction, notifications are deferred until it commits
+            if (transaction != null) {
+                transaction.stage(this, currT)
+                apply(currT)
+                return
+            }
+
             apply(currT)
             EventManager.callEvent(ValueChangedEvent(this))
             changedListeners.forEach { it(currT) }
         }.onFailure { ex ->
             logger.error("Failed to set ${this.name} from ${this.inner} to $t", ex)
+            ConfigTransaction.active?.fail(ex)
         }
     }
 
+    /**
+     * Captures the current state, the returned function restores it. The value listeners run again with the
+     * previous value to undo their side effects (e.g. a module that got enabled), changed listeners and
+     * [ValueChangedEvent] are not notified.
+     *
+     * @see ConfigTransaction
+     */
+    internal open fun snapshot(): () -> Unit {
+        val previous = inner
+
+        return {
+            if (inner != previous) {
+                runCatching {
+                    listeners.forEach { it(previous) }
+                }.onFailure { ex ->
+                    logger.error("Failed to restore ${this.name} to $previous", ex)
+                }
+
+                inner = previous
+            }
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    internal fun notifyChangedListeners(value: Any?) {
+        changedListeners.forEach { it(value as T) }
+    }
+
     /**
      * Restore value to default value
      */
@@ -349,7 +386,7 @@ open class Value<T : Any>(
                 if (string.startsWith("#")) {
                     set(Color4b.fromHex(string) as T)
                 } else {
-                    set(Color4b(Color(string.toInt())) as T)
+                    set(Color4b(string.toInt()) as T)
                 }
             }
 
@@ -119,6 +119,8 @@ val ALL_EVENT_CLASSES: Array<KClass<out Event>> = arrayOf(
     ProxyAdditionResultEvent::class,
     ProxyEditResultEvent::class,
     ProxyCheckResultEvent::class,
+    ProxyHealthCheckProgressEvent::class,
+    ProxyHealthCheckResultEvent::class,
     ScaleFactorChangeEvent::class,
     DrawOutlinesEvent::class,
     OverlayMessageEvent::class,
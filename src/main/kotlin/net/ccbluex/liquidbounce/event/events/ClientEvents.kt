@@ -171,6 +171,19 @@ class ProxyCheckResultEvent(val proxy: Proxy, val error: String? = null) : Event
 @WebSocketEvent
 class ProxyEditResultEvent(val proxy: Proxy? = null, val error: String? = null) : Event()
 
+@Nameable("proxyHealthCheckProgress")
+@WebSocketEvent
+class ProxyHealthCheckProgressEvent(
+    val checked: Int,
+    val total: Int,
+    val proxy: Proxy,
+    val error: String? = null
+) : Event()
+
+@Nameable("proxyHealthCheckResult")
+@WebSocketEvent
+class ProxyHealthCheckResultEvent(val ranking: List<Int>) : Event()
+
 @Nameable("browserReady")
 class BrowserReadyEvent(val browser: IBrowser) : Event()
 
@@ -25,9 +25,13 @@ import io.netty.channel.ChannelHandlerContext
 import io.netty.channel.ChannelPromise
 import io.netty.channel.SimpleChannelInboundHandler
 import io.netty.handler.codec.http.FullHttpResponse
+import io.netty.handler.codec.http.HttpHeaderNames
+import io.netty.handler.codec.http.HttpResponseStatus
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame
 import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshaker
+import io.netty.handler.codec.http.websocketx.WebSocketFrame
 import io.netty.handler.codec.http.websocketx.WebSocketHandshakeException
 import net.ccbluex.liquidbounce.event.EventManager
 import net.ccbluex.liquidbounce.event.events.ClientChatErrorEvent
@@ -39,6 +43,18 @@ class ChannelHandler(private val chatClient: ChatClient,
 
     lateinit var handshakeFuture: ChannelPromise
 
+    /**
+     * The subprotocol the server agreed on, or null if none was negotiated
+     */
+    val actualSubprotocol: String?
+        get() = handshaker.actualSubprotocol()
+
+    /**
+     * Set when the server accepted the upgrade, but did not agree on any of the offered subprotocols
+     */
+    var subprotocolRejected = false
+        private set
+
     /**
      * Do nothing by default, sub-classes may override this method.
      */
@@ -63,6 +79,10 @@ class ChannelHandler(private val chatClient: ChatClient,
      * Sub-classes may override this method to change behavior.
      */
     override fun channelInactive(ctx: ChannelHandlerContext) {
+        if (!handshakeFuture.isDone) {
+            handshakeFuture.setFailure(WebSocketHandshakeException("Connection closed during handshake"))
+        }
+
         EventManager.callEvent(ClientChatStateChange(ClientChatStateChange.State.DISCONNECTED))
     }
 
@@ -99,8 +119,11 @@ class ChannelHandler(private val chatClient: ChatClient,
         val channel = ctx.channel()
 
         if (!handshaker.isHandshakeComplete) {
+            val response = msg as FullHttpResponse
+            subprotocolRejected = isSubprotocolRejected(response)
+
             try {
-                handshaker.finishHandshake(channel, msg as FullHttpResponse)
+                handshaker.finishHandshake(channel, response)
                 handshakeFuture.setSuccess()
 
             } catch (exception: WebSocketHandshakeException) {
@@ -110,8 +133,19 @@ class ChannelHandler(private val chatClient: ChatClient,
         }
 
         when (msg) {
-            is TextWebSocketFrame -> chatClient.handlePlainMessage(msg.text())
+            is TextWebSocketFrame, is BinaryWebSocketFrame -> chatClient.handleFrame(msg as WebSocketFrame)
             is CloseWebSocketFrame -> channel.close()
         }
     }
+
+    private fun isSubprotocolRejected(response: FullHttpResponse): Boolean {
+        val offered = handshaker.expectedSubprotocol() ?: return false
+        if (response.status() != HttpResponseStatus.SWITCHING_PROTOCOLS) {
+            return false
+        }
+
+        val received = response.headers().get(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL)?.trim()
+        return received.isNullOrEmpty() || offered.split(',').none { it.trim() == received }
+    }
+
 }
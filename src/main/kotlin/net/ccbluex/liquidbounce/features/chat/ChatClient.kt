@@ -21,19 +21,17 @@
 
 package net.ccbluex.liquidbounce.features.chat
 
-import com.google.gson.GsonBuilder
 import com.mojang.authlib.exceptions.InvalidCredentialsException
 import io.netty.bootstrap.Bootstrap
 import io.netty.channel.Channel
 import io.netty.channel.ChannelInitializer
-import io.netty.channel.nio.NioEventLoopGroup
 import io.netty.channel.socket.SocketChannel
-import io.netty.channel.socket.nio.NioSocketChannel
 import io.netty.handler.codec.http.DefaultHttpHeaders
 import io.netty.handler.codec.http.HttpClientCodec
 import io.netty.handler.codec.http.HttpObjectAggregator
-import io.netty.handler.codec.http.websocketx.TextWebSocketFrame
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory
+import io.netty.handler.codec.http.websocketx.WebSocketFrame
 import io.netty.handler.codec.http.websocketx.WebSocketVersion
 import io.netty.handler.ssl.SslContext
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory
@@ -42,13 +40,25 @@ import net.ccbluex.liquidbounce.event.EventManager
 import net.ccbluex.liquidbounce.event.events.*
 import net.ccbluex.liquidbounce.features.chat.packet.*
 import net.ccbluex.liquidbounce.utils.client.chat
+import net.ccbluex.liquidbounce.utils.client.logger
 import net.ccbluex.liquidbounce.utils.client.mc
+import net.ccbluex.liquidbounce.utils.io.ClientEventLoop
 import net.minecraft.util.Util
 import java.net.URI
 import java.util.*
 
-class ChatClient {
+/**
+ * LiquidChat websocket client
+ *
+ * @param uri the chat server to connect to
+ * @param preferBinaryCodec whether the [BinaryPacketCodec] should be offered to the server during the handshake
+ */
+class ChatClient(
+    private val uri: URI = DEFAULT_URI,
+    private val preferBinaryCodec: () -> Boolean = { false }
+) {
 
+    @Volatile
     var channel: Channel? = null
 
     private val serializer = PacketSerializer().apply {
@@ -71,12 +81,44 @@ class ChatClient {
         registerPacket("Success", ClientSuccessPacket::class.java)
     }
 
+    private val jsonCodec = JsonPacketCodec(serializer, deserializer)
+    private val binaryCodec = BinaryPacketCodec(serializer, deserializer)
+
+    /**
+     * The codec negotiated during the last handshake, used for outgoing packets
+     */
+    @Volatile
+    var codec: PacketCodec = jsonCodec
+        private set
+
+    /**
+     * Set when the server rejected the binary subprotocol, so we do not offer it again this session
+     */
+    private var binaryCodecRejected = false
+
     val connected: Boolean
-        get() = channel != null && channel!!.isOpen
+        get() = channel?.isOpen == true
 
+    @Volatile
     private var isConnecting = false
     var loggedIn = false
 
+    private var reconnectAttempts = 0
+
+    /**
+     * Returns the delay in seconds to wait before the next reconnect attempt.
+     * The delay doubles on every failed attempt until it reaches [MAX_RECONNECT_DELAY] and is reset
+     * as soon as a connection could be established.
+     */
+    fun nextReconnectDelay(): Int {
+        val delay = (MIN_RECONNECT_DELAY shl reconnectAttempts).coerceAtMost(MAX_RECONNECT_DELAY)
+
+        if (delay < MAX_RECONNECT_DELAY) {
+            reconnectAttempts++
+        }
+        return delay
+    }
+
     fun connectAsync() {
         if (isConnecting || connected) {
             return
@@ -97,8 +139,7 @@ class ChatClient {
         EventManager.callEvent(ClientChatStateChange(ClientChatStateChange.State.CONNECTING))
         isConnecting = true
         loggedIn = false
-
-        val uri = URI("wss://chat.liquidbounce.net:7886/ws")
+        codec = jsonCodec
 
         val ssl = uri.scheme.equals("wss", true)
         val sslContext = if (ssl) {
@@ -107,13 +148,13 @@ class ChatClient {
             null
         }
 
-        val group = NioEventLoopGroup()
+        val offerBinary = preferBinaryCodec() && !binaryCodecRejected
         val handler = ChannelHandler(
             this,
             WebSocketClientHandshakerFactory.newHandshaker(
                 uri,
                 WebSocketVersion.V13,
-                null,
+                if (offerBinary) "${BinaryPacketCodec.SUBPROTOCOL}, ${JsonPacketCodec.SUBPROTOCOL}" else null,
                 true,
                 DefaultHttpHeaders()
             )
@@ -121,8 +162,8 @@ class ChatClient {
 
         val bootstrap = Bootstrap()
 
-        bootstrap.group(group)
-            .channel(NioSocketChannel::class.java)
+        bootstrap.group(ClientEventLoop.group)
+            .channel(ClientEventLoop.socketChannel)
             .handler(object : ChannelInitializer<SocketChannel>() {
 
                 /**
@@ -145,13 +186,33 @@ class ChatClient {
             })
 
         channel = bootstrap.connect(uri.host, uri.port).sync()!!.channel()!!
-        handler.handshakeFuture.sync()
+
+        try {
+            handler.handshakeFuture.sync()
+        } catch (e: Exception) {
+            // Only an explicit rejection downgrades us, a transient network error keeps offering the binary codec
+            if (offerBinary && handler.subprotocolRejected) {
+                logger.warn("LiquidChat server rejected the binary codec, falling back to JSON")
+                binaryCodecRejected = true
+            }
+
+            throw e
+        }
+
+        codec = when (handler.actualSubprotocol) {
+            BinaryPacketCodec.SUBPROTOCOL -> binaryCodec
+            else -> jsonCodec
+        }
     }.onFailure {
         EventManager.callEvent(ClientChatErrorEvent(it.localizedMessage ?: it.message ?: it.javaClass.name))
 
+        // Make sure a half-open connection does not stay around
+        channel?.close()
+        channel = null
         isConnecting = false
     }.onSuccess {
         if (connected) {
+            reconnectAttempts = 0
             EventManager.callEvent(ClientChatStateChange(ClientChatStateChange.State.CONNECTED))
         }
 
@@ -225,11 +286,9 @@ class ChatClient {
      * Send packet to server
      */
     internal fun sendPacket(packet: Packet) {
-        val gson = GsonBuilder()
-            .registerTypeAdapter(Packet::class.java, serializer)
-            .create()
+        val channel = channel ?: return
 
-        channel?.writeAndFlush(TextWebSocketFrame(gson.toJson(packet, Packet::class.java)))
+        channel.writeAndFlush(codec.encode(packet))
     }
 
     private fun handleFunctionalPacket(packet: Packet) {
@@ -306,15 +365,24 @@ class ChatClient {
 
 
     /**
-     * Handle incoming message of websocket
+     * Handle incoming data frame of websocket
+     *
+     * Text frames are always JSON, binary frames are only sent when the binary codec was negotiated.
      */
-    internal fun handlePlainMessage(message: String) {
-        val gson = GsonBuilder()
-            .registerTypeAdapter(Packet::class.java, deserializer)
-            .create()
+    internal fun handleFrame(frame: WebSocketFrame) {
+        val packet = when (frame) {
+            is BinaryWebSocketFrame -> binaryCodec.decode(frame)
+            else -> jsonCodec.decode(frame)
+        } ?: return
 
-        val packet = gson.fromJson(message, Packet::class.java)
         handleFunctionalPacket(packet)
     }
 
+    companion object {
+        private val DEFAULT_URI = URI("wss://chat.liquidbounce.net:7886/ws")
+
+        private const val MIN_RECONNECT_DELAY = 2
+        private const val MAX_RECONNECT_DELAY = 60
+    }
+
 }
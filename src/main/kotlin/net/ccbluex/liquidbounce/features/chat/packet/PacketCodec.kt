@@ -0,0 +1,254 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015-2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+package net.ccbluex.liquidbounce.features.chat.packet
+
+import com.google.gson.Gson
+import com.google.gson.GsonBuilder
+import com.google.gson.JsonElement
+import com.google.gson.JsonNull
+import com.google.gson.JsonObject
+import com.google.gson.JsonPrimitive
+import com.google.gson.annotations.SerializedName
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import io.netty.handler.codec.DecoderException
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame
+import io.netty.handler.codec.http.websocketx.WebSocketFrame
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Encodes and decodes chat packets to and from websocket frames.
+ */
+interface PacketCodec {
+
+    /**
+     * Websocket subprotocol announcing this codec during the handshake
+     */
+    val subprotocol: String
+
+    fun encode(packet: Packet): WebSocketFrame
+
+    fun decode(frame: WebSocketFrame): Packet?
+
+}
+
+/**
+ * The default codec, which sends every packet as JSON text frame.
+ */
+class JsonPacketCodec(serializer: PacketSerializer, deserializer: PacketDeserializer) : PacketCodec {
+
+    override val subprotocol = SUBPROTOCOL
+
+    private val serializingGson = GsonBuilder()
+        .registerTypeAdapter(Packet::class.java, serializer)
+        .create()
+    private val deserializingGson = GsonBuilder()
+        .registerTypeAdapter(Packet::class.java, deserializer)
+        .create()
+
+    override fun encode(packet: Packet) =
+        TextWebSocketFrame(serializingGson.toJson(packet, Packet::class.java))
+
+    override fun decode(frame: WebSocketFrame) =
+        if (frame is TextWebSocketFrame) decode(frame.text()) else null
+
+    fun decode(message: String): Packet? = deserializingGson.fromJson(message, Packet::class.java)
+
+    companion object {
+        const val SUBPROTOCOL = "liquidchat.json"
+    }
+
+}
+
+/**
+ * A compact binary codec, which has to be negotiated with the server using the [SUBPROTOCOL].
+ *
+ * A frame consists of the packet id as var-int (registration order of the packet), followed by the fields
+ * of the packet in declaration order. Field names are never sent.
+ *
+ * - Strings are prefixed by their UTF-8 length plus one as var-int, a length of zero marks null
+ * - Booleans are a single byte
+ * - UUIDs and nested objects are prefixed by a presence byte, UUIDs are written as two longs
+ *
+ * Packets are still converted through Gson trees, so [SerializedName] mappings are shared with the JSON codec.
+ */
+class BinaryPacketCodec(
+    private val serializer: PacketSerializer,
+    private val deserializer: PacketDeserializer
+) : PacketCodec {
+
+    override val subprotocol = SUBPROTOCOL
+
+    private val gson = Gson()
+    private val schemas = ConcurrentHashMap<Class<*>, List<SchemaField>>()
+
+    override fun encode(packet: Packet): WebSocketFrame {
+        val id = serializer.packetId(packet.javaClass)
+        require(id >= 0) { "Packet ${packet.javaClass.simpleName} is not registered" }
+
+        val buf = Unpooled.buffer()
+        buf.writeVarInt(id)
+        writeObject(buf, packet.javaClass, gson.toJsonTree(packet).asJsonObject)
+        return BinaryWebSocketFrame(buf)
+    }
+
+    override fun decode(frame: WebSocketFrame): Packet? {
+        if (frame !is BinaryWebSocketFrame) {
+            return null
+        }
+
+        val buf = frame.content()
+        val packetClass = deserializer.packetClass(buf.readVarInt()) ?: return null
+        return gson.fromJson(readObject(buf, packetClass), packetClass)
+    }
+
+    private fun writeObject(buf: ByteBuf, type: Class<*>, json: JsonObject) {
+        for (field in schemaOf(type)) {
+            val value = json.get(field.name)?.takeUnless { it.isJsonNull }
+
+            when (field.kind) {
+                FieldKind.STRING -> buf.writeString(value?.asString)
+                FieldKind.BOOLEAN -> buf.writeBoolean(value?.asBoolean ?: false)
+                FieldKind.UUID -> {
+                    buf.writeBoolean(value != null)
+                    if (value != null) {
+                        val uuid = UUID.fromString(value.asString)
+                        buf.writeLong(uuid.mostSignificantBits)
+                        buf.writeLong(uuid.leastSignificantBits)
+                    }
+                }
+                FieldKind.OBJECT -> {
+                    buf.writeBoolean(value != null)
+                    if (value != null) {
+                        writeObject(buf, field.type, value.asJsonObject)
+                    }
+                }
+            }
+        }
+    }
+
+    private fun readObject(buf: ByteBuf, type: Class<*>): JsonObject {
+        val json = JsonObject()
+
+        for (field in schemaOf(type)) {
+            val value: JsonElement = when (field.kind) {
+                FieldKind.STRING -> buf.readString()?.let(::JsonPrimitive) ?: JsonNull.INSTANCE
+                FieldKind.BOOLEAN -> JsonPrimitive(buf.readBoolean())
+                FieldKind.UUID -> if (buf.readBoolean()) {
+                    JsonPrimitive(UUID(buf.readLong(), buf.readLong()).toString())
+                } else {
+                    JsonNull.INSTANCE
+                }
+                FieldKind.OBJECT -> if (buf.readBoolean()) readObject(buf, field.type) else JsonNull.INSTANCE
+            }
+
+            json.add(field.name, value)
+        }
+
+        return json
+    }
+
+    private fun schemaOf(type: Class<*>) = schemas.computeIfAbsent(type) {
+        type.declaredFields
+            .filter { !Modifier.isStatic(it.modifiers) && !Modifier.isTransient(it.modifiers) }
+            .map(::SchemaField)
+    }
+
+    private class SchemaField(field: Field) {
+        val name: String = field.getAnnotation(SerializedName::class.java)?.value ?: field.name
+        val type: Class<*> = field.type
+        val kind = when (type) {
+            String::class.java -> FieldKind.STRING
+            java.lang.Boolean.TYPE, java.lang.Boolean::class.java -> FieldKind.BOOLEAN
+            UUID::class.java -> FieldKind.UUID
+            else -> FieldKind.OBJECT
+        }
+    }
+
+    private enum class FieldKind {
+        STRING, BOOLEAN, UUID, OBJECT
+    }
+
+    companion object {
+        const val SUBPROTOCOL = "liquidchat.binary"
+
+        private const val MAX_STRING_LENGTH = 32767
+
+        private fun ByteBuf.writeVarInt(value: Int) {
+            var remaining = value
+            while (remaining and 0x7F.inv() != 0) {
+                writeByte((remaining and 0x7F) or 0x80)
+                remaining = remaining ushr 7
+            }
+            writeByte(remaining)
+        }
+
+        private fun ByteBuf.readVarInt(): Int {
+            var value = 0
+            var position = 0
+
+            while (true) {
+                val byte = readByte().toInt()
+                value = value or ((byte and 0x7F) shl position)
+
+                if (byte and 0x80 == 0) {
+                    return value
+                }
+
+                position += 7
+                if (position >= 32) {
+                    throw DecoderException("VarInt is too big")
+                }
+            }
+        }
+
+        private fun ByteBuf.writeString(value: String?) {
+            if (value == null) {
+                writeVarInt(0)
+                return
+            }
+
+            val bytes = value.toByteArray(Charsets.UTF_8)
+            writeVarInt(bytes.size + 1)
+            writeBytes(bytes)
+        }
+
+        private fun ByteBuf.readString(): String? {
+            val length = readVarInt() - 1
+            if (length < 0) {
+                return null
+            }
+
+            if (length > MAX_STRING_LENGTH * 4 || length > readableBytes()) {
+                throw DecoderException("String is too long ($length bytes)")
+            }
+
+            val value = toString(readerIndex(), length, Charsets.UTF_8)
+            skipBytes(length)
+            return value
+        }
+    }
+
+}
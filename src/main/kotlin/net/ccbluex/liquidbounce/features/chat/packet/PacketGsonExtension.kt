@@ -31,14 +31,24 @@ import java.lang.reflect.Type
 class PacketSerializer : JsonSerializer<Packet> {
 
     private val packetRegistry = hashMapOf<Class<out Packet>, String>()
+    private val packetIds = hashMapOf<Class<out Packet>, Int>()
+    private val gson = Gson()
 
     /**
      * Register packet
+     *
+     * The registration order defines the packet id used by the [BinaryPacketCodec].
      */
     fun registerPacket(packetName: String, packetClass: Class<out Packet>) {
         packetRegistry[packetClass] = packetName
+        packetIds[packetClass] = packetIds.size
     }
 
+    /**
+     * Get the binary packet id of the given packet class or -1 if it is not registered
+     */
+    fun packetId(packetClass: Class<out Packet>) = packetIds.getOrDefault(packetClass, -1)
+
     /**
      * Gson invokes this call-back method during serialization when it encounters a field of the
      * specified type.
@@ -59,7 +69,7 @@ class PacketSerializer : JsonSerializer<Packet> {
         val serializedPacket =
             SerializedPacket(packetName, if (src.javaClass.constructors.none { it.parameterCount != 0 }) null else src)
 
-        return Gson().toJsonTree(serializedPacket)
+        return gson.toJsonTree(serializedPacket)
     }
 
 }
@@ -72,14 +82,24 @@ class PacketSerializer : JsonSerializer<Packet> {
 class PacketDeserializer : JsonDeserializer<Packet> {
 
     private val packetRegistry = hashMapOf<String, Class<out Packet>>()
+    private val packetClasses = mutableListOf<Class<out Packet>>()
+    private val gson = Gson()
 
     /**
      * Register packet
+     *
+     * The registration order defines the packet id used by the [BinaryPacketCodec].
      */
     fun registerPacket(packetName: String, packetClass: Class<out Packet>) {
         packetRegistry[packetName] = packetClass
+        packetClasses += packetClass
     }
 
+    /**
+     * Get the packet class of the given binary packet id
+     */
+    fun packetClass(id: Int) = packetClasses.getOrNull(id)
+
     /**
      * Gson invokes this call-back method during deserialization when it encounters a field of the
      * specified type.
@@ -103,7 +123,7 @@ class PacketDeserializer : JsonDeserializer<Packet> {
 
         if (!packetObject.has("c")) packetObject.add("c", JsonObject())
 
-        return Gson().fromJson(packetObject.get("c"), packetRegistry[packetName])
+        return gson.fromJson(packetObject.get("c"), packetRegistry[packetName])
 
     }
 
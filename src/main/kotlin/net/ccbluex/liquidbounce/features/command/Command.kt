@@ -20,8 +20,8 @@ package net.ccbluex.liquidbounce.features.command
 
 import com.mojang.brigadier.suggestion.SuggestionsBuilder
 import net.ccbluex.liquidbounce.features.module.MinecraftShortcuts
+import net.ccbluex.liquidbounce.lang.translatedString
 import net.ccbluex.liquidbounce.lang.translation
-import net.ccbluex.liquidbounce.utils.client.convertToString
 import net.minecraft.text.MutableText
 import java.util.*
 
@@ -37,11 +37,13 @@ class Command(
     val requiresIngame: Boolean,
     private var parentCommand: Command? = null
 ) : MinecraftShortcuts {
+    internal val subcommandIndex by lazy { CommandIndex(subcommands.asIterable()) }
+
     val translationBaseKey: String
         get() = "liquidbounce.command.${getParentKeys(this, name)}"
 
     val description: String
-        get() = translation("$translationBaseKey.description").convertToString()
+        get() = translatedString("$translationBaseKey.description")
 
     init {
         subcommands.forEach {
@@ -157,14 +159,10 @@ class Command(
 
         // Handle Subcommands
         if (isAtSecondParameterBeginning || isInSecondParameter) {
-            val comparedAgainst = if (!isNewParameter) args[offset] else ""
-
-            this.subcommands.forEach { subcommand ->
-                if (subcommand.name.startsWith(comparedAgainst, true)) {
-                    builder.suggest(subcommand.name)
-                }
+            val comparedAgainst = if (!isNewParameter) args.last() else ""
 
-                subcommand.aliases.filter { it.startsWith(comparedAgainst, true) }.forEach { builder.suggest(it) }
+            for (name in subcommandIndex.complete(comparedAgainst)) {
+                builder.suggest(name)
             }
         }
 
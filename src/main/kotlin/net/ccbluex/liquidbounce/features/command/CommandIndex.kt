@@ -0,0 +1,53 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.command
+
+import net.ccbluex.liquidbounce.utils.collection.PrefixTrie
+
+/**
+ * Lookup and completion index over the names and aliases of a set of commands.
+ */
+internal class CommandIndex(commands: Iterable<Command>) {
+
+    private val byName = PrefixTrie<Command>()
+    private val names = PrefixTrie<String>()
+
+    init {
+        for (command in commands) {
+            byName.put(command.name, command)
+            names.put(command.name, command.name)
+
+            for (alias in command.aliases) {
+                byName.put(alias, command)
+                names.put(alias, alias)
+            }
+        }
+    }
+
+    /**
+     * Returns the command called [name] or having it as alias, ignoring case.
+     */
+    fun lookup(name: String) = byName[name]
+
+    /**
+     * Returns all names and aliases starting with [begin], or the best fuzzy matches if there are none.
+     */
+    fun complete(begin: String) = names.search(begin)
+
+}
@@ -185,12 +185,22 @@ object CommandManager : Iterable<Command> by commands {
 
     fun addCommand(command: Command) {
         commands.add(command)
+        commandIndex = null
     }
 
     fun removeCommand(command: Command) {
         commands.remove(command)
+        commandIndex = null
     }
 
+    /**
+     * Index over the names and aliases of all commands, rebuilt on the next lookup after the commands changed
+     */
+    private var commandIndex: CommandIndex? = null
+
+    private val index
+        get() = commandIndex ?: CommandIndex(commands).also { commandIndex = it }
+
     /**
      * Returns the instance of the subcommand that would be executed by a command
      * e.g. `getSubCommand(".friend add Player137 &3superblaubeere27")`
@@ -222,19 +232,10 @@ object CommandManager : Iterable<Command> by commands {
         }
 
         // If currentCommand is null, idx must be 0, so search in all commands
-        val commandSupplier = currentCommand?.first?.subcommands?.asIterable() ?: commands
+        val candidates = currentCommand?.first?.subcommandIndex ?: index
 
         // Look if something matches the current index, if it does, look if there are further matches
-        commandSupplier
-            .firstOrNull {
-                it.name.equals(args[idx], true) || it.aliases.any { alias ->
-                    alias.equals(
-                        args[idx],
-                        true
-                    )
-                }
-            }
-            ?.let { return getSubCommand(args, Pair(it, idx), idx + 1) }
+        candidates.lookup(args[idx])?.let { return getSubCommand(args, Pair(it, idx), idx + 1) }
 
         // If no match was found, currentCommand is the subcommand that we searched for
         return currentCommand
@@ -478,12 +479,8 @@ object CommandManager : Iterable<Command> by commands {
             val pair = getSubCommand(args)
 
             if (args.size == 1 && (pair == null || !nextParameter)) {
-                for (command in commands) {
-                    if (command.name.startsWith(args[0], true)) {
-                        builder.suggest(command.name)
-                    }
-
-                    command.aliases.filter { it.startsWith(args[0], true) }.forEach { builder.suggest(it) }
+                for (name in index.complete(args[0])) {
+                    builder.suggest(name)
                 }
 
                 return builder.buildFuture()
@@ -0,0 +1,116 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.command.builder
+
+import net.ccbluex.liquidbounce.config.types.ChoiceConfigurable
+import net.ccbluex.liquidbounce.config.types.ChooseListValue
+import net.ccbluex.liquidbounce.config.types.Configurable
+import net.ccbluex.liquidbounce.config.types.Value
+import net.ccbluex.liquidbounce.config.types.ValueType
+import net.ccbluex.liquidbounce.event.EventListener
+import net.ccbluex.liquidbounce.event.events.ValueChangedEvent
+import net.ccbluex.liquidbounce.event.handler
+import net.ccbluex.liquidbounce.utils.collection.PrefixTrie
+import net.minecraft.enchantment.Enchantment
+import net.minecraft.registry.Registries
+import net.minecraft.registry.Registry
+import net.minecraft.util.Identifier
+import java.util.*
+
+/**
+ * Caches [PrefixTrie]s over large completion domains, so parameter completion does not have to walk
+ * and filter a whole registry on every keystroke.
+ *
+ * Identifiers are indexed by their full form and by their path, `dia` completes to `minecraft:diamond`.
+ */
+object CompletionIndex : EventListener {
+
+    /**
+     * Blocks and items are frozen after bootstrap, so they are indexed once
+     */
+    val blocks by lazy { identifierIndex(Registries.BLOCK.ids) }
+    val items by lazy { identifierIndex(Registries.ITEM.ids) }
+
+    /**
+     * The enchantment registry is dynamic and replaced with every world join
+     */
+    private var enchantments: Pair<Registry<Enchantment>, PrefixTrie<String>>? = null
+
+    /**
+     * Contained values per configurable, these depend on the active choices and are dropped when one changes
+     */
+    private val values = IdentityHashMap<Configurable, PrefixTrie<Value<*>>>()
+
+    fun enchantments(registry: Registry<Enchantment>): PrefixTrie<String> {
+        enchantments?.takeIf { it.first === registry }?.let { return it.second }
+
+        return identifierIndex(registry.ids).also { enchantments = registry to it }
+    }
+
+    fun values(configurable: Configurable): PrefixTrie<Value<*>> = synchronized(values) {
+        values.getOrPut(configurable) {
+            PrefixTrie.of(configurable.getContainedValuesRecursively().asIterable()) { listOf(it.name) }
+        }
+    }
+
+    /**
+     * Completes the string representation of [value], as accepted by [Value.setByString].
+     *
+     * @return null if the type of [value] has no known domain
+     */
+    fun complete(value: Value<*>, begin: String): List<String>? {
+        return when (value.valueType) {
+            ValueType.BOOLEAN -> listOf("true", "false").filter { it.startsWith(begin, true) }
+            ValueType.CHOOSE -> (value as ChooseListValue<*>).choices
+                .map { it.choiceName }
+                .filter { it.startsWith(begin, true) }
+            ValueType.CHOICE -> (value as ChoiceConfigurable<*>).choices
+                .map { it.choiceName }
+                .filter { it.startsWith(begin, true) }
+            ValueType.BLOCK -> blocks.search(begin)
+            ValueType.BLOCKS -> completeList(blocks, begin)
+            ValueType.ITEM -> items.search(begin)
+            ValueType.ITEMS -> completeList(items, begin)
+            else -> null
+        }
+    }
+
+    /**
+     * Completes the last element of a comma separated list
+     */
+    private fun completeList(index: PrefixTrie<String>, begin: String): List<String> {
+        val head = begin.substringBeforeLast(',', "")
+        val results = index.search(begin.substringAfterLast(','))
+
+        return if (head.isEmpty()) results else results.map { "$head,$it" }
+    }
+
+    private fun identifierIndex(ids: Iterable<Identifier>) =
+        PrefixTrie.of(ids.map(Identifier::toString)) { listOf(it, it.substringAfter(':')) }
+
+    @Suppress("unused")
+    private val valueChangedHandler = handler<ValueChangedEvent> { event ->
+        if (event.value is Configurable) {
+            synchronized(values) {
+                values.clear()
+            }
+        }
+    }
+
+}
@@ -79,6 +79,12 @@ class ParameterBuilder<T> private constructor(val name: String) {
 
         fun <T> begin(name: String): ParameterBuilder<T> = ParameterBuilder(name)
 
+        /**
+         * Completes the names of the players in the tab list
+         */
+        fun playerNames(begin: String): List<String> =
+            mc.networkHandler?.playerList?.map { it.profile.name }?.filter { it.startsWith(begin, true) } ?: emptyList()
+
     }
 
     fun verifiedBy(verifier: ParameterVerifier<T>): ParameterBuilder<T> {
@@ -125,9 +131,7 @@ class ParameterBuilder<T> private constructor(val name: String) {
     }
 
     fun useMinecraftAutoCompletion(): ParameterBuilder<T> {
-        autocompletionHandler = { begin, _ ->
-            mc.networkHandler?.playerList?.map { it.profile.name }?.filter { it.startsWith(begin, true) } ?: emptyList()
-        }
+        autocompletionHandler = { begin, _ -> playerNames(begin) }
 
         return this
     }
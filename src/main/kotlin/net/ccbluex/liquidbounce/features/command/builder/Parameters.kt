@@ -22,44 +22,28 @@ package net.ccbluex.liquidbounce.features.command.builder
 import net.ccbluex.liquidbounce.features.module.ClientModule
 import net.ccbluex.liquidbounce.features.module.ModuleManager
 import net.ccbluex.liquidbounce.utils.client.world
-import net.minecraft.registry.Registries
 import net.minecraft.registry.RegistryKeys
 
 fun blockParameter(name: String = "block"): ParameterBuilder<String> {
     return ParameterBuilder
         .begin<String>(name)
         .verifiedBy(ParameterBuilder.STRING_VALIDATOR)
-        .autocompletedWith { _ ->
-            Registries.BLOCK.map {
-                it.translationKey
-                    .removePrefix("block.")
-                    .replace('.', ':')
-            }
-        }
+        .autocompletedWith { begin -> CompletionIndex.blocks.search(begin) }
 }
 
 fun itemParameter(name: String = "item"): ParameterBuilder<String> {
     return ParameterBuilder
         .begin<String>(name)
         .verifiedBy(ParameterBuilder.STRING_VALIDATOR)
-        .autocompletedWith { _ ->
-            Registries.ITEM.map {
-                it.translationKey
-                    .removePrefix("item.")
-                    .removePrefix("block.")
-                    .replace('.', ':')
-            }
-        }
+        .autocompletedWith { begin -> CompletionIndex.items.search(begin) }
 }
 
 fun enchantmentParameter(name: String = "enchantment"): ParameterBuilder<String> {
     return ParameterBuilder
         .begin<String>(name)
         .verifiedBy(ParameterBuilder.STRING_VALIDATOR)
-        .autocompletedWith { _ ->
-            world.registryManager.getOrThrow(RegistryKeys.ENCHANTMENT).indexedEntries.map {
-                it.idAsString
-            }
+        .autocompletedWith { begin ->
+            CompletionIndex.enchantments(world.registryManager.getOrThrow(RegistryKeys.ENCHANTMENT)).search(begin)
         }
 }
 
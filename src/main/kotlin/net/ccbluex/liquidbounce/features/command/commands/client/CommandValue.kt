@@ -22,6 +22,7 @@ import net.ccbluex.liquidbounce.features.command.Command
 import net.ccbluex.liquidbounce.features.command.CommandException
 import net.ccbluex.liquidbounce.features.command.CommandFactory
 import net.ccbluex.liquidbounce.features.command.builder.CommandBuilder
+import net.ccbluex.liquidbounce.features.command.builder.CompletionIndex
 import net.ccbluex.liquidbounce.features.command.builder.ParameterBuilder
 import net.ccbluex.liquidbounce.features.module.ClientModule
 import net.ccbluex.liquidbounce.features.module.ModuleManager
@@ -53,12 +54,10 @@ object CommandValue : CommandFactory {
                     .begin<String>("valueName")
                     .verifiedBy(ParameterBuilder.STRING_VALIDATOR)
                     .autocompletedWith { begin, args ->
-                        val module = ModuleManager.find { it.name.equals(args[1], true) }
-                        if (module == null) return@autocompletedWith emptyList()
+                        val module = ModuleManager.getModuleByName(args[1])
+                            ?: return@autocompletedWith emptyList()
 
-                        module.getContainedValuesRecursively()
-                            .filter { it.name.startsWith(begin, true) }
-                            .map { it.name }
+                        CompletionIndex.values(module).search(begin).map { it.name }
                     }
                     .required()
                     .build()
@@ -67,7 +66,12 @@ object CommandValue : CommandFactory {
                 ParameterBuilder
                     .begin<String>("value")
                     .verifiedBy(ParameterBuilder.STRING_VALIDATOR)
-                    .useMinecraftAutoCompletion()
+                    .autocompletedWith { begin, args ->
+                        val module = ModuleManager.getModuleByName(args[1])
+                        val value = module?.let { CompletionIndex.values(it)[args[2]] }
+
+                        value?.let { CompletionIndex.complete(it, begin) } ?: ParameterBuilder.playerNames(begin)
+                    }
                     .required()
                     .build()
             )
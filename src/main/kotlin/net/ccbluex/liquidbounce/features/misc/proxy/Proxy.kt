@@ -34,6 +34,12 @@ data class Proxy(
     var favorite: Boolean = false
 ) {
 
+    /**
+     * Results of previous health checks, not part of [equals] as it changes with every check
+     */
+    @Volatile
+    var health: ProxyHealth? = null
+
     val address
         get() = InetSocketAddress(host, port)
 
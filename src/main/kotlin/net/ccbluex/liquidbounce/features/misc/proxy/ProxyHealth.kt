@@ -0,0 +1,68 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.misc.proxy
+
+/**
+ * Result history of proxy health checks
+ *
+ * @param latency latency of the last successful check in milliseconds, -1 if the proxy never responded
+ * @param history bit set of the most recent check results, bit 0 being the latest (1 = success)
+ * @param samples amount of valid bits in [history], at most [HISTORY_SIZE]
+ * @param lastChecked time of the last check in milliseconds since epoch
+ */
+data class ProxyHealth(
+    val latency: Long = -1,
+    val history: Int = 0,
+    val samples: Int = 0,
+    val lastChecked: Long = 0
+) {
+
+    val lastSuccessful: Boolean
+        get() = samples > 0 && history and 1 == 1
+
+    val successRate: Double
+        get() = if (samples == 0) 0.0 else Integer.bitCount(history and mask(samples)) / samples.toDouble()
+
+    /**
+     * Health score used for ranking, higher is better. Combines the success rate of the recent checks
+     * with the last measured latency, a proxy at [REFERENCE_LATENCY] scores half of an instant one.
+     */
+    val score: Double
+        get() = if (latency < 0) 0.0 else successRate * REFERENCE_LATENCY / (REFERENCE_LATENCY + latency)
+
+    /**
+     * Returns a new health with the given check result recorded
+     *
+     * @param latency the measured latency or null if the check failed
+     */
+    fun record(latency: Long?, time: Long = System.currentTimeMillis()) = ProxyHealth(
+        latency = latency ?: this.latency,
+        history = ((history shl 1) or if (latency != null) 1 else 0) and mask(HISTORY_SIZE),
+        samples = (samples + 1).coerceAtMost(HISTORY_SIZE),
+        lastChecked = time
+    )
+
+    companion object {
+        const val HISTORY_SIZE = 16
+        private const val REFERENCE_LATENCY = 250.0
+
+        private fun mask(bits: Int) = (1 shl bits) - 1
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.misc.proxy
+
+import io.netty.bootstrap.Bootstrap
+import io.netty.channel.Channel
+import io.netty.channel.ChannelFutureListener
+import io.netty.channel.ChannelInitializer
+import io.netty.channel.ChannelOption
+import io.netty.handler.proxy.Socks5ProxyHandler
+import io.netty.util.concurrent.Future
+import io.netty.util.concurrent.GenericFutureListener
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import net.ccbluex.liquidbounce.utils.io.ClientEventLoop
+import java.net.InetSocketAddress
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * Bulk health check of proxies
+ *
+ * Unlike [check], this does not speak the Minecraft protocol. It only opens a SOCKS5 tunnel through each proxy
+ * to [target] and measures the time until the proxy confirmed the connection. At most [parallelism] probes
+ * are in flight at once, all of them running on the shared [ClientEventLoop].
+ *
+ * The result of every probe is recorded into [Proxy.health]. Persisting is left to the caller,
+ * so a whole list can be stored once at the end.
+ */
+class ProxyHealthCheck(
+    private val proxies: List<Proxy>,
+    private val target: InetSocketAddress,
+    private val parallelism: Int = DEFAULT_PARALLELISM,
+    private val timeout: Int = DEFAULT_TIMEOUT
+) {
+
+    /**
+     * Checks all proxies and returns them ranked by their health score
+     *
+     * @param onProgress called after each probe with the amount of proxies checked so far,
+     * may be called from different threads
+     */
+    suspend fun run(onProgress: (checked: Int, proxy: Proxy, error: Throwable?) -> Unit = { _, _, _ -> }) =
+        coroutineScope {
+            val semaphore = Semaphore(parallelism)
+            val checked = AtomicInteger()
+
+            proxies.map { proxy ->
+                async {
+                    semaphore.withPermit {
+                        val result = runCatching { probe(proxy) }
+                        val health = proxy.health ?: ProxyHealth()
+
+                        proxy.health = health.record(result.getOrNull())
+                        onProgress(checked.incrementAndGet(), proxy, result.exceptionOrNull())
+                    }
+                }
+            }.awaitAll()
+
+            rank(proxies)
+        }
+
+    /**
+     * Connects to [target] through the proxy and returns the time it took in milliseconds
+     */
+    private suspend fun probe(proxy: Proxy): Long = suspendCancellableCoroutine { continuation ->
+        val start = System.nanoTime()
+
+        val future = Bootstrap()
+            .group(ClientEventLoop.group)
+            .channel(ClientEventLoop.socketChannel)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeout)
+            .handler(object : ChannelInitializer<Channel>() {
+                override fun initChannel(channel: Channel) {
+                    channel.pipeline().addFirst("proxy", proxy.handler().apply {
+                        setConnectTimeoutMillis(timeout.toLong())
+                    })
+                }
+            })
+            .connect(target)
+
+        future.addListener(ChannelFutureListener { connect ->
+            if (!connect.isSuccess) {
+                connect.channel().close()
+                continuation.resumeWithException(connect.cause())
+                return@ChannelFutureListener
+            }
+
+            // The connect future only covers the TCP connection to the proxy itself,
+            // the tunnel to the target is established once the SOCKS5 handshake completed
+            val proxyHandler = connect.channel().pipeline().get(Socks5ProxyHandler::class.java)
+            if (proxyHandler == null) {
+                connect.channel().close()
+                continuation.resumeWithException(IllegalStateException("Proxy handler missing from pipeline"))
+                return@ChannelFutureListener
+            }
+
+            proxyHandler.connectFuture().addListener(GenericFutureListener<Future<Channel>> { tunnel ->
+                val latency = (System.nanoTime() - start) / 1_000_000
+                connect.channel().close()
+
+                if (tunnel.isSuccess) {
+                    continuation.resume(latency)
+                } else {
+                    continuation.resumeWithException(tunnel.cause())
+                }
+            })
+        })
+
+        continuation.invokeOnCancellation {
+            future.channel().close()
+        }
+    }
+
+    companion object {
+        const val DEFAULT_PARALLELISM = 32
+        const val DEFAULT_TIMEOUT = 5000
+
+        /**
+         * Ranks proxies by their health score, proxies that were never checked come last
+         */
+        fun rank(proxies: List<Proxy>) = proxies.sortedByDescending { it.health?.score ?: -1.0 }
+    }
+
+}
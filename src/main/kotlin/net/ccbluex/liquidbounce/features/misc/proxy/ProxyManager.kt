@@ -19,6 +19,11 @@
 package net.ccbluex.liquidbounce.features.misc.proxy
 
 import io.netty.handler.proxy.Socks5ProxyHandler
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
 import net.ccbluex.liquidbounce.LiquidBounce
 import net.ccbluex.liquidbounce.config.ConfigSystem
 import net.ccbluex.liquidbounce.config.types.Configurable
@@ -30,6 +35,8 @@ import net.ccbluex.liquidbounce.event.events.PipelineEvent
 import net.ccbluex.liquidbounce.event.events.ProxyAdditionResultEvent
 import net.ccbluex.liquidbounce.event.events.ProxyCheckResultEvent
 import net.ccbluex.liquidbounce.event.events.ProxyEditResultEvent
+import net.ccbluex.liquidbounce.event.events.ProxyHealthCheckProgressEvent
+import net.ccbluex.liquidbounce.event.events.ProxyHealthCheckResultEvent
 import net.ccbluex.liquidbounce.event.handler
 import net.ccbluex.liquidbounce.features.misc.proxy.Proxy.Credentials.Companion.credentials
 
@@ -45,6 +52,12 @@ object ProxyManager : Configurable("proxy"), EventListener {
     private var proxy by value("selectedProxy", NO_PROXY, valueType = ValueType.PROXY)
     internal val proxies by value(name, mutableListOf<Proxy>(), listType = ListValueType.Proxy)
 
+    private val scope = CoroutineScope(Dispatchers.IO + SupervisorJob())
+    private var healthCheckJob: Job? = null
+
+    val isHealthCheckRunning
+        get() = healthCheckJob?.isActive == true
+
     /**
      * The proxy that is set in the current session and used for all server connections
      */
@@ -114,6 +127,38 @@ object ProxyManager : Configurable("proxy"), EventListener {
         )
     }
 
+    /**
+     * Checks the health of all proxies in parallel. Progress is reported through [ProxyHealthCheckProgressEvent]
+     * and the config is only stored once all proxies were checked.
+     *
+     * @return false if a health check is already running
+     */
+    fun checkAllProxies(parallelism: Int = ProxyHealthCheck.DEFAULT_PARALLELISM): Boolean {
+        if (isHealthCheckRunning) {
+            return false
+        }
+
+        val proxies = proxies.toList()
+        healthCheckJob = scope.launch {
+            runCatching {
+                val healthCheck = ProxyHealthCheck(proxies, resolvePingServer(), parallelism)
+                val ranked = healthCheck.run { checked, proxy, error ->
+                    EventManager.callEvent(ProxyHealthCheckProgressEvent(checked, proxies.size, proxy,
+                        error?.let { it.message ?: it.javaClass.simpleName }))
+                }
+
+                LiquidBounce.logger.info("Checked ${proxies.size} proxies, " +
+                    "${proxies.count { it.health?.lastSuccessful == true }} are healthy")
+                ConfigSystem.storeConfigurable(this@ProxyManager)
+
+                EventManager.callEvent(ProxyHealthCheckResultEvent(ranked.map(this@ProxyManager.proxies::indexOf)))
+            }.onFailure {
+                LiquidBounce.logger.error("Failed to check proxies", it)
+            }
+        }
+        return true
+    }
+
     fun removeProxy(index: Int) {
         val proxy = proxies.removeAt(index)
         if (proxy == currentProxy) {
@@ -66,18 +66,26 @@ class ClientConnectionTicker(private val clientConnection: ClientConnection) : E
 }
 
 /**
- * Checks if a proxy is valid and can be used for Minecraft. This will use network resources to check the proxy,
- * as well as update the ip information of the proxy.
+ * Resolves the address of the [PING_SERVER]
  */
-fun Proxy.check(success: (Proxy) -> Unit, failure: (Throwable) -> Unit) = runCatching {
-    logger.info("Request ping server via proxy... [$host:$port]")
-
+internal fun resolvePingServer(): InetSocketAddress {
     val serverAddress = ServerAddress.parse(PING_SERVER)
     val socketAddress: InetSocketAddress = AllowedAddressResolver.DEFAULT.resolve(serverAddress)
         .map(Address::getInetSocketAddress)
         .getOrNull()
         ?: error("Failed to resolve $PING_SERVER")
     logger.info("Resolved ping server [$PING_SERVER]: $socketAddress")
+    return socketAddress
+}
+
+/**
+ * Checks if a proxy is valid and can be used for Minecraft. This will use network resources to check the proxy,
+ * as well as update the ip information of the proxy.
+ */
+fun Proxy.check(success: (Proxy) -> Unit, failure: (Throwable) -> Unit) = runCatching {
+    logger.info("Request ping server via proxy... [$host:$port]")
+
+    val socketAddress = resolvePingServer()
 
     val clientConnection = ClientConnection(NetworkSide.CLIENTBOUND)
     val channelFuture = connect(socketAddress, false, clientConnection)
@@ -85,6 +85,7 @@ import net.ccbluex.liquidbounce.features.module.modules.world.traps.ModuleAutoTr
 import net.ccbluex.liquidbounce.script.ScriptApiRequired
 import net.ccbluex.liquidbounce.utils.client.logger
 import net.ccbluex.liquidbounce.utils.client.mc
+import net.ccbluex.liquidbounce.utils.collection.PrefixTrie
 import net.ccbluex.liquidbounce.utils.input.InputBind
 import net.ccbluex.liquidbounce.utils.kotlin.mapArray
 import net.ccbluex.liquidbounce.utils.kotlin.sortedInsert
@@ -414,6 +415,7 @@ object ModuleManager : EventListener, Iterable<ClientModule> by modules {
         module.initConfigurable()
         module.init()
         modules.sortedInsert(module, ClientModule::name)
+        moduleIndex = null
     }
 
     private fun removeModule(module: ClientModule) {
@@ -422,6 +424,7 @@ object ModuleManager : EventListener, Iterable<ClientModule> by modules {
         }
         module.unregister()
         modules -= module
+        moduleIndex = null
     }
 
     /**
@@ -445,13 +448,22 @@ object ModuleManager : EventListener, Iterable<ClientModule> by modules {
 
     fun clear() {
         modules.clear()
+        moduleIndex = null
     }
 
+    /**
+     * Completion index over the names and aliases of all modules, rebuilt after the modules changed
+     */
+    private var moduleIndex: PrefixTrie<ClientModule>? = null
+
     fun autoComplete(begin: String, args: List<String>, validator: (ClientModule) -> Boolean = { true }): List<String> {
+        val index = moduleIndex ?: PrefixTrie.of(modules) { listOf(it.name, *it.aliases) }.also { moduleIndex = it }
+
         val parts = begin.split(",")
         val matchingPrefix = parts.last()
         val resultPrefix = parts.dropLast(1).joinToString(",") + ","
-        return filter { it.name.startsWith(matchingPrefix, true) && validator(it) }
+        return index.search(matchingPrefix)
+            .filter(validator)
             .map {
                 if (parts.size == 1) {
                     it.name
@@ -41,8 +41,9 @@ object ModuleLiquidChat : ClientModule("LiquidChat", Category.CLIENT, hide = tru
     aliases = arrayOf("GlobalChat")) {
 
     private var jwtToken by text("JwtToken", "")
+    private val binaryProtocol by boolean("BinaryProtocol", false)
 
-    private val chatClient = ChatClient()
+    private val chatClient = ChatClient(preferBinaryCodec = { binaryProtocol })
     private val prefix = Text.empty()
         .styled { it.withFormatting(Formatting.RESET) }.styled { it.withFormatting(Formatting.GRAY) }
         .append(Text.literal("LiquidChat")
@@ -121,8 +122,8 @@ object ModuleLiquidChat : ClientModule("LiquidChat", Category.CLIENT, hide = tru
         if (!chatClient.connected) {
             chatClient.connectAsync()
 
-            // Wait 60 seconds before retrying
-            waitSeconds(60)
+            // Back off exponentially before retrying
+            waitSeconds(chatClient.nextReconnectDelay())
         }
     }
 
@@ -18,6 +18,8 @@
  */
 package net.ccbluex.liquidbounce.features.module.modules.misc
 
+import com.google.common.io.CountingOutputStream
+import net.ccbluex.liquidbounce.config.ConfigSystem
 import net.ccbluex.liquidbounce.event.events.PacketEvent
 import net.ccbluex.liquidbounce.event.events.TransferOrigin
 import net.ccbluex.liquidbounce.event.handler
@@ -27,6 +29,8 @@ import net.ccbluex.liquidbounce.features.module.ClientModule
 import net.ccbluex.liquidbounce.utils.client.MessageMetadata
 import net.ccbluex.liquidbounce.utils.client.asText
 import net.ccbluex.liquidbounce.utils.client.chat
+import net.ccbluex.liquidbounce.utils.client.logger
+import net.ccbluex.liquidbounce.utils.client.mc
 import net.ccbluex.liquidbounce.utils.collection.Filter
 import net.ccbluex.liquidbounce.utils.kotlin.EventPriorityConvention
 import net.ccbluex.liquidbounce.utils.mappings.EnvironmentRemapper
@@ -35,9 +39,19 @@ import net.minecraft.text.MutableText
 import net.minecraft.text.Text
 import net.minecraft.util.Formatting
 import org.apache.commons.lang3.StringUtils
-import java.lang.reflect.Field
+import java.io.BufferedWriter
+import java.io.File
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
 import java.lang.reflect.Modifier
+import java.text.SimpleDateFormat
+import java.util.*
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
 import kotlin.math.max
 
 /**
@@ -45,6 +59,10 @@ import kotlin.math.max
  *
  * Prints all packets and their fields.
  *
+ * Packet classes are described once (display name and field getters). On the network thread, only the field
+ * values are read and turned into strings, while formatting, chat rate limiting and writing the log file
+ * happen on a separate thread.
+ *
  * @author ccetl
  */
 object ModulePacketLogger : ClientModule("PacketLogger", Category.MISC) {
@@ -54,12 +72,34 @@ object ModulePacketLogger : ClientModule("PacketLogger", Category.MISC) {
     private val filter by enumChoice("Filter", Filter.BLACKLIST)
     private val packets by textArray("Packets", mutableListOf())
 
-    private val classNames = ConcurrentHashMap<Class<out Packet<*>>, String>()
-    private val fieldNames = ConcurrentHashMap<Field, String>()
+    /**
+     * Maximum amount of packets printed to chat per second, further packets are summarized per type
+     */
+    private val chatLimit by int("ChatLimit", 20, 1..200, "lines/s")
+    private val logToFile by boolean("LogToFile", false)
+    private val maxFileSize by int("MaxFileSize", 16, 1..512, "MB")
+
+    private val descriptors = ConcurrentHashMap<Class<*>, PacketDescriptor>()
+
+    private val queue = LinkedBlockingQueue<LoggedPacket>(QUEUE_CAPACITY)
+    private val dropped = AtomicInteger()
+
+    @Volatile
+    private var worker: Thread? = null
+
+    override fun enable() {
+        worker = thread(name = "packet-logger", isDaemon = true) {
+            runCatching(::runWorker).onFailure {
+                logger.error("Packet logger stopped", it)
+            }
+        }
+    }
 
     override fun disable() {
-        classNames.clear()
-        fieldNames.clear()
+        // The worker notices that it has been replaced and stops
+        worker = null
+        queue.clear()
+        descriptors.clear()
     }
 
     @Suppress("unused")
@@ -76,47 +116,118 @@ object ModulePacketLogger : ClientModule("PacketLogger", Category.MISC) {
             return
         }
 
-        val text = Text.empty().styled { it.withFormatting(Formatting.WHITE) }
-        if (origin == TransferOrigin.RECEIVE) {
-            text.append(message("receive"))
-        } else {
-            text.append(message("send"))
+        val descriptor = descriptors.computeIfAbsent(packet.javaClass, ::describe)
+        if (!filter(descriptor.name, packets)) {
+            return
         }
 
-        val clazz = packet::class.java
+        // Field values are stringified right away, packets may be mutated (or reused) once the handler returned
+        val logged = LoggedPacket(origin, descriptor, descriptor.read(packet), canceled, System.currentTimeMillis())
 
-        text.append(" ")
-        val packetName = getPacketName(clazz)
-        if (!filter(packetName, packets)) {
-            return
+        if (!queue.offer(logged)) {
+            dropped.incrementAndGet()
+        }
+    }
+
+    private fun runWorker() {
+        val self = Thread.currentThread()
+        val suppressed = LinkedHashMap<String, Int>()
+
+        var file: RollingLogFile? = null
+        var windowStart = System.currentTimeMillis()
+        var chatLines = 0
+
+        try {
+            while (worker === self) {
+                val logged = queue.poll(WINDOW / 10, TimeUnit.MILLISECONDS)
+                val now = System.currentTimeMillis()
+
+                if (now - windowStart >= WINDOW) {
+                    flushSuppressed(suppressed)
+                    file?.flush()
+                    windowStart = now
+                    chatLines = 0
+                }
+
+                logged ?: continue
+
+                if (logToFile) {
+                    val currentFile = file ?: RollingLogFile(maxFileSize * 1024L * 1024L).also { file = it }
+                    currentFile.write(logged.toPlainString())
+                } else {
+                    file?.close()
+                    file = null
+                }
+
+                // Packets beyond the limit are summarized per type, e.g. "EntityS2CPacket x37"
+                if (chatLines >= chatLimit) {
+                    suppressed.merge(logged.descriptor.name, 1, Int::plus)
+                } else {
+                    chatLines++
+
+                    val text = logged.toText()
+                    mc.execute { chat(text, metadata = MessageMetadata(prefix = false)) }
+                }
+            }
+        } finally {
+            file?.close()
         }
+    }
 
-        text.append(packetName)
+    private fun flushSuppressed(suppressed: MutableMap<String, Int>) {
+        val droppedPackets = dropped.getAndSet(0)
 
-        if (canceled) {
-            text.append(" (".asText().styled { it.withFormatting(Formatting.RED) })
-            text.append(message("canceled").styled { it.withFormatting(Formatting.RED) })
-            text.append(")".asText().styled { it.withFormatting(Formatting.RED) })
+        if (suppressed.isEmpty() && droppedPackets == 0) {
+            return
         }
 
-        appendFields(text, clazz, packet)
+        val texts = suppressed.map { (name, count) ->
+            message("repeated", name, count).styled { it.withFormatting(Formatting.GRAY) }
+        }.toMutableList()
+        suppressed.clear()
 
-        chat(text, metadata = MessageMetadata(prefix = false))
+        if (droppedPackets > 0) {
+            texts += message("dropped", droppedPackets).styled { it.withFormatting(Formatting.RED) }
+        }
+
+        mc.execute {
+            for (text in texts) {
+                chat(text, metadata = MessageMetadata(prefix = false))
+            }
+        }
     }
 
-    private fun getPacketName(clazz: Class<out Packet<*>>): String {
-        return classNames.computeIfAbsent(clazz) {
-            val classNames = mutableListOf<String>()
-            classNames.add(getClassName(clazz))
+    private fun describe(clazz: Class<*>): PacketDescriptor {
+        val classNames = mutableListOf<String>()
+        var current: Class<*>? = clazz
+
+        while (current != null && current != Any::class.java) {
+            classNames.add(getClassName(current))
+            current = current.superclass
+        }
+
+        val fields = mutableListOf<FieldAccessor>()
+        current = clazz
+
+        while (current != null) {
+            for (field in current.declaredFields) {
+                if (Modifier.isStatic(field.modifiers)) {
+                    continue
+                }
+
+                val name = EnvironmentRemapper.remapField(current.name, field.name)
+                val getter = runCatching {
+                    field.isAccessible = true
+                    MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE)
+                }.getOrNull()
 
-            var superclass = clazz.superclass
-            while (superclass != null && superclass != Any::class.java) {
-                classNames.add(getClassName(superclass))
-                superclass = superclass.superclass
+                fields += FieldAccessor(name, getter)
             }
 
-            classNames.reversed().joinToString(".")
+            current = current.superclass
         }
+
+        return PacketDescriptor(classNames.reversed().joinToString("."), fields.toTypedArray())
     }
 
     private fun getClassName(clazz: Class<*>): String {
@@ -126,47 +237,130 @@ object ModulePacketLogger : ClientModule("PacketLogger", Category.MISC) {
         return StringUtils.substring(remapClassName, max(lastDotIndex, lastDollarIndex) + 1)
     }
 
-    @Suppress("SwallowedException")
-    private fun appendFields(text: MutableText, clazz: Class<out Packet<*>>, packet: Packet<*>) {
-        text.append(":\n")
+    private class PacketDescriptor(val name: String, val fields: Array<FieldAccessor>) {
+        fun read(packet: Any) = Array(fields.size) { idx -> fields[idx].get(packet).toString() }
+    }
 
-        var start = true
+    /**
+     * @param getter `null` if the field is not accessible, its value is logged as `null` then
+     */
+    private class FieldAccessor(val name: String, private val getter: MethodHandle?) {
+        fun get(packet: Any): Any? = getter?.invokeExact(packet)
+    }
 
-        var currentClass: Class<*>? = clazz
+    private class LoggedPacket(
+        val origin: TransferOrigin,
+        val descriptor: PacketDescriptor,
+        val values: Array<String>,
+        val canceled: Boolean,
+        val time: Long
+    ) {
 
-        while (currentClass != null) {
-            currentClass.declaredFields.forEach { field ->
-                if (Modifier.isStatic(field.modifiers)) {
-                    return@forEach
-                }
+        fun toText(): MutableText {
+            val text = Text.empty().styled { it.withFormatting(Formatting.WHITE) }
+            text.append(message(if (origin == TransferOrigin.RECEIVE) "receive" else "send"))
+            text.append(" ")
+            text.append(descriptor.name)
 
-                field.isAccessible = true
+            if (canceled) {
+                text.append(" (".asText().styled { it.withFormatting(Formatting.RED) })
+                text.append(message("canceled").styled { it.withFormatting(Formatting.RED) })
+                text.append(")".asText().styled { it.withFormatting(Formatting.RED) })
+            }
 
-                if (start) {
-                    start = false
-                } else {
-                    text.append("\n")
-                }
+            text.append(":")
 
-                val name = fieldNames.computeIfAbsent(field) {
-                    EnvironmentRemapper.remapField(currentClass!!.name, field.name)
-                }
+            for ((idx, field) in descriptor.fields.withIndex()) {
+                text.append("\n")
+                text.append("-${field.name}: ".asText().styled { it.withFormatting(Formatting.GRAY) })
+                text.append(values[idx].asText().styled { it.withFormatting(Formatting.GRAY) })
+            }
 
-                val value = try {
-                    field.get(packet)?.toString()
-                } catch (e: IllegalAccessException) {
-                    "null"
-                }
+            return text
+        }
+
+        fun toPlainString() = buildString {
+            append('[').append(TIME_FORMAT.get().format(Date(time))).append("] ")
+            append(if (origin == TransferOrigin.RECEIVE) "Receiving " else "Sending ")
+            append(descriptor.name)
+
+            if (canceled) {
+                append(" (canceled)")
+            }
+
+            append(':')
+
+            for ((idx, field) in descriptor.fields.withIndex()) {
+                append("\n-").append(field.name).append(": ").append(values[idx])
+            }
+        }
+
+    }
+
+    /**
+     * Writes the log to `packet-logs/<date>_<part>.log`, starting a new part once [maxSize] bytes are written.
+     * Only the newest [MAX_LOG_FILES] parts are kept. The written bytes are counted once they leave the buffer,
+     * so a part may exceed [maxSize] by up to one buffer.
+     */
+    private class RollingLogFile(private val maxSize: Long) : AutoCloseable {
+
+        private val folder = ConfigSystem.rootFolder.resolve("packet-logs")
+        private val baseName = SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(Date())
+        private val parts = ArrayDeque<File>()
+
+        private var writer: BufferedWriter? = null
+        private var output: CountingOutputStream? = null
+
+        /**
+         * Keeps increasing while old parts are pruned, so a new part never reuses the name of a kept one
+         */
+        private var partIndex = 0
+
+        fun write(line: String) {
+            val writer = writer?.takeIf { output!!.count < maxSize } ?: nextPart()
+
+            writer.write(line)
+            writer.newLine()
+        }
 
-                text.append("-$name: ".asText().styled { it.withFormatting(Formatting.GRAY) })
-                text.append("$value".asText().styled { it.withFormatting(Formatting.GRAY) })
+        /**
+         * Writes out the buffer, so a crash loses at most the packets since the last flush
+         */
+        fun flush() {
+            writer?.flush()
+        }
+
+        private fun nextPart(): BufferedWriter {
+            close()
+            folder.mkdirs()
+
+            val file = folder.resolve("${baseName}_${partIndex++}.log")
+            parts.addLast(file)
+
+            while (parts.size > MAX_LOG_FILES) {
+                parts.removeFirst().delete()
             }
 
-            currentClass = currentClass.superclass
+            val output = CountingOutputStream(file.outputStream()).also { this.output = it }
+            return output.bufferedWriter().also { writer = it }
         }
+
+        override fun close() {
+            writer?.close()
+            writer = null
+            output = null
+        }
+
     }
 
     override val running: Boolean
         get() = !isDestructed && enabled
 
+    private const val QUEUE_CAPACITY = 4096
+    private const val WINDOW = 1000L
+    private const val MAX_LOG_FILES = 5
+
+    private val GETTER_TYPE = MethodType.methodType(Any::class.java, Any::class.java)
+    private val TIME_FORMAT = ThreadLocal.withInitial { SimpleDateFormat("HH:mm:ss.SSS") }
+
 }
@@ -3,8 +3,8 @@ package net.ccbluex.liquidbounce.features.module.modules.misc.betterchat
 import net.ccbluex.liquidbounce.config.types.ToggleableConfigurable
 import net.ccbluex.liquidbounce.event.events.ChatReceiveEvent
 import net.ccbluex.liquidbounce.event.handler
+import net.ccbluex.liquidbounce.interfaces.ChatHudAddition
 import net.ccbluex.liquidbounce.interfaces.ChatHudLineAddition
-import net.ccbluex.liquidbounce.interfaces.ChatMessageAddition
 import net.ccbluex.liquidbounce.utils.client.MessageMetadata
 import net.ccbluex.liquidbounce.utils.client.chat
 import net.minecraft.text.Text
@@ -13,7 +13,7 @@ import net.minecraft.util.Formatting
 
 object AntiSpam : ToggleableConfigurable(ModuleBetterChat, "AntiSpam", true) {
 
-    private var regexFilters = emptySet<Regex>()
+    private var filterMatcher = ChatFilterMatcher.EMPTY
 
     private val stack by boolean("StackMessages", false)
     private val filters by textArray("Filters", mutableListOf()).onChanged {
@@ -21,21 +21,18 @@ object AntiSpam : ToggleableConfigurable(ModuleBetterChat, "AntiSpam", true) {
     }
 
     private fun compileFilters() {
-        regexFilters = filters.mapTo(HashSet(filters.size, 1.0F), ::Regex)
+        filterMatcher = ChatFilterMatcher(filters)
     }
 
     @Suppress("unused", "CAST_NEVER_SUCCEEDS" /* succeed with mixins */)
     val chatHandler = handler<ChatReceiveEvent> { event ->
         val string = TextVisitFactory.removeFormattingCodes(event.textData)
 
-        if (regexFilters.isNotEmpty()) {
+        val filterMatcher = filterMatcher
+        if (!filterMatcher.isEmpty) {
             val content = string.subSequence(string.indexOf('>') + 1, string.length).trim()
 
-            val shouldBeRemoved = regexFilters.any {
-                it.matches(content)
-            }
-
-            if (shouldBeRemoved) {
+            if (filterMatcher.matches(content)) {
                 event.cancelEvent()
                 return@handler
             }
@@ -56,9 +53,7 @@ object AntiSpam : ToggleableConfigurable(ModuleBetterChat, "AntiSpam", true) {
             val text = event.applyChatDecoration.invoke(event.textData)
             literalText.append(text)
 
-            val other = mc.inGameHud.chatHud.messages.find {
-                (it as ChatMessageAddition).`liquid_bounce$getId`() == id
-            }
+            val other = (mc.inGameHud.chatHud as ChatHudAddition).liquidbounce_getMessageById(id)
 
             var count = 1
             other?.let {
@@ -0,0 +1,94 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.misc.betterchat
+
+import java.util.regex.PatternSyntaxException
+
+/**
+ * Tests a message against a list of filters, each of them having to match the whole message.
+ *
+ * Instead of testing every filter on its own, filters without any regex syntax are looked up in a hash set
+ * and all remaining filters are combined into a single alternation, which is matched once.
+ * Filters which can't be combined (e.g. using back references, which depend on the group numbering)
+ * are still tested one by one.
+ */
+class ChatFilterMatcher(filters: Collection<String>) {
+
+    private val literals = HashSet<String>()
+    private val separate = ArrayList<Regex>()
+    private val combined: Regex?
+
+    init {
+        val patterns = ArrayList<String>()
+        val groupNames = HashSet<String>()
+
+        for (filter in filters) {
+            // Compiling on its own keeps the error reporting of invalid filters as before
+            val regex = Regex(filter)
+            val names = GROUP_NAME.findAll(filter).map { it.groupValues[1] }.toList()
+
+            when {
+                filter.none { it in REGEX_SYNTAX } -> literals += filter
+                BACK_REFERENCE.containsMatchIn(filter) -> separate += regex
+                // Group names have to be unique within the combined pattern
+                names.any { it in groupNames } || names.size != names.toSet().size -> separate += regex
+                else -> {
+                    groupNames += names
+                    patterns += filter
+                }
+            }
+        }
+
+        combined = when (patterns.size) {
+            0 -> null
+            1 -> Regex(patterns.first())
+            else -> try {
+                Regex(patterns.joinToString("|") { "(?:$it)" })
+            } catch (_: PatternSyntaxException) {
+                // Filters which are only valid on their own, e.g. with a trailing comment
+                separate += patterns.map(::Regex)
+                null
+            }
+        }
+    }
+
+    val isEmpty
+        get() = literals.isEmpty() && separate.isEmpty() && combined == null
+
+    fun matches(content: CharSequence): Boolean {
+        if (literals.isNotEmpty() && content.toString() in literals) {
+            return true
+        }
+
+        if (combined != null && combined.matches(content)) {
+            return true
+        }
+
+        return separate.any { it.matches(content) }
+    }
+
+    companion object {
+        private const val REGEX_SYNTAX = "\\^$.|?*+()[]{}"
+        private val BACK_REFERENCE = Regex("""\\(\d|k<)""")
+        private val GROUP_NAME = Regex("""\(\?<([a-zA-Z][a-zA-Z0-9]*)>""")
+
+        val EMPTY = ChatFilterMatcher(emptyList())
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.misc.debugrecorder
+
+import com.google.gson.JsonElement
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import java.io.EOFException
+import java.io.File
+import java.util.zip.GZIPInputStream
+
+/**
+ * Reads recordings written by [DebugRecordingWriter].
+ *
+ * Records are parsed lazily, so even long recordings can be filtered or replayed without loading
+ * them into memory. Files which are still being written are read up to the last flush.
+ */
+object DebugRecordingReader {
+
+    /**
+     * Returns all parts of a recording in the order they were written
+     *
+     * @param folder the folder of the recorder mode
+     * @param baseName the name of the recording without part suffix
+     */
+    fun parts(folder: File, baseName: String): List<File> {
+        val prefix = "${baseName}_"
+
+        fun partOf(file: File) = file.name.takeIf { it.startsWith(prefix) && it.endsWith(EXTENSION) }
+            ?.removePrefix(prefix)?.removeSuffix(EXTENSION)?.toIntOrNull()
+
+        return folder.listFiles { file -> partOf(file) != null }
+            ?.sortedBy { file -> partOf(file) }
+            ?: emptyList()
+    }
+
+    /**
+     * Lazily reads all records of the given files
+     */
+    fun read(files: List<File>): Sequence<JsonElement> = files.asSequence().flatMap(::read)
+
+    /**
+     * Lazily reads all records of a single file
+     */
+    fun read(file: File): Sequence<JsonElement> = sequence {
+        GZIPInputStream(file.inputStream()).bufferedReader(Charsets.UTF_8).use { reader ->
+            while (true) {
+                val line = try {
+                    reader.readLine()
+                } catch (_: EOFException) {
+                    // The recording is still running, everything up to the last flush has been read
+                    null
+                } ?: break
+
+                if (line.isNotBlank()) {
+                    yield(JsonParser.parseString(line))
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads all records matching the given filter
+     */
+    fun filter(files: List<File>, predicate: (JsonElement) -> Boolean) = read(files).filter(predicate)
+
+    /**
+     * Reads all records of a [GenericDebugRecorder] recording which were recorded by the given module
+     */
+    fun filterByModule(files: List<File>, module: String) = filter(files) { record ->
+        record is JsonObject && record["module"]?.asString == module
+    }
+
+    /**
+     * Replays a recording by passing each record to [consumer] in recorded order
+     *
+     * @return amount of replayed records
+     */
+    fun replay(files: List<File>, consumer: (JsonElement) -> Unit): Int {
+        var count = 0
+
+        for (record in read(files)) {
+            consumer(record)
+            count++
+        }
+
+        return count
+    }
+
+    const val EXTENSION = ".jsonl.gz"
+
+}
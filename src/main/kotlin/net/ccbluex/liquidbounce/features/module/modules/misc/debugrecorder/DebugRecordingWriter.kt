@@ -0,0 +1,227 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.misc.debugrecorder
+
+import com.google.gson.Gson
+import net.ccbluex.liquidbounce.utils.client.logger
+import java.io.BufferedWriter
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.io.OutputStreamWriter
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.zip.GZIPOutputStream
+import kotlin.concurrent.thread
+
+/**
+ * Streams debug records to gzip compressed JSON lines files on a background thread.
+ *
+ * Records are handed over through a bounded ring buffer. If the writer cannot keep up, the oldest
+ * records are dropped instead of growing the heap, see [dropped]. The output is flushed every [flushInterval]
+ * milliseconds, so a recording can be read while it is still running, and a new file is started once the
+ * current one exceeds [maxFileSize] bytes or is older than [maxFileAge] milliseconds.
+ *
+ * A record which cannot be serialized or written is skipped and counted in [failed], the writer keeps going with
+ * the next one. After an IO error, the next record starts a new file.
+ *
+ * Files are named `<baseName>_<part>.jsonl.gz` inside [folder].
+ */
+class DebugRecordingWriter(
+    private val folder: File,
+    private val baseName: String,
+    bufferCapacity: Int = DEFAULT_BUFFER_CAPACITY,
+    private val maxFileSize: Long = DEFAULT_MAX_FILE_SIZE,
+    private val maxFileAge: Long = DEFAULT_MAX_FILE_AGE,
+    private val flushInterval: Long = DEFAULT_FLUSH_INTERVAL,
+    private val gson: Gson = Gson()
+) : AutoCloseable {
+
+    private val buffer = ArrayBlockingQueue<Any>(bufferCapacity)
+
+    /**
+     * All files written by this writer, in order
+     */
+    val files = CopyOnWriteArrayList<File>()
+
+    val recorded = AtomicLong()
+    val dropped = AtomicLong()
+    val failed = AtomicLong()
+
+    @Volatile
+    private var running = true
+
+    @Volatile
+    private var out: CountingOutputStream? = null
+
+    @Volatile
+    private var writer: BufferedWriter? = null
+    private var fileOpenedAt = 0L
+
+    private val writerThread = thread(name = "debug-recorder-$baseName", isDaemon = true) {
+        runCatching(::writeLoop).onFailure {
+            logger.error("Debug recorder $baseName stopped writing", it)
+        }
+    }
+
+    /**
+     * Queues a record to be written. Never blocks, drops the oldest record if the buffer is full.
+     */
+    fun record(record: Any) {
+        while (!buffer.offer(record)) {
+            if (buffer.poll() != null) {
+                dropped.incrementAndGet()
+            }
+        }
+    }
+
+    private fun writeLoop() {
+        var lastFlush = System.currentTimeMillis()
+        val batch = ArrayList<Any>()
+
+        while (running || buffer.isNotEmpty()) {
+            val first = buffer.poll(flushInterval, TimeUnit.MILLISECONDS)
+
+            if (first != null) {
+                batch += first
+                buffer.drainTo(batch)
+
+                for (record in batch) {
+                    runCatching {
+                        write(record)
+                    }.onFailure(::onFailure)
+                }
+                batch.clear()
+            }
+
+            val now = System.currentTimeMillis()
+            if (now - lastFlush >= flushInterval) {
+                runCatching {
+                    writer?.flush()
+                }.onFailure(::onFailure)
+                lastFlush = now
+            }
+        }
+
+        closeFile()
+    }
+
+    private fun write(record: Any) {
+        // Serialized up front, so a record which cannot be serialized does not leave half a line behind
+        val json = gson.toJson(record)
+        val writer = currentWriter()
+
+        writer.write(json)
+        writer.newLine()
+        recorded.incrementAndGet()
+    }
+
+    private fun onFailure(cause: Throwable) {
+        // Only the first failure is logged, the rest is counted
+        if (failed.incrementAndGet() == 1L) {
+            logger.error("Debug recorder $baseName failed to write a record", cause)
+        }
+
+        // The file might be broken, the next record starts a new one
+        if (cause is IOException) {
+            runCatching(::closeFile)
+            writer = null
+            out = null
+        }
+    }
+
+    private fun currentWriter(): BufferedWriter {
+        val writer = writer
+        val out = out
+        val age = System.currentTimeMillis() - fileOpenedAt
+
+        if (writer != null && out != null && out.count < maxFileSize && age < maxFileAge) {
+            return writer
+        }
+
+        closeFile()
+        return openFile()
+    }
+
+    private fun openFile(): BufferedWriter {
+        folder.mkdirs()
+
+        val file = folder.resolve("${baseName}_${files.size}${DebugRecordingReader.EXTENSION}")
+        val out = CountingOutputStream(FileOutputStream(file))
+        // Sync flush makes all records written so far readable without closing the stream
+        val writer = BufferedWriter(OutputStreamWriter(GZIPOutputStream(out, BUFFER_SIZE, true), Charsets.UTF_8))
+
+        this.out = out
+        this.writer = writer
+        this.fileOpenedAt = System.currentTimeMillis()
+        files += file
+        return writer
+    }
+
+    private fun closeFile() {
+        writer?.close()
+        writer = null
+        out = null
+    }
+
+    /**
+     * Writes all remaining records and closes the current file. Blocks until the writer has finished.
+     */
+    override fun close() {
+        running = false
+        writerThread.join()
+    }
+
+    /**
+     * Counts the compressed bytes, which are relevant for the file size limit
+     */
+    private class CountingOutputStream(private val delegate: FileOutputStream) : OutputStream() {
+
+        var count = 0L
+            private set
+
+        override fun write(b: Int) {
+            delegate.write(b)
+            count++
+        }
+
+        override fun write(b: ByteArray, off: Int, len: Int) {
+            delegate.write(b, off, len)
+            count += len
+        }
+
+        override fun flush() = delegate.flush()
+
+        override fun close() = delegate.close()
+
+    }
+
+    companion object {
+        const val DEFAULT_BUFFER_CAPACITY = 8192
+        const val DEFAULT_MAX_FILE_SIZE = 64L * 1024 * 1024
+        const val DEFAULT_MAX_FILE_AGE = 30L * 60 * 1000
+        const val DEFAULT_FLUSH_INTERVAL = 1000L
+
+        private const val BUFFER_SIZE = 8192
+    }
+
+}
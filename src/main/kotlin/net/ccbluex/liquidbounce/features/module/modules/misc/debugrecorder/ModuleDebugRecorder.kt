@@ -1,6 +1,5 @@
 package net.ccbluex.liquidbounce.features.module.modules.misc.debugrecorder
 
-import com.google.gson.Gson
 import net.ccbluex.liquidbounce.config.ConfigSystem
 import net.ccbluex.liquidbounce.config.types.Choice
 import net.ccbluex.liquidbounce.config.types.ChoiceConfigurable
@@ -13,8 +12,6 @@ import net.ccbluex.liquidbounce.features.module.modules.misc.debugrecorder.modes
 import net.ccbluex.liquidbounce.utils.client.*
 import net.minecraft.text.ClickEvent
 import net.minecraft.text.HoverEvent
-import java.nio.charset.Charset
-import java.nio.file.Files
 import java.text.SimpleDateFormat
 import java.util.*
 
@@ -26,64 +23,82 @@ object ModuleDebugRecorder : ClientModule("DebugRecorder", Category.MISC) {
         BoxDebugRecorder
     ))
 
+    private val bufferSize by int("BufferSize", DebugRecordingWriter.DEFAULT_BUFFER_CAPACITY, 256..65536, "records")
+    private val maxFileSize by int("MaxFileSize", 64, 1..1024, "MB")
+    private val rotateAfter by int("RotateAfter", 30, 1..240, "minutes")
+
     abstract class DebugRecorderMode(name: String) : Choice(name) {
         override val parent: ChoiceConfigurable<*>
             get() = modes
 
-        private val packets = mutableListOf<Any>()
+        private var writer: DebugRecordingWriter? = null
 
         protected fun recordPacket(packet: Any) {
             if (!this.isSelected) {
                 return
             }
 
-            packets.add(packet)
+            writer?.record(packet)
         }
 
+        private val dateFormat = SimpleDateFormat("yyyy-MM-dd_HH-mm-ss")
+
+        private val folder
+            get() = ConfigSystem.rootFolder.resolve("debug-recorder/$name")
+
         override fun enable() {
-            this.packets.clear()
+            val baseName = dateFormat.format(Date())
+            var uniqueName = baseName
+            var idx = 0
+
+            while (DebugRecordingReader.parts(folder, uniqueName).isNotEmpty()) {
+                uniqueName = "${baseName}_${idx++}"
+            }
+
+            writer = DebugRecordingWriter(
+                folder,
+                uniqueName,
+                bufferCapacity = bufferSize,
+                maxFileSize = maxFileSize * 1024L * 1024L,
+                maxFileAge = rotateAfter * 60L * 1000L
+            )
             chat(regular("Recording "), variable(name), regular("..."))
         }
 
-        private val dateFormat = SimpleDateFormat("yyyy-MM-dd_HH-mm-ss")
-
         override fun disable() {
-            if (this.packets.isEmpty()) {
-                chat(regular("No packets recorded."))
+            val writer = writer ?: return
+            this.writer = null
 
+            runCatching {
+                writer.close()
+            }.onFailure {
+                chat(markAsError("Failed to write log to file $it".asText()))
                 return
             }
 
-            runCatching {
-                val baseName = dateFormat.format(Date())
-                val folder = ConfigSystem.rootFolder.resolve("debug-recorder/$name")
-
-                folder.mkdirs()
-
-                var file = folder.resolve("${baseName}.json")
+            if (writer.failed.get() > 0) {
+                chat(markAsError("Failed to write ${writer.failed.get()} records, see the log.".asText()))
+            }
 
-                var idx = 0
+            if (writer.recorded.get() == 0L) {
+                writer.files.forEach { it.delete() }
+                chat(regular("No packets recorded."))
+                return
+            }
 
-                while (file.exists()) {
-                    file = folder.resolve("${baseName}_${idx++}.json")
-                }
+            val path = writer.files.first().absolutePath
+            val text = path.asText().styled {
+                it.withUnderline(true)
+                    .withHoverEvent(HoverEvent(HoverEvent.Action.SHOW_TEXT, regular("Browse...")))
+                    .withClickEvent(ClickEvent(ClickEvent.Action.OPEN_FILE, path))
+            }
 
-                Files.write(file.toPath(), Gson().toJson(this.packets).toByteArray(Charset.forName("UTF-8")))
+            chat(regular("Log was written to "), text, regular(" ("), variable(writer.files.size.toString()),
+                regular(" files, "), variable(writer.recorded.get().toString()), regular(" records)."))
 
-                file.absolutePath
-            }.onFailure {
-                chat(markAsError("Failed to write log to file $it".asText()))
-            }.onSuccess { path ->
-                val text = path.asText().styled {
-                    it.withUnderline(true)
-                        .withHoverEvent(HoverEvent(HoverEvent.Action.SHOW_TEXT, regular("Browse...")))
-                        .withClickEvent(ClickEvent(ClickEvent.Action.OPEN_FILE, path.toString()))
-                }
-
-                chat(regular("Log was written to "), text, regular("."))
+            if (writer.dropped.get() > 0) {
+                chat(markAsError("Dropped ${writer.dropped.get()} records because the buffer was full.".asText()))
             }
-
-            this.packets.clear()
         }
     }
 }
@@ -77,7 +77,7 @@ object ModuleBlink : ClientModule("Blink", Category.PLAYER) {
     }
 
     override fun disable() {
-        PacketQueueManager.flush { snapshot -> snapshot.origin == TransferOrigin.SEND }
+        PacketQueueManager.flush(TransferOrigin.SEND)
         removeClone()
     }
 
@@ -136,7 +136,7 @@ object ModuleBlink : ClientModule("Blink", Category.PLAYER) {
             when (AutoResetOption.action) {
                 ResetAction.RESET -> PacketQueueManager.cancel()
                 ResetAction.BLINK -> {
-                    PacketQueueManager.flush { snapshot -> snapshot.origin == TransferOrigin.SEND }
+                    PacketQueueManager.flush(TransferOrigin.SEND)
                     dummyPlayer?.copyPositionAndRotation(player)
                 }
             }
@@ -54,8 +54,14 @@ object ModuleChestStealer : ClientModule("ChestStealer", Category.PLAYER) {
         tree(FeatureChestAura)
     }
 
+    /**
+     * Reused between the cleanup plans of the inventory cleaner, see [createCleanupPlan]
+     */
+    private val analysis = InventoryAnalysis()
+
     override fun disable() {
         FeatureChestAura.interactedBlocksSet.clear()
+        analysis.invalidate()
         super.disable()
     }
 
@@ -202,7 +208,8 @@ object ModuleChestStealer : ClientModule("ChestStealer", Category.PLAYER) {
         } else {
             val availableItems = findNonEmptySlotsInInventory() + findItemsInContainer(screen)
 
-            CleanupPlanGenerator(ModuleInventoryCleaner.cleanupTemplateFromSettings, availableItems).generatePlan()
+            CleanupPlanGenerator(ModuleInventoryCleaner.cleanupTemplateFromSettings, availableItems, analysis)
+                .generatePlan()
         }
 
         return cleanupPlan
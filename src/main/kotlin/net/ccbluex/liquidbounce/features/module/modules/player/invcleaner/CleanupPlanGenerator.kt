@@ -20,10 +20,15 @@ package net.ccbluex.liquidbounce.features.module.modules.player.invcleaner
 
 import net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.items.ItemFacet
 import net.ccbluex.liquidbounce.utils.item.isNothing
+import java.util.*
 
+/**
+ * @param analysis the analysis of previous runs, which is reused as far as the inventory did not change
+ */
 class CleanupPlanGenerator(
     private val template: CleanupPlanPlacementTemplate,
     private val availableItems: List<ItemSlot>,
+    private val analysis: InventoryAnalysis = InventoryAnalysis(),
 ) : ItemPacker.ItemAmountContraintProvider {
     private val hotbarSwaps: ArrayList<InventorySwap> = ArrayList()
 
@@ -31,6 +36,11 @@ class CleanupPlanGenerator(
 
     private val currentLimit = HashMap<ItemNumberContraintGroup, Int>()
 
+    /**
+     * The constraints of each facet, sorted by priority. The packer asks for them more than once per facet.
+     */
+    private val constraintsByFacet = IdentityHashMap<ItemFacet, List<ItemConstraintInfo>>()
+
     // TODO Implement greedy check
     /**
      * Keeps track of where a specific type of item should be placed. e.g. BLOCK -> [Hotbar 7, Hotbar 8]
@@ -42,22 +52,11 @@ class CleanupPlanGenerator(
             .mapValues { (_, entries) -> entries.map { (slot, _) -> slot } }
 
     fun generatePlan(): InventoryCleanupPlan {
-        val categorizer = ItemCategorization(availableItems)
-
-        // Contains all facets that the available items represent. i.e. if we have an axe in slot 5, this would be
-        // (Axe(Slot 5), Weapon(Slot 5)) since the axe can also function as a weapon.
-        val itemFacets = availableItems.flatMap { categorizer.getItemFacets(it).asIterable() }
-
-        // i.e. BLOCK -> [Block(Slot 5), Block(Slot 6)]
-        // Keep priority in mind (Tool slots are processed before weapon slots)
-        val facetsGroupedByType =
-            itemFacets
-                .groupBy { it.category }
-                .entries
-                .sortedByDescending { it.key.type.allocationPriority }
-
-        for ((category, availableItems) in facetsGroupedByType) {
-            processItemCategory(category, availableItems)
+        // Contains all facets that the available items represent, grouped by their category. i.e. if we have an axe
+        // in slot 5, this would be TOOL -> [Axe(Slot 5)], WEAPON -> [Weapon(Slot 5)] since the axe can also function
+        // as a weapon. Tool slots are processed before weapon slots and the best items come first.
+        for ((category, prioritizedItemList) in analysis.categorize(availableItems)) {
+            processItemCategory(category, prioritizedItemList)
         }
 
         // We aren't allowed to touch those, so we just consider them as useful.
@@ -70,17 +69,18 @@ class CleanupPlanGenerator(
         )
     }
 
+    /**
+     * @param prioritizedItemList the items of the category in descending order, so that we can fill the slots with
+     * the best items first
+     */
     private fun processItemCategory(
         category: ItemCategory,
-        availableItems: List<ItemFacet>,
+        prioritizedItemList: List<ItemFacet>,
     ) {
         val hotbarSlotsToFill = this.categoryToSlotsMap[category]
 
         // We need to fill all hotbar slots with this item type.
 
-        // Use a descending sort order so that we can fill the slots with the best items first.
-        val prioritizedItemList = availableItems.sortedDescending()
-
         // Decide where the items should go.
         val requiredMoves =
             this.packer.packItems(
@@ -117,11 +117,7 @@ class CleanupPlanGenerator(
     }
 
     override fun getSatisfactionStatus(item: ItemFacet): ItemPacker.ItemAmountContraintProvider.SatisfactionStatus {
-        val constraints = this.template.itemAmountConstraintProvider(item)
-
-        constraints.sortBy { it.group.priority }
-
-        for (constraintInfo in constraints) {
+        for (constraintInfo in constraintsOf(item)) {
             val currentCount = this.currentLimit[constraintInfo.group] ?: 0
 
             if (currentCount > constraintInfo.group.acceptableRange.last) {
@@ -135,14 +131,16 @@ class CleanupPlanGenerator(
     }
 
     override fun addItem(item: ItemFacet) {
-        val constraints = this.template.itemAmountConstraintProvider(item)
-
-        for (constraintInfo in constraints) {
+        for (constraintInfo in constraintsOf(item)) {
             val current = this.currentLimit.getOrDefault(constraintInfo.group, 0)
 
             this.currentLimit[constraintInfo.group] = current + constraintInfo.amountAddedByItem
         }
     }
+
+    private fun constraintsOf(item: ItemFacet) = constraintsByFacet.getOrPut(item) {
+        this.template.itemAmountConstraintProvider(item).apply { sortBy { it.group.priority } }
+    }
 }
 
 class CleanupPlanPlacementTemplate(
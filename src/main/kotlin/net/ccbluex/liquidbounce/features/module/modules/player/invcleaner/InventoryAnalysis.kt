@@ -0,0 +1,147 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.player.invcleaner
+
+import net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.items.ItemFacet
+import net.minecraft.item.AnimalArmorItem
+import net.minecraft.item.ArmorItem
+import net.minecraft.item.ItemStack
+
+/**
+ * Keeps the analysis of an inventory between two [CleanupPlanGenerator] runs. Plans are generated continuously while
+ * the inventory rarely changes, so most of the work can be reused:
+ *
+ * - The facets of a slot are only created again when its stack was replaced or modified (count or components)
+ * - The [ItemCategorization] is only rebuilt when an armor piece changed, since only armor facets depend on it
+ * - A category is only sorted again when one of its facets changed
+ *
+ * The analysis does not depend on the [CleanupPlanPlacementTemplate], so changed settings don't invalidate it.
+ *
+ * @param createCategorization creates the facets of a slot, given all available slots. Usually an
+ * [ItemCategorization], whose armor facets depend on the other armor pieces.
+ */
+class InventoryAnalysis internal constructor(
+    private val createCategorization: (List<ItemSlot>) -> (ItemSlot) -> Array<ItemFacet>
+) {
+
+    constructor() : this({ slots -> ItemCategorization(slots)::getItemFacets })
+
+    private var categorization: ((ItemSlot) -> Array<ItemFacet>)? = null
+    private var armorStamps: List<SlotStamp> = emptyList()
+
+    private var slotStates = HashMap<ItemSlot, SlotState>()
+    private var orderings = HashMap<ItemCategory, List<ItemFacet>>()
+
+    /**
+     * Drops everything, e.g. when something the facets depend on but which is not part of the stacks changed
+     * (like the world).
+     */
+    fun invalidate() {
+        categorization = null
+        armorStamps = emptyList()
+        slotStates = HashMap()
+        orderings = HashMap()
+    }
+
+    /**
+     * Returns the facets of [slots] grouped by category. The categories are ordered by their allocation priority and
+     * the facets of each category are ordered from best to worst.
+     */
+    fun categorize(slots: List<ItemSlot>): List<Pair<ItemCategory, List<ItemFacet>>> {
+        val stamps = slots.map { SlotStamp(it, it.itemStack) }
+
+        val armorStamps = stamps.filter { it.isArmor }
+        val armorChanged = categorization == null || armorStamps != this.armorStamps
+        val categorization = if (armorChanged) {
+            this.armorStamps = armorStamps
+            createCategorization(slots).also { this.categorization = it }
+        } else {
+            this.categorization!!
+        }
+
+        val previousStates = this.slotStates
+        val states = HashMap<ItemSlot, SlotState>(stamps.size)
+        val changedCategories = HashSet<ItemCategory>()
+
+        for (stamp in stamps) {
+            val previous = previousStates.remove(stamp.slot)
+
+            val state = if (previous != null && previous.stamp == stamp && !(armorChanged && stamp.isArmor)) {
+                previous
+            } else {
+                previous?.facets?.mapTo(changedCategories) { it.category }
+
+                SlotState(stamp, categorization(stamp.slot)).also { state ->
+                    state.facets.mapTo(changedCategories) { it.category }
+                }
+            }
+
+            states[stamp.slot] = state
+        }
+
+        // Slots which are not available anymore
+        for (state in previousStates.values) {
+            state.facets.mapTo(changedCategories) { it.category }
+        }
+
+        // i.e. BLOCK -> [Block(Slot 5), Block(Slot 6)], in the order of the slots
+        val facetsByCategory = LinkedHashMap<ItemCategory, MutableList<ItemFacet>>()
+        for (stamp in stamps) {
+            for (facet in states[stamp.slot]!!.facets) {
+                facetsByCategory.getOrPut(facet.category, ::mutableListOf) += facet
+            }
+        }
+
+        val previousOrderings = this.orderings
+        val orderings = HashMap<ItemCategory, List<ItemFacet>>(facetsByCategory.size)
+
+        val result = facetsByCategory.map { (category, facets) ->
+            val ordering = previousOrderings[category]?.takeIf { category !in changedCategories }
+                ?: facets.sortedDescending()
+
+            orderings[category] = ordering
+            category to ordering
+        }
+
+        this.slotStates = states
+        this.orderings = orderings
+
+        // Keep priority in mind (Tool slots are processed before weapon slots)
+        return result.sortedByDescending { it.first.type.allocationPriority }
+    }
+
+    /**
+     * Identifies the content of a slot. Stacks are compared by identity since the same instance might be modified
+     * in place (e.g. when placing blocks), so the count and the components are part of the stamp as well.
+     */
+    private class SlotStamp(val slot: ItemSlot, val stack: ItemStack) {
+        private val count = stack.count
+        private val hash = stack.components.hashCode()
+
+        val isArmor = stack.item.let { it is ArmorItem && it !is AnimalArmorItem }
+
+        override fun equals(other: Any?) = other is SlotStamp && slot == other.slot && stack === other.stack
+            && count == other.count && hash == other.hash
+
+        override fun hashCode() = slot.hashCode() * 31 + System.identityHashCode(stack)
+    }
+
+    private class SlotState(val stamp: SlotStamp, val facets: Array<ItemFacet>)
+
+}
@@ -19,6 +19,7 @@
 package net.ccbluex.liquidbounce.features.module.modules.player.invcleaner
 
 import net.ccbluex.liquidbounce.event.events.ScheduleInventoryActionEvent
+import net.ccbluex.liquidbounce.event.events.WorldChangeEvent
 import net.ccbluex.liquidbounce.event.handler
 import net.ccbluex.liquidbounce.features.module.Category
 import net.ccbluex.liquidbounce.features.module.ClientModule
@@ -57,6 +58,8 @@ object ModuleInventoryCleaner : ClientModule("InventoryCleaner", Category.PLAYER
     private val slotItem8 by enumChoice("SlotItem-8", ItemSortChoice.BLOCK)
     private val slotItem9 by enumChoice("SlotItem-9", ItemSortChoice.BLOCK)
 
+    private val analysis = InventoryAnalysis()
+
     val cleanupTemplateFromSettings: CleanupPlanPlacementTemplate
         get() {
             val slotTargets: HashMap<ItemSlot, ItemSortChoice> = hashMapOf(
@@ -113,9 +116,22 @@ object ModuleInventoryCleaner : ClientModule("InventoryCleaner", Category.PLAYER
             )
         }
 
+    override fun disable() {
+        analysis.invalidate()
+        super.disable()
+    }
+
+    /**
+     * Whether a block is useful depends on the world, so the facets have to be created again
+     */
+    @Suppress("unused")
+    private val worldChangeHandler = handler<WorldChangeEvent> {
+        analysis.invalidate()
+    }
+
     @Suppress("unused")
     private val handleInventorySchedule = handler<ScheduleInventoryActionEvent> { event ->
-        val cleanupPlan = CleanupPlanGenerator(cleanupTemplateFromSettings, findNonEmptySlotsInInventory())
+        val cleanupPlan = CleanupPlanGenerator(cleanupTemplateFromSettings, findNonEmptySlotsInInventory(), analysis)
             .generatePlan()
 
         // Step 1: Move items to the correct slots
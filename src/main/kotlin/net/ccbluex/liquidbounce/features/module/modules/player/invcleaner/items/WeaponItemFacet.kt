@@ -20,6 +20,7 @@ package net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.items
 
 import net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.*
 import net.ccbluex.liquidbounce.utils.item.EnchantmentValueEstimator
+import net.ccbluex.liquidbounce.utils.item.ItemScores
 import net.ccbluex.liquidbounce.utils.item.attackDamage
 import net.ccbluex.liquidbounce.utils.item.attackSpeed
 import net.ccbluex.liquidbounce.utils.item.getEnchantment
@@ -27,6 +28,7 @@ import net.ccbluex.liquidbounce.utils.sorting.ComparatorChain
 import net.ccbluex.liquidbounce.utils.sorting.compareByCondition
 import net.minecraft.component.DataComponentTypes
 import net.minecraft.enchantment.Enchantments
+import net.minecraft.item.ItemStack
 import net.minecraft.item.SwordItem
 import kotlin.math.ceil
 import kotlin.math.pow
@@ -52,9 +54,11 @@ open class WeaponItemFacet(itemSlot: ItemSlot) : ItemFacet(itemSlot) {
                 EnchantmentValueEstimator.WeightedEnchantment(Enchantments.SWEEPING_EDGE, 0.2f),
                 EnchantmentValueEstimator.WeightedEnchantment(Enchantments.KNOCKBACK, 0.25f),
             )
+        private val ESTIMATED_DAMAGE = ItemScores.byComponents(::estimateDamage)
+
         private val COMPARATOR =
             ComparatorChain<WeaponItemFacet>(
-                compareBy { estimateDamage(it) },
+                compareBy { ESTIMATED_DAMAGE[it.itemStack] },
                 compareBy { SECONDARY_VALUE_ESTIMATOR.estimateValue(it.itemStack) },
                 compareByCondition { it.itemStack.item is SwordItem },
                 PREFER_BETTER_DURABILITY,
@@ -63,10 +67,10 @@ open class WeaponItemFacet(itemSlot: ItemSlot) : ItemFacet(itemSlot) {
                 STABILIZE_COMPARISON,
             )
 
-        private fun estimateDamage(o1: WeaponItemFacet): Double {
+        private fun estimateDamage(itemStack: ItemStack): Double {
             // Already contains damage enchantments like sharpness
-            val attackDamage = o1.itemStack.attackDamage
-            val attackSpeed = o1.itemStack.attackSpeed
+            val attackDamage = itemStack.attackDamage
+            val attackSpeed = itemStack.attackSpeed
 
             val p = 0.85.pow(1 / 20.0)
             val bigT = 20.0 / attackSpeed
@@ -75,10 +79,10 @@ open class WeaponItemFacet(itemSlot: ItemSlot) : ItemFacet(itemSlot) {
 
             val speedAdjustedDamage = attackDamage * attackSpeed * probabilityAdjustmentFactor.toFloat()
 
-            val damageFromFireAspect = (o1.itemStack.getEnchantment(Enchantments.FIRE_ASPECT) * 4.0f - 1)
+            val damageFromFireAspect = (itemStack.getEnchantment(Enchantments.FIRE_ASPECT) * 4.0f - 1)
                     .coerceAtLeast(0.0F) * 0.33F
 
-            val additionalFactor = DAMAGE_ESTIMATOR.estimateValue(o1.itemStack)
+            val additionalFactor = DAMAGE_ESTIMATOR.estimateValue(itemStack)
 
             return speedAdjustedDamage * (1.0 + additionalFactor) + damageFromFireAspect
         }
@@ -32,7 +32,6 @@ import net.ccbluex.liquidbounce.utils.item.findHotbarSlot
 import net.ccbluex.liquidbounce.utils.kotlin.component1
 import net.ccbluex.liquidbounce.utils.kotlin.component2
 import net.ccbluex.liquidbounce.utils.kotlin.forEachWithSelf
-import net.ccbluex.liquidbounce.utils.kotlin.getValue
 import net.ccbluex.liquidbounce.utils.math.sq
 import net.ccbluex.liquidbounce.utils.render.WorldToScreen
 import net.minecraft.block.*
@@ -88,11 +87,17 @@ object ModuleBedPlates : ClientModule("BedPlates", Category.RENDER) {
 
         renderEnvironmentForGUI {
             fontRenderer.withBuffers { buf ->
-                BedBlockTracker.trackedBlockMap.map { (pos, bedState) ->
-                    DoubleObjectPair.of(pos.getSquaredDistance(playerPos), bedState)
-                }.filter { (distSq, _) ->
-                    distSq < maxDistanceSquared
-                }.sortedBy { (distSq, _) ->
+                val beds = mutableListOf<DoubleObjectPair<BedState>>()
+
+                BedBlockTracker.trackedBlockMap.forEach { pos, bedState ->
+                    val distSq = pos.getSquaredDistance(playerPos)
+
+                    if (distSq < maxDistanceSquared) {
+                        beds += DoubleObjectPair.of(distSq, bedState)
+                    }
+                }
+
+                beds.sortedBy { (distSq, _) ->
                     distSq
                 }.take(maxCount).forEachWithSelf { (distSq, bedState), i, self ->
                     val screenPos = WorldToScreen.calculateScreenPos(bedState.pos.add(0.0, renderY.toDouble(), 0.0))
@@ -277,9 +282,6 @@ object ModuleBedPlates : ClientModule("BedPlates", Category.RENDER) {
     }
 
     private object BedBlockTracker : AbstractBlockLocationTracker<BedState>() {
-        private val searchStart by ThreadLocal.withInitial(BlockPos::Mutable)
-        private val searchEnd by ThreadLocal.withInitial(BlockPos::Mutable)
-
         @Suppress("detekt:CognitiveComplexMethod")
         override fun getStateFor(pos: BlockPos, state: BlockState): BedState? {
             return if (state.isBed) {
@@ -294,29 +296,25 @@ object ModuleBedPlates : ClientModule("BedPlates", Category.RENDER) {
                 // A non-bed block was updated, we need to update the bed blocks around it
                 val distance = maxLayers
 
-                // Get a sub map of the sorted map when there are many beds
-                val lookUpMap = if (trackedBlockMap.size > 32) {
-                    trackedBlockMap.subMap(
-                        searchStart.set(pos, -distance, -distance, -distance), true,
-                        // Don't check beds above
-                        searchEnd.set(pos, distance, 0, distance), true,
-                    )
-                } else {
-                    trackedBlockMap
-                }
-
-                lookUpMap.keys.forEach {
-                    // Update if the block is close to a bed
-                    if (it.getManhattanDistance(pos) > distance) {
-                        return@forEach
+                // Only look at the chunks which can contain beds in range
+                trackedBlockMap.forEachInChunks(
+                    pos.x - distance shr 4,
+                    pos.z - distance shr 4,
+                    pos.x + distance shr 4,
+                    pos.z + distance shr 4
+                ) { bedPos, _ ->
+                    // Update if the block is close to a bed, don't check beds above
+                    if (bedPos.y > pos.y || bedPos.getManhattanDistance(pos) > distance) {
+                        return@forEachInChunks
                     }
 
-                    val trackedState = it.getState() ?: return@forEach
+                    val trackedState = bedPos.getState() ?: return@forEachInChunks
                     if (!trackedState.isBed) {
                         // The tracked block is not a bed anymore, remove it
-                        lookUpMap.remove(it)
+                        trackedBlockMap.remove(bedPos)
                     } else {
-                        lookUpMap[it] = it.getBedPlates(trackedState)
+                        val immutablePos = bedPos.toImmutable()
+                        trackedBlockMap[immutablePos] = immutablePos.getBedPlates(trackedState)
                     }
                 }
 
@@ -28,6 +28,7 @@ import net.ccbluex.liquidbounce.features.module.ClientModule
 import net.ccbluex.liquidbounce.render.*
 import net.ccbluex.liquidbounce.render.engine.Color4b
 import net.ccbluex.liquidbounce.utils.block.AbstractBlockLocationTracker
+import net.ccbluex.liquidbounce.utils.block.ChunkedBlockMap
 import net.ccbluex.liquidbounce.utils.block.ChunkScanner
 import net.ccbluex.liquidbounce.utils.block.getState
 import net.ccbluex.liquidbounce.utils.inventory.findBlocksEndingWith
@@ -84,7 +85,7 @@ object ModuleBlockESP : ClientModule("BlockESP", Category.RENDER) {
 
             renderEnvironmentForWorld(matrixStack) {
                 dirty = drawInternal(
-                    BlockTracker.trackedBlockMap.keys,
+                    BlockTracker.trackedBlockMap,
                     colorMode,
                     fullAlpha,
                     drawOutline
@@ -95,7 +96,7 @@ object ModuleBlockESP : ClientModule("BlockESP", Category.RENDER) {
         }
 
         private fun WorldRenderEnvironment.drawInternal(
-            blocks: Set<BlockPos>,
+            blocks: ChunkedBlockMap<TrackedState>,
             colorMode: GenericColorMode<Pair<BlockPos, BlockState>>,
             fullAlpha: Boolean,
             drawOutline: Boolean
@@ -103,11 +104,11 @@ object ModuleBlockESP : ClientModule("BlockESP", Category.RENDER) {
             var dirty = false
 
             BoxRenderer.drawWith(this) {
-                for (blockPos in blocks) {
-                    val blockState = blockPos.getState() ?: continue
+                blocks.forEach { blockPos, _ ->
+                    val blockState = blockPos.getState() ?: return@forEach
 
                     if (blockState.isAir) {
-                        continue
+                        return@forEach
                     }
 
                     val outlineShape = blockState.getOutlineShape(world, blockPos)
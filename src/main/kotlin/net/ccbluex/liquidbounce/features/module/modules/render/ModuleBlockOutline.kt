@@ -30,5 +30,6 @@ import net.ccbluex.liquidbounce.render.engine.Color4b
  * TODO: Implement Block Side Box and GUI Information Panel
  */
 object ModuleBlockOutline : ClientModule("BlockOutline", Category.RENDER, aliases = arrayOf("BlockOverlay")) {
+    @get:JvmName("getOutlineColor")
     val outlineColor by color("Outline", Color4b(68, 117, 255, 102))
 }
@@ -18,9 +18,8 @@
  */
 package net.ccbluex.liquidbounce.features.module.modules.render
 
+import com.mojang.blaze3d.platform.GlStateManager
 import com.mojang.blaze3d.systems.RenderSystem
-import it.unimi.dsi.fastutil.objects.ObjectFloatMutablePair
-import it.unimi.dsi.fastutil.objects.ObjectFloatPair
 import net.ccbluex.liquidbounce.config.types.ToggleableConfigurable
 import net.ccbluex.liquidbounce.event.events.GameTickEvent
 import net.ccbluex.liquidbounce.event.events.WorldChangeEvent
@@ -30,26 +29,31 @@ import net.ccbluex.liquidbounce.features.module.Category
 import net.ccbluex.liquidbounce.features.module.ClientModule
 import net.ccbluex.liquidbounce.render.engine.Color4b
 import net.ccbluex.liquidbounce.render.renderEnvironmentForWorld
+import net.ccbluex.liquidbounce.render.shader.shaders.BreadcrumbShader
+import net.ccbluex.liquidbounce.render.shader.shaders.BreadcrumbShaderData
 import net.ccbluex.liquidbounce.render.utils.rainbow
-import net.ccbluex.liquidbounce.utils.kotlin.component1
-import net.ccbluex.liquidbounce.utils.kotlin.component2
-import net.minecraft.client.gl.ShaderProgramKeys
-import net.minecraft.client.render.BufferBuilder
-import net.minecraft.client.render.BufferRenderer
-import net.minecraft.client.render.Camera
-import net.minecraft.client.render.VertexFormat.DrawMode
-import net.minecraft.client.render.VertexFormats
+import net.minecraft.client.gl.VertexBuffer
 import net.minecraft.client.util.math.MatrixStack
 import net.minecraft.entity.Entity
-import org.joml.Matrix4f
-import org.joml.Vector3f
-import org.joml.Vector4f
+import net.minecraft.util.math.Vec3d
+import org.lwjgl.opengl.GL11
+import org.lwjgl.opengl.GL15
+import org.lwjgl.opengl.GL20
+import org.lwjgl.opengl.GL30
+import org.lwjgl.system.MemoryUtil
+import java.nio.FloatBuffer
 import java.util.*
+import kotlin.math.max
+import kotlin.math.min
 
 /**
  * Breadcrumbs module
  *
  * Leaves traces behind players.
+ *
+ * Every trail keeps its points in a vertex buffer on the GPU, which new points are appended to once per tick.
+ * Per frame, only the tip following the entity is uploaded, while fading and the height of the ribbon are applied
+ * by the [BreadcrumbShader].
  */
 object ModuleBreadcrumbs : ClientModule("Breadcrumbs", Category.RENDER, aliases = arrayOf("PlayerTrails")) {
 
@@ -68,10 +72,22 @@ object ModuleBreadcrumbs : ClientModule("Breadcrumbs", Category.RENDER, aliases
     }
 
     private val trails = IdentityHashMap<Entity, Trail>()
-    private val lastPositions = IdentityHashMap<Entity, DoubleArray>()
+
+    /**
+     * Creation times are uploaded as float milliseconds relative to this, it is reset once all trails are cleared
+     */
+    private var epoch = System.currentTimeMillis()
+
+    /**
+     * Staging memory for uploads, shared by all trails
+     */
+    private var stagingBuffer: FloatBuffer? = null
 
     override fun disable() {
         clear()
+
+        stagingBuffer?.let(MemoryUtil::memFree)
+        stagingBuffer = null
     }
 
     val renderHandler = handler<WorldRenderEvent> { event ->
@@ -88,31 +104,42 @@ object ModuleBreadcrumbs : ClientModule("Breadcrumbs", Category.RENDER, aliases
             return
         }
 
-        if (height > 0) {
-            RenderSystem.disableCull()
-        }
-
-        val matrix = matrixStack.peek().positionMatrix
-
-        @Suppress("SpellCheckingInspection")
-        val tessellator = RenderSystem.renderThreadTesselator()
         val camera = mc.entityRenderDispatcher.camera ?: return
         val time = System.currentTimeMillis()
-        val colorF = Vector4f(color.r / 255f, color.g / 255f, color.b / 255f, color.a / 255f)
+        val tickDelta = mc.renderTickCounter.getTickDelta(true)
+        val temporary = TemporaryConfigurable.enabled
         val lines = height == 0f
-        val buffer = tessellator.begin(if (lines) DrawMode.DEBUG_LINES else DrawMode.QUADS,
-            VertexFormats.POSITION_COLOR)
-        val renderData = RenderData(matrix, buffer, colorF, lines)
 
-        RenderSystem.setShader(ShaderProgramKeys.POSITION_COLOR)
+        BreadcrumbShaderData.modelViewMatrix.set(RenderSystem.getModelViewMatrix())
+            .mul(matrixStack.peek().positionMatrix)
+        BreadcrumbShaderData.color = color
+        BreadcrumbShaderData.height = height
+        BreadcrumbShaderData.time = (time - epoch).toFloat()
+        BreadcrumbShaderData.alive = if (temporary && TemporaryConfigurable.fade) {
+            TemporaryConfigurable.alive.toFloat()
+        } else {
+            0f
+        }
+
+        if (!lines) {
+            RenderSystem.disableCull()
+        }
+
+        BreadcrumbShader.use()
 
         trails.forEach { (entity, trail) ->
-            trail.verifyAndRenderTrail(renderData, camera, entity, time)
+            if (temporary) {
+                trail.expire(time - TemporaryConfigurable.alive.toLong())
+            }
+
+            trail.draw(entity.getLerpedPos(tickDelta), camera.pos, lines)
         }
 
-        BufferRenderer.drawWithGlobalProgram(buffer.endNullable() ?: return)
+        BreadcrumbShader.stop()
+        GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, 0)
+        VertexBuffer.unbind()
 
-        if (height > 0) {
+        if (!lines) {
             RenderSystem.enableCull()
         }
     }
@@ -126,25 +153,35 @@ object ModuleBreadcrumbs : ClientModule("Breadcrumbs", Category.RENDER, aliases
 
         if (onlyOwn) {
             updateEntityTrail(time, player)
-            trails.keys.retainAll { it === player || !it.isAlive }
+            removeTrails { entity, _ -> entity !== player }
             return@handler
         }
 
-        val actualPresent = world.players
-        actualPresent.forEach { player -> updateEntityTrail(time, player) }
-        trails.keys.removeIf { key ->
-            actualPresent.none { it === key } || !key.isAlive
+        for (entity in world.players) {
+            updateEntityTrail(time, entity)
+        }
+
+        // Trails of players which were not updated in this tick have left the world
+        removeTrails { entity, trail ->
+            trail.lastUpdate != time || !entity.isAlive
         }
     }
 
     private fun updateEntityTrail(time: Long, entity: Entity) {
-        val last = lastPositions[entity]
-        if (last != null && entity.x == last[0] && entity.y == last[1] && entity.z == last[2]) {
-            return
-        }
+        val trail = trails.getOrPut(entity, ::Trail)
 
-        lastPositions[entity] = doubleArrayOf(entity.x, entity.y, entity.z)
-        trails.getOrPut(entity, ::Trail).positions.add(TrailPart(entity.x, entity.y, entity.z, time))
+        trail.lastUpdate = time
+        trail.add(entity.x, entity.y, entity.z, time)
+    }
+
+    private inline fun removeTrails(crossinline predicate: (Entity, Trail) -> Boolean) {
+        trails.entries.removeIf { (entity, trail) ->
+            predicate(entity, trail).also { remove ->
+                if (remove) {
+                    trail.close()
+                }
+            }
+        }
     }
 
     @Suppress("unused")
@@ -153,87 +190,261 @@ object ModuleBreadcrumbs : ClientModule("Breadcrumbs", Category.RENDER, aliases
     }
 
     private fun clear() {
-        lastPositions.clear()
+        trails.values.forEach(Trail::close)
         trails.clear()
+        epoch = System.currentTimeMillis()
+    }
+
+    /**
+     * Returns the staging buffer, grown to hold at least [points] points
+     */
+    private fun stagingBuffer(points: Int): FloatBuffer {
+        val floats = points * Trail.POINT_FLOATS
+        val buffer = stagingBuffer
+
+        if (buffer != null && buffer.capacity() >= floats) {
+            return buffer.clear()
+        }
+
+        return MemoryUtil.memRealloc(buffer, max(floats, buffer?.capacity()?.times(2) ?: 0))
+            .also { stagingBuffer = it }
     }
 
-    @JvmRecord
-    private data class TrailPart(val x: Double, val y: Double, val z: Double, val creationTime: Long)
+    /**
+     * Positions and creation times of a trail, ordered by time (ascending).
+     *
+     * Points are kept in a ring buffer and appended to a vertex buffer, each point as two vertices for the bottom
+     * and the top of the ribbon. Expired points are dropped by moving the head. The vertex buffer is only rewritten
+     * from the oldest point once it runs full and is kept at least twice as large as the trail, so uploading stays
+     * constant per point no matter how long the trail is.
+     */
+    private class Trail : AutoCloseable {
+
+        /**
+         * Time of the last tick the entity was present in
+         */
+        var lastUpdate = 0L
+
+        private var positions = DoubleArray(INITIAL_CAPACITY * 3)
+        private var creationTimes = LongArray(INITIAL_CAPACITY)
+        private var head = 0
+        private var size = 0
+
+        /**
+         * Points are numbered in the order they were added, this is the number of the point at [head]
+         */
+        private var firstSequence = 0
+        private val nextSequence
+            get() = firstSequence + size
+
+        /**
+         * The last position of the entity, it's kept even if the point at it has already expired
+         */
+        private var lastX = Double.NaN
+        private var lastY = Double.NaN
+        private var lastZ = Double.NaN
+
+        /**
+         * Points are uploaded relative to the first position of the trail, to keep float precision
+         */
+        private var originX = Double.NaN
+        private var originY = Double.NaN
+        private var originZ = Double.NaN
+
+        private var vertexArray = 0
+        private var vertexBuffer = 0
+
+        /**
+         * Amount of points the vertex buffer can hold
+         */
+        private var bufferCapacity = 0
+
+        /**
+         * Number of the point in the first slot of the vertex buffer
+         */
+        private var bufferBase = 0
+
+        /**
+         * Points before this number are uploaded
+         */
+        private var uploaded = 0
+
+        /**
+         * Number of the point whose slot holds the interpolated entity position instead of its own, -1 if none
+         */
+        private var tipSequence = -1
+
+        fun add(x: Double, y: Double, z: Double, time: Long) {
+            if (x == lastX && y == lastY && z == lastZ) {
+                return
+            }
 
-    private class RenderData(
-        val matrix: Matrix4f,
-        val bufferBuilder: BufferBuilder,
-        val color: Vector4f,
-        val lines: Boolean
-    )
+            lastX = x
+            lastY = y
+            lastZ = z
 
-    private class Trail {
+            if (originX.isNaN()) {
+                originX = x
+                originY = y
+                originZ = z
+            }
 
-        val positions = ArrayDeque<TrailPart>()
+            if (size == creationTimes.size) {
+                grow()
+            }
 
-        fun verifyAndRenderTrail(renderData: RenderData, camera: Camera, entity: Entity, time: Long) {
-            val aliveDurationF = TemporaryConfigurable.alive.toFloat()
-            val initialAlpha = renderData.color.w
+            val index = (head + size) and (creationTimes.size - 1)
+            positions[index * 3] = x
+            positions[index * 3 + 1] = y
+            positions[index * 3 + 2] = z
+            creationTimes[index] = time
+            size++
+        }
 
-            if (TemporaryConfigurable.enabled) {
-                val aliveDuration = TemporaryConfigurable.alive.toLong()
-                val expirationTime = time - aliveDuration
+        fun expire(expirationTime: Long) {
+            val mask = creationTimes.size - 1
 
-                // Remove outdated positions, the positions are ordered by time (ascending)
-                while (positions.isNotEmpty() && positions.peekFirst().creationTime < expirationTime) {
-                    positions.removeFirst()
-                }
+            while (size > 0 && creationTimes[head] < expirationTime) {
+                head = (head + 1) and mask
+                size--
+                firstSequence++
             }
+        }
+
+        private fun grow() {
+            val capacity = creationTimes.size
+            val newPositions = DoubleArray(capacity * 6)
+            val newCreationTimes = LongArray(capacity * 2)
+
+            // Unwrap the buffer, so the oldest point is at index 0 again
+            val tail = capacity - head
+            System.arraycopy(positions, head * 3, newPositions, 0, tail * 3)
+            System.arraycopy(positions, 0, newPositions, tail * 3, head * 3)
+            System.arraycopy(creationTimes, head, newCreationTimes, 0, tail)
+            System.arraycopy(creationTimes, 0, newCreationTimes, tail, head)
+
+            positions = newPositions
+            creationTimes = newCreationTimes
+            head = 0
+        }
 
-            if (positions.isEmpty()) {
+        /**
+         * Draws the trail, the newest point follows [entityPos] between ticks.
+         * Expects the [BreadcrumbShader] to be in use.
+         */
+        fun draw(entityPos: Vec3d, cameraPos: Vec3d, lines: Boolean) {
+            if (size < 2) {
                 return
             }
 
-            val shouldFade = TemporaryConfigurable.fade && TemporaryConfigurable.enabled
-            val pointsWithAlpha = positions.map { position ->
-                val alpha = if (shouldFade) {
-                    val deltaTime = time - position.creationTime
-                    val multiplier = (1F - deltaTime.toFloat() / aliveDurationF)
-                    multiplier * initialAlpha
-                } else {
-                    initialAlpha
+            if (vertexArray == 0) {
+                vertexArray = GL30.glGenVertexArrays()
+                vertexBuffer = GL15.glGenBuffers()
+            }
+
+            GlStateManager._glBindVertexArray(vertexArray)
+            GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, vertexBuffer)
+
+            upload(entityPos)
+
+            BreadcrumbShader.setOffset(
+                (originX - cameraPos.x).toFloat(),
+                (originY - cameraPos.y).toFloat(),
+                (originZ - cameraPos.z).toFloat()
+            )
+
+            // Lines only use the bottom vertex of every point
+            val stride = if (lines) POINT_BYTES else VERTEX_BYTES
+            GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, stride, 0L)
+            GL20.glVertexAttribPointer(1, 1, GL11.GL_FLOAT, false, stride, 12L)
+            GL20.glVertexAttribPointer(2, 1, GL11.GL_FLOAT, false, stride, 16L)
+            GL20.glEnableVertexAttribArray(0)
+            GL20.glEnableVertexAttribArray(1)
+            GL20.glEnableVertexAttribArray(2)
+
+            val first = firstSequence - bufferBase
+            if (lines) {
+                GL11.glDrawArrays(GL11.GL_LINE_STRIP, first, size)
+            } else {
+                GL11.glDrawArrays(GL11.GL_TRIANGLE_STRIP, first * 2, size * 2)
+            }
+        }
+
+        private fun upload(entityPos: Vec3d) {
+            // Once new points do not fit anymore, the live points are written to the start of the buffer again
+            if (nextSequence - bufferBase > bufferCapacity) {
+                if (size * 2 > bufferCapacity) {
+                    bufferCapacity = max(INITIAL_CAPACITY, size * 2)
+                    GL15.glBufferData(GL15.GL_ARRAY_BUFFER, bufferCapacity.toLong() * POINT_BYTES, GL15.GL_DYNAMIC_DRAW)
                 }
 
-                val point = calculatePoint(camera, position.x, position.y, position.z)
-                ObjectFloatMutablePair.of(point, alpha)
+                bufferBase = firstSequence
+                uploaded = firstSequence
+                tipSequence = -1
             }
 
-            val interpolatedPos = entity.getLerpedPos(mc.renderTickCounter.getTickDelta(true))
-            val point = calculatePoint(camera, interpolatedPos.x, interpolatedPos.y, interpolatedPos.z)
-            pointsWithAlpha.last().left(point)
+            // The previous tip has to get its own position back once newer points were added
+            var from = max(uploaded, firstSequence)
+            if (tipSequence >= firstSequence) {
+                from = min(from, tipSequence)
+            }
+            from = min(from, nextSequence - 1)
 
-            addVerticesToBuffer(renderData, pointsWithAlpha)
-        }
+            val buffer = stagingBuffer(nextSequence - from)
+            val mask = creationTimes.size - 1
+
+            for (sequence in from until nextSequence) {
+                val index = (head + sequence - firstSequence) and mask
+                val time = (creationTimes[index] - epoch).toFloat()
+
+                if (sequence == nextSequence - 1) {
+                    putPoint(buffer, entityPos.x, entityPos.y, entityPos.z, time)
+                } else {
+                    putPoint(buffer, positions[index * 3], positions[index * 3 + 1], positions[index * 3 + 2], time)
+                }
+            }
+
+            buffer.flip()
+            GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, (from - bufferBase).toLong() * POINT_BYTES, buffer)
 
-        private fun calculatePoint(camera: Camera, x: Double, y: Double, z: Double): Vector3f {
-            val point = Vector3f(x.toFloat(), y.toFloat(), z.toFloat())
-            point.sub(camera.pos.x.toFloat(), camera.pos.y.toFloat(), camera.pos.z.toFloat())
-            return point
+            uploaded = nextSequence
+            tipSequence = nextSequence - 1
         }
 
-        private fun addVerticesToBuffer(renderData: RenderData, list: List<ObjectFloatPair<Vector3f>>) {
-            val red = renderData.color.x
-            val green = renderData.color.y
-            val blue = renderData.color.z
+        private fun putPoint(buffer: FloatBuffer, x: Double, y: Double, z: Double, time: Float) {
+            val relativeX = (x - originX).toFloat()
+            val relativeY = (y - originY).toFloat()
+            val relativeZ = (z - originZ).toFloat()
 
-            with(renderData.bufferBuilder) {
-                for (i in 1..<list.size) {
-                    val (v0, alpha0) = list[i]
-                    val (v2, alpha2) = list[i - 1]
+            buffer.put(relativeX).put(relativeY).put(relativeZ).put(time).put(0f)
+            buffer.put(relativeX).put(relativeY).put(relativeZ).put(time).put(1f)
+        }
 
-                    vertex(renderData.matrix, v0.x, v0.y, v0.z).color(red, green, blue, alpha0)
-                    vertex(renderData.matrix, v2.x, v2.y, v2.z).color(red, green, blue, alpha2)
-                    if (!renderData.lines) {
-                        vertex(renderData.matrix, v2.x, v2.y + height, v2.z).color(red, green, blue, alpha2)
-                        vertex(renderData.matrix, v0.x, v0.y + height, v0.z).color(red, green, blue, alpha0)
-                    }
-                }
+        override fun close() {
+            if (vertexArray == 0) {
+                return
             }
+
+            GL30.glDeleteVertexArrays(vertexArray)
+            GL15.glDeleteBuffers(vertexBuffer)
+            vertexArray = 0
+            vertexBuffer = 0
+        }
+
+        companion object {
+            /**
+             * Has to be a power of two
+             */
+            private const val INITIAL_CAPACITY = 64
+
+            /**
+             * Position, creation time and side (bottom or top) of the ribbon
+             */
+            private const val VERTEX_FLOATS = 5
+            const val POINT_FLOATS = VERTEX_FLOATS * 2
+
+            private const val VERTEX_BYTES = VERTEX_FLOATS * Float.SIZE_BYTES
+            private const val POINT_BYTES = POINT_FLOATS * Float.SIZE_BYTES
         }
 
     }
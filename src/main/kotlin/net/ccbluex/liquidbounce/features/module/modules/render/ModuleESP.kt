@@ -28,6 +28,7 @@ import net.ccbluex.liquidbounce.render.*
 import net.ccbluex.liquidbounce.render.engine.Color4b
 import net.ccbluex.liquidbounce.utils.combat.EntityTaggingManager
 import net.ccbluex.liquidbounce.utils.combat.shouldBeShown
+import net.ccbluex.liquidbounce.utils.entity.EntityIndex
 import net.ccbluex.liquidbounce.utils.entity.interpolateCurrentPosition
 import net.minecraft.entity.LivingEntity
 import net.minecraft.entity.player.PlayerEntity
@@ -106,7 +107,7 @@ object ModuleESP : ClientModule("ESP", Category.RENDER) {
 
     object OutlineMode : EspMode("Outline", requiresTrueSight = true)
 
-    fun findRenderedEntities() = world.entities.filterIsInstance<LivingEntity>().filter { it.shouldBeShown() }
+    fun findRenderedEntities() = EntityIndex.ofType<LivingEntity>().filter { it.shouldBeShown() }
 
     private fun getBaseColor(entity: LivingEntity): Color4b {
         if (entity is PlayerEntity) {
@@ -120,6 +121,7 @@ object ModuleESP : ClientModule("ESP", Category.RENDER) {
         return colorModes.activeChoice.getColor(entity)
     }
 
+    @JvmName("getColor")
     fun getColor(entity: LivingEntity): Color4b {
         val baseColor = getBaseColor(entity)
 
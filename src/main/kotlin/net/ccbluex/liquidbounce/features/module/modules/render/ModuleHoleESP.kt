@@ -26,6 +26,7 @@ import net.ccbluex.liquidbounce.features.module.Category
 import net.ccbluex.liquidbounce.features.module.ClientModule
 import net.ccbluex.liquidbounce.render.*
 import net.ccbluex.liquidbounce.render.engine.Color4b
+import net.ccbluex.liquidbounce.utils.block.Region
 import net.ccbluex.liquidbounce.utils.block.Region.Companion.getBox
 import net.ccbluex.liquidbounce.utils.block.hole.Hole
 import net.ccbluex.liquidbounce.utils.block.hole.HoleManager
@@ -81,14 +82,14 @@ object ModuleHoleESP : ClientModule("HoleESP", Category.RENDER), HoleManagerSubs
             val hDistance = horizontalDistance
 
             renderEnvironmentForWorld(event.matrixStack) {
-                HoleTracker.holes.forEach {
+                HoleTracker.holes.forEachNear(Region.quadAround(pos, hDistance, vDistance)) {
                     val (type, positions) = it
 
                     val valOutOfRange = abs(pos.y - positions.from.y) > vDistance
                     val xzOutOfRange = abs(pos.x - positions.from.x) > hDistance ||
                         abs(pos.z - positions.from.z) > hDistance
                     if (valOutOfRange || xzOutOfRange) {
-                        return@forEach
+                        return@forEachNear
                     }
 
                     val fade = calculateFade(positions.from)
@@ -129,14 +130,14 @@ object ModuleHoleESP : ClientModule("HoleESP", Category.RENDER), HoleManagerSubs
 
             renderEnvironmentForWorld(event.matrixStack) {
                 withDisabledCull {
-                    HoleTracker.holes.forEach {
+                    HoleTracker.holes.forEachNear(Region.quadAround(pos, hDistance, vDistance)) {
                         val (type, positions) = it
 
                         val valOutOfRange = abs(pos.y - positions.from.y) > vDistance
                         val xzOutOfRange = abs(pos.x - positions.from.x) > hDistance ||
                             abs(pos.z - positions.from.z) > hDistance
                         if (valOutOfRange || xzOutOfRange) {
-                            return@forEach
+                            return@forEachNear
                         }
 
                         val fade = calculateFade(positions.from)
@@ -26,6 +26,7 @@ import net.ccbluex.liquidbounce.features.module.Category
 import net.ccbluex.liquidbounce.features.module.ClientModule
 import net.ccbluex.liquidbounce.render.*
 import net.ccbluex.liquidbounce.render.engine.Color4b
+import net.ccbluex.liquidbounce.utils.entity.EntityIndex
 import net.ccbluex.liquidbounce.utils.entity.interpolateCurrentPosition
 import net.minecraft.entity.Entity
 import net.minecraft.entity.ItemEntity
@@ -66,7 +67,7 @@ object ModuleItemESP : ClientModule("ItemESP", Category.RENDER) {
             val baseColor = base.alpha(50)
             val outlineColor = base.alpha(100)
 
-            val filtered = world.entities.filter(::shouldRender)
+            val filtered = EntityIndex.ofType<ItemEntity>() + EntityIndex.ofType<ArrowEntity>()
 
             renderEnvironmentForWorld(matrixStack) {
                 BoxRenderer.drawWith(this) {
@@ -94,5 +95,6 @@ object ModuleItemESP : ClientModule("ItemESP", Category.RENDER) {
 
     fun shouldRender(it: Entity?) = it is ItemEntity || it is ArrowEntity
 
+    @JvmName("getColor")
     fun getColor() = this.colorMode.activeChoice.getColor(null)
 }
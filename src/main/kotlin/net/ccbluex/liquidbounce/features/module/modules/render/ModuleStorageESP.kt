@@ -104,17 +104,17 @@ object ModuleStorageESP : ClientModule("StorageESP", Category.RENDER, aliases =
         private fun collectBoxesToDraw(event: WorldRenderEvent): List<Triple<Vec3d, Box, Color4b>> {
             val queuedBoxes = mutableListOf<Triple<Vec3d, Box, Color4b>>()
 
-            for ((pos, type) in StorageScanner.trackedBlockMap) {
+            StorageScanner.trackedBlockMap.forEach { pos, type ->
                 val color = type.color
 
                 if (color.a <= 0 || !type.shouldRender(pos)) {
-                    continue
+                    return@forEach
                 }
 
                 val state = pos.getState()
 
                 if (state == null || state.isAir) {
-                    continue
+                    return@forEach
                 }
 
                 val outlineShape = state.getOutlineShape(world, pos)
@@ -159,17 +159,17 @@ object ModuleStorageESP : ClientModule("StorageESP", Category.RENDER, aliases =
 
             renderEnvironmentForWorld(event.matrixStack) {
                 BoxRenderer.drawWith(this) {
-                    for ((pos, type) in StorageScanner.trackedBlockMap) {
-                        val state = pos.getState() ?: continue
+                    StorageScanner.trackedBlockMap.forEach { pos, type ->
+                        val state = pos.getState() ?: return@forEach
 
                         // non-model blocks are already processed by WorldRenderer where we injected code which renders
                         // their outline
                         if (state.renderType != BlockRenderType.MODEL) {
-                            continue
+                            return@forEach
                         }
 
                         if (state.isAir) {
-                            continue
+                            return@forEach
                         }
 
                         val outlineShape = state.getOutlineShape(world, pos)
@@ -245,6 +245,11 @@ object ModuleStorageESP : ClientModule("StorageESP", Category.RENDER, aliases =
 
         abstract val color: Color4b
 
+        /**
+         * [color] as packed ARGB, Java can't access value class properties
+         */
+        val argb get() = color.argb
+
         open fun shouldRender(pos: BlockPos): Boolean = true
     }
 
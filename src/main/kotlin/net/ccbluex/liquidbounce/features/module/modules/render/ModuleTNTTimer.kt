@@ -82,6 +82,7 @@ object ModuleTNTTimer : ClientModule("TNTTimer", Category.RENDER) {
     /**
      * Cycle light periodically according to the remaining time (`fuse`). The less time left, the faster the cycle.
      */
+    @JvmName("getTntColor")
     fun getTntColor(fuse: Int): Color4b {
         val red = MathHelper.floor(255.0 * (1.0 + 0.5 * sin(2400.0 / (12 + fuse)))).coerceIn(0, 255)
         return Color4b(red, 0, 0)
@@ -29,6 +29,7 @@ import net.ccbluex.liquidbounce.render.engine.Color4b
 import net.ccbluex.liquidbounce.render.engine.Vec3
 import net.ccbluex.liquidbounce.utils.combat.EntityTaggingManager
 import net.ccbluex.liquidbounce.utils.combat.shouldBeShown
+import net.ccbluex.liquidbounce.utils.entity.EntityIndex
 import net.ccbluex.liquidbounce.utils.entity.interpolateCurrentPosition
 import net.ccbluex.liquidbounce.utils.math.toVec3
 import net.minecraft.entity.Entity
@@ -74,7 +75,7 @@ object ModuleTracers : ClientModule("Tracers", Category.RENDER) {
             } else {
                 DistanceColor.customViewDistance
             })
-        val filteredEntities = world.entities.filter(this::shouldRenderTrace)
+        val filteredEntities = EntityIndex.ofType<LivingEntity>().filter(this::shouldRenderTrace)
         val camera = mc.gameRenderer.camera
 
         if (filteredEntities.isEmpty()) {
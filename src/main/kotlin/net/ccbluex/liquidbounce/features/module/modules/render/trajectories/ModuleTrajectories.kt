@@ -18,6 +18,9 @@
  */
 package net.ccbluex.liquidbounce.features.module.modules.render.trajectories
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap
+import net.ccbluex.liquidbounce.event.events.GameTickEvent
+import net.ccbluex.liquidbounce.event.events.WorldChangeEvent
 import net.ccbluex.liquidbounce.event.events.WorldRenderEvent
 import net.ccbluex.liquidbounce.event.handler
 import net.ccbluex.liquidbounce.features.module.Category
@@ -30,10 +33,15 @@ import net.ccbluex.liquidbounce.utils.entity.rotation
 import net.ccbluex.liquidbounce.utils.math.minus
 import net.ccbluex.liquidbounce.utils.math.plus
 import net.ccbluex.liquidbounce.utils.math.times
+import net.ccbluex.liquidbounce.utils.render.trajectory.SimulationResult
 import net.ccbluex.liquidbounce.utils.render.trajectory.TrajectoryData
+import net.ccbluex.liquidbounce.utils.render.trajectory.TrajectoryInfo
 import net.ccbluex.liquidbounce.utils.render.trajectory.TrajectoryInfoRenderer
+import net.minecraft.client.util.math.MatrixStack
+import net.minecraft.entity.Entity
 import net.minecraft.entity.player.PlayerEntity
 import net.minecraft.util.hit.EntityHitResult
+import net.minecraft.util.hit.HitResult
 import net.minecraft.util.math.Vec3d
 import kotlin.math.cos
 import kotlin.math.sin
@@ -51,6 +59,40 @@ object ModuleTrajectories : ClientModule("Trajectories", Category.RENDER) {
     private val activeTrajectoryArrow by boolean("ActiveTrajectoryArrow", true)
     private val activeTrajectoryOther by boolean("ActiveTrajectoryOther", false)
 
+    /**
+     * Simulations by entity id. A simulation is reused for all frames of the same tick as long as its inputs
+     * (position, velocity, item and rotation) do not change, the path is only offset at render time.
+     */
+    private val simulations = Int2ObjectOpenHashMap<CachedSimulation>()
+    private var currentTick = 0
+
+    private data class SimulationKey(
+        val trajectoryInfo: TrajectoryInfo,
+        val pos: Vec3d,
+        val velocity: Vec3d,
+        val maxTicks: Int
+    )
+
+    private class CachedSimulation(val key: SimulationKey, val tick: Int, val result: SimulationResult)
+
+    @Suppress("unused")
+    private val tickHandler = handler<GameTickEvent> {
+        currentTick++
+
+        // The world might have changed, so every simulation is redone once per tick at most.
+        // Entries of entities which are not rendered anymore are dropped.
+        simulations.values.removeIf { it.tick < currentTick - 1 }
+    }
+
+    @Suppress("unused")
+    private val worldChangeHandler = handler<WorldChangeEvent> {
+        simulations.clear()
+    }
+
+    override fun disable() {
+        simulations.clear()
+    }
+
     val renderHandler = handler<WorldRenderEvent> { event ->
         val matrixStack = event.matrixStack
 
@@ -71,7 +113,7 @@ object ModuleTrajectories : ClientModule("Trajectories", Category.RENDER) {
 
             val color = TrajectoryData.getColorForEntity(it)
 
-            val hitResult = trajectoryRenderer.drawTrajectoryForProjectile(maxSimulatedTicks, color, matrixStack)
+            val hitResult = drawCached(it, trajectoryInfo, trajectoryRenderer, color, matrixStack)
 
             if (hitResult != null && !(hitResult is EntityHitResult && hitResult.entity == player)) {
                 drawLandingPos(hitResult, trajectoryInfo, event, color, color)
@@ -89,6 +131,28 @@ object ModuleTrajectories : ClientModule("Trajectories", Category.RENDER) {
         drawHypotheticalTrajectory(player, event)
     }
 
+    private fun drawCached(
+        entity: Entity,
+        trajectoryInfo: TrajectoryInfo,
+        renderer: TrajectoryInfoRenderer,
+        color: Color4b,
+        matrixStack: MatrixStack
+    ): HitResult? {
+        val key = SimulationKey(trajectoryInfo, renderer.initialPos, renderer.initialVelocity, maxSimulatedTicks)
+        val cached = simulations.get(entity.id)
+
+        val result = if (cached != null && cached.tick == currentTick && cached.key == key) {
+            cached.result
+        } else {
+            renderer.simulate(maxSimulatedTicks).also { result ->
+                simulations.put(entity.id, CachedSimulation(key, currentTick, result))
+            }
+        }
+
+        renderer.drawTrajectory(result, color, matrixStack)
+        return result.hitResult
+    }
+
     /**
      * Draws the trajectory for an item in the player's hand
      */
@@ -105,7 +169,7 @@ object ModuleTrajectories : ClientModule("Trajectories", Category.RENDER) {
             partialTicks = event.partialTicks
         )
 
-        val hitResult = renderer.drawTrajectoryForProjectile(maxSimulatedTicks, Color4b.WHITE, event.matrixStack)
+        val hitResult = drawCached(otherPlayer, trajectoryInfo, renderer, Color4b.WHITE, event.matrixStack)
 
         drawLandingPos(
             hitResult,
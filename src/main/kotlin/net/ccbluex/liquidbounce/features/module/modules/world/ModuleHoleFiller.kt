@@ -125,9 +125,11 @@ object ModuleHoleFiller : ClientModule("HoleFiller", Category.WORLD), HoleManage
     @Suppress("unused")
     private val targetUpdater = handler<SimulatedTickEvent> {
         // all holes, if required 1x1 holes filtered out
-        val holes = HoleTracker.holes.filter { !only1by1 || it.type == Hole.Type.ONE_ONE }
-
         val blockPos = player.blockPos
+        val holes = HoleTracker.holes.filterNear(Region.quadAround(blockPos, range, range)) {
+            !only1by1 || it.type == Hole.Type.ONE_ONE
+        }
+
         val selfInHole = holes.any { it.contains(blockPos) }
         if (onlyWhenSelfInHole && !selfInHole) {
             return@handler
@@ -105,11 +105,22 @@ object AutoFarmAutoWalk : ToggleableConfigurable(ModuleAutoFarm, "AutoWalk", fal
             }
         }
 
-        val closestBlock = AutoFarmBlockTracker.trackedBlockMap.filter {
-            allowedItems[it.value.ordinal]
-        }.keys.map {
-            it.toCenterPos()
-        }.minByOrNull { it.squaredDistanceTo(player.pos) }
+        var closestBlock: Vec3d? = null
+        var closestDistance = Double.MAX_VALUE
+
+        AutoFarmBlockTracker.trackedBlockMap.forEach { pos, state ->
+            if (!allowedItems[state.ordinal]) {
+                return@forEach
+            }
+
+            val center = pos.toCenterPos()
+            val distance = center.squaredDistanceTo(player.pos)
+
+            if (distance < closestDistance) {
+                closestBlock = center
+                closestDistance = distance
+            }
+        }
 
         return closestBlock
     }
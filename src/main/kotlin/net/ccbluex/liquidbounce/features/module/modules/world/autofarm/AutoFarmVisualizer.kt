@@ -92,8 +92,10 @@ object AutoFarmVisualizer : ToggleableConfigurable(ModuleAutoFarm, "Visualize",
 
             renderEnvironmentForWorld(matrixStack) {
                 CurrentTarget.render(this)
-                for ((pos, type) in markedBlocks) {
-                    if ((pos.x - player.x).sq() + (pos.z - player.z).sq() > rangeSquared) continue
+                markedBlocks.forEachNear(player.x, player.z, range.toDouble()) { pos, type ->
+                    if ((pos.x - player.x).sq() + (pos.z - player.z).sq() > rangeSquared) {
+                        return@forEachNear
+                    }
 
                     withPositionRelativeToCamera(pos.toVec3d()) {
                         if (type == AutoFarmTrackedStates.Destroy) {
@@ -28,6 +28,7 @@ internal fun registerInteropFunctions(node: Node) = node.withPath("/api/v1/clien
     // Client Functions
     get("/info", ::getClientInfo)
     get("/update", ::getUpdateInfo)
+    get("/startup", ::getStartupTimings)
     post("/exit", ::postExit)
     get("/window", ::getWindowInfo)
     post("/browse", ::postBrowse)
@@ -95,6 +96,7 @@ internal fun registerInteropFunctions(node: Node) = node.withPath("/api/v1/clien
         post("/clipboard", ::postClipboardProxy)
         post("/edit", ::postEditProxy)
         post("/check", ::postCheckProxy)
+        post("/check/all", ::postCheckAllProxies)
         delete("/remove", ::deleteRemoveProxy)
         put("/favorite", ::putFavoriteProxy)
         delete("/favorite", ::deleteFavoriteProxy)
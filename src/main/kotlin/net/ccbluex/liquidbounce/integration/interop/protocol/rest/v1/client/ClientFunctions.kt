@@ -19,6 +19,7 @@
  */
 package net.ccbluex.liquidbounce.integration.interop.protocol.rest.v1.client
 
+import com.google.gson.JsonArray
 import com.google.gson.JsonObject
 import io.netty.handler.codec.http.FullHttpResponse
 import net.ccbluex.liquidbounce.LiquidBounce
@@ -74,6 +75,20 @@ fun getUpdateInfo(requestObject: RequestObject) = httpOk(JsonObject().apply {
     })
 })
 
+// GET /api/v1/client/startup
+@Suppress("UNUSED_PARAMETER")
+fun getStartupTimings(requestObject: RequestObject) = httpOk(JsonArray().apply {
+    for (timing in LiquidBounce.taskTimings) {
+        add(JsonObject().apply {
+            addProperty("name", timing.name)
+            addProperty("thread", timing.thread)
+            addProperty("start", timing.start)
+            addProperty("duration", timing.duration)
+            addProperty("error", timing.error)
+        })
+    }
+})
+
 // POST /api/v1/client/exit
 @Suppress("UNUSED_PARAMETER")
 fun postExit(requestObject: RequestObject): FullHttpResponse {
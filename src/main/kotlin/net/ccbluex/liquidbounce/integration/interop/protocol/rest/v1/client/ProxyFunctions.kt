@@ -70,6 +70,7 @@ fun getProxies(requestObject: RequestObject) = httpOk(JsonArray().apply {
     ProxyManager.proxies.forEachIndexed { index, proxy ->
         add(interopGson.toJsonTree(proxy).asJsonObject.apply {
             addProperty("id", index)
+            addProperty("score", proxy.health?.score ?: 0.0)
         })
     }
 })
@@ -164,6 +165,17 @@ fun postCheckProxy(requestObject: RequestObject): FullHttpResponse {
     return httpOk(JsonObject())
 }
 
+// POST /api/v1/client/proxies/check/all
+// Progress is streamed through the proxyHealthCheckProgress and proxyHealthCheckResult socket events
+@Suppress("UNUSED_PARAMETER")
+fun postCheckAllProxies(requestObject: RequestObject): FullHttpResponse {
+    if (!ProxyManager.checkAllProxies()) {
+        return httpForbidden("Health check is already running")
+    }
+
+    return httpOk(JsonObject())
+}
+
 // DELETE /api/v1/client/proxies/remove
 @Suppress("UNUSED_PARAMETER")
 fun deleteRemoveProxy(requestObject: RequestObject): FullHttpResponse {
@@ -23,13 +23,23 @@ package net.ccbluex.liquidbounce.integration.interop.protocol.rest.v1.game
 
 import com.google.gson.JsonArray
 import com.google.gson.JsonObject
+import io.netty.buffer.Unpooled
+import io.netty.handler.codec.http.DefaultFullHttpResponse
+import io.netty.handler.codec.http.FullHttpResponse
+import io.netty.handler.codec.http.HttpHeaderNames
+import io.netty.handler.codec.http.HttpResponseStatus
+import io.netty.handler.codec.http.HttpVersion
+import net.ccbluex.liquidbounce.event.EventListener
+import net.ccbluex.liquidbounce.event.events.ResourceReloadEvent
+import net.ccbluex.liquidbounce.event.events.WorldChangeEvent
+import net.ccbluex.liquidbounce.event.handler
 import net.ccbluex.liquidbounce.utils.client.convertToString
 import net.ccbluex.liquidbounce.utils.client.logger
 import net.ccbluex.liquidbounce.utils.client.mc
 import net.ccbluex.liquidbounce.utils.item.isNothing
 import net.ccbluex.netty.http.model.RequestObject
 import net.ccbluex.netty.http.util.httpForbidden
-import net.ccbluex.netty.http.util.httpOk
+import net.minecraft.client.world.ClientWorld
 import net.minecraft.item.BlockItem
 import net.minecraft.registry.DefaultedRegistry
 import net.minecraft.registry.Registries
@@ -38,6 +48,7 @@ import net.minecraft.registry.tag.ItemTags
 import net.minecraft.registry.tag.TagKey
 import net.minecraft.util.Identifier
 import net.minecraft.util.math.BlockPos
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.jvm.optionals.getOrNull
 
 val ACCEPTED_ITEM_TAGS
@@ -163,36 +174,107 @@ fun <T> constructMap(registry: DefaultedRegistry<T>, tagKeys: Array<TagKey<T>>):
 }
 
 // GET /api/v1/client/registries
-@Suppress("UNUSED_PARAMETER")
-fun getRegistries(requestObject: RequestObject) = httpOk(JsonObject().apply {
-    val parentMap = hashMapOf<Identifier, Identifier>()
+fun getRegistries(requestObject: RequestObject): FullHttpResponse {
     val world = mc.world ?: return httpForbidden("No world")
+    val snapshot = RegistrySnapshot.get(world)
 
-    Registries.BLOCK.forEach {
-        val pickStack = it.getPickStack(world, BlockPos.ORIGIN, it.defaultState, false)
-        val id = Registries.BLOCK.getId(it)
+    val ifNoneMatch = requestObject.headers.entries
+        .find { (name, _) -> name.equals(HttpHeaderNames.IF_NONE_MATCH.toString(), ignoreCase = true) }?.value
 
-        when (val item = pickStack.item) {
-            is BlockItem -> {
-                if (item.block != it) {
-                    parentMap[id] = Registries.BLOCK.getId(item.block)
-                }
-            }
-            else -> {
-                if (!pickStack.isNothing()) {
-                    logger.warn("Invalid pick stack for $id: $pickStack")
-                }
+    if (ifNoneMatch == snapshot.etag) {
+        return DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_MODIFIED).apply {
+            headers().set(HttpHeaderNames.ETAG, snapshot.etag)
+        }
+    }
+
+    return DefaultFullHttpResponse(
+        HttpVersion.HTTP_1_1,
+        HttpResponseStatus.OK,
+        Unpooled.wrappedBuffer(snapshot.content)
+    ).apply {
+        headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json")
+        headers().set(HttpHeaderNames.CONTENT_LENGTH, snapshot.content.size)
+        headers().set(HttpHeaderNames.ETAG, snapshot.etag)
+        headers().set(HttpHeaderNames.CACHE_CONTROL, "no-cache")
+    }
+}
+
+/**
+ * The registries only change when tags are (re-)synchronized, the world changes or resources (and with them
+ * the language) are reloaded. Until then, the serialized response is reused and tagged with an ETag,
+ * so the theme can revalidate it with `If-None-Match` instead of downloading it again.
+ */
+object RegistrySnapshot : EventListener {
+
+    class Snapshot(val version: Int, val content: ByteArray) {
+        val etag = "\"$version-${content.contentHashCode().toUInt().toString(16)}\""
+    }
+
+    private val version = AtomicInteger()
+
+    @Volatile
+    private var snapshot: Snapshot? = null
+
+    fun get(world: ClientWorld): Snapshot {
+        snapshot?.let { return it }
+
+        val version = version.get()
+        val content = buildRegistries(world).toString().toByteArray(Charsets.UTF_8)
+
+        return Snapshot(version, content).also { built ->
+            // Do not store a snapshot which has been invalidated while it was built
+            if (this.version.get() == version) {
+                snapshot = built
             }
         }
     }
 
+    /**
+     * Also called by the network handler once synchronized tags are applied on the main thread. Invalidating when
+     * the packet arrives would let a request in between cache a snapshot of the old tags.
+     */
+    fun invalidate() {
+        version.incrementAndGet()
+        snapshot = null
+    }
+
+    @Suppress("unused")
+    private val worldChangeHandler = handler<WorldChangeEvent> {
+        invalidate()
+    }
+
+    @Suppress("unused")
+    private val resourceReloadHandler = handler<ResourceReloadEvent> {
+        invalidate()
+    }
+
+}
+
+private fun buildRegistries(world: ClientWorld) = JsonObject().apply {
+    val parentMap = hashMapOf<Identifier, Identifier>()
+
     add("blocks", JsonArray().apply {
         Registries.BLOCK.forEach { block ->
-            val jsonObject = JsonObject().apply {
-                addProperty("identifier", Registries.BLOCK.getId(block).toString())
-                addProperty("name", block.name.convertToString())
+            val id = Registries.BLOCK.getId(block)
+            val pickStack = block.getPickStack(world, BlockPos.ORIGIN, block.defaultState, false)
+
+            when (val item = pickStack.item) {
+                is BlockItem -> {
+                    if (item.block != block) {
+                        parentMap[id] = Registries.BLOCK.getId(item.block)
+                    }
+                }
+                else -> {
+                    if (!pickStack.isNothing()) {
+                        logger.warn("Invalid pick stack for $id: $pickStack")
+                    }
+                }
             }
-            add(jsonObject)
+
+            add(JsonObject().apply {
+                addProperty("identifier", id.toString())
+                addProperty("name", block.name.convertToString())
+            })
         }
     })
     add("items", JsonArray().apply {
@@ -236,5 +318,4 @@ fun getRegistries(requestObject: RequestObject) = httpOk(JsonObject().apply {
             add(id.toString(), obj)
         }
     })
-})
-
+}
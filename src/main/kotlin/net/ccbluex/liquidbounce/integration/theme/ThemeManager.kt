@@ -282,7 +282,7 @@ class Theme(val name: String) : Closeable {
                 val component = componentType.createComponent()
 
                 runCatching {
-                    ConfigSystem.deserializeConfigurable(component, obj)
+                    ConfigSystem.deserializeConfigurable(component, obj, lenient = true)
                 }.onFailure {
                     logger.error("Failed to deserialize component $name", it)
                 }
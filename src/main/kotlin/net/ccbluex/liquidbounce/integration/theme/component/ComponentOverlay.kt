@@ -38,18 +38,32 @@ val customComponents: MutableList<Component> = mutableListOf(
 
 object ComponentOverlay : EventListener {
 
+    /**
+     * The first enabled component applying each [FeatureTweak], indexed by its ordinal.
+     *
+     * The HUD mixins query the tweaks several times per frame, so they are resolved once whenever the components
+     * are inserted or one of them changes (see [fireComponentsUpdate]) instead of on every query.
+     */
+    @Volatile
+    private var tweakComponents = arrayOfNulls<IntegratedComponent>(FeatureTweak.entries.size)
+
+    /**
+     * Whether the overlay is drawn at all, theme-driven HUD state should only be applied if it is
+     */
+    @JvmStatic
+    val isActive
+        get() = this.running && !HideAppearance.isHidingNow
+
     @JvmStatic
-    fun isTweakEnabled(tweak: FeatureTweak) = this.running && !HideAppearance.isHidingNow &&
-        components.filterIsInstance<IntegratedComponent>().any { it.enabled && it.tweaks.contains(tweak) }
+    fun isTweakEnabled(tweak: FeatureTweak) = getComponentWithTweak(tweak) != null
 
     @JvmStatic
     fun getComponentWithTweak(tweak: FeatureTweak): IntegratedComponent? {
-        if (!running || HideAppearance.isHidingNow) {
+        if (!isActive) {
             return null
         }
 
-        return components.filterIsInstance<IntegratedComponent>()
-            .find { it.enabled && it.tweaks.contains(tweak) }
+        return tweakComponents[tweak.ordinal]
     }
 
     fun insertComponents() {
@@ -58,11 +72,33 @@ object ComponentOverlay : EventListener {
         // todo: fix custom components being removed
         components.clear()
         components += componentList
+        updateTweaks()
 
         logger.info("Inserted ${components.size} components")
     }
 
-    fun fireComponentsUpdate() = EventManager.callEvent(ComponentsUpdate(components + customComponents))
+    fun fireComponentsUpdate() {
+        updateTweaks()
+        EventManager.callEvent(ComponentsUpdate(components + customComponents))
+    }
+
+    private fun updateTweaks() {
+        val tweakComponents = arrayOfNulls<IntegratedComponent>(FeatureTweak.entries.size)
+
+        for (component in components) {
+            if (component !is IntegratedComponent || !component.enabled) {
+                continue
+            }
+
+            for (tweak in component.tweaks) {
+                if (tweakComponents[tweak.ordinal] == null) {
+                    tweakComponents[tweak.ordinal] = component
+                }
+            }
+        }
+
+        this.tweakComponents = tweakComponents
+    }
 
     override fun parent() = ModuleHud
 
@@ -19,6 +19,13 @@ import java.util.concurrent.ConcurrentHashMap
 fun translation(key: String, vararg args: Any): MutableText =
     MutableText.of(LanguageText(key, args))
 
+/**
+ * Translates [key] straight into a string, without building a [Text] first.
+ *
+ * Prefer this over `translation(key).convertToString()` wherever the result is not displayed as a text component.
+ */
+fun translatedString(key: String, vararg args: Any): String = LanguageManager.translate(key, args)
+
 object LanguageManager : Configurable("lang") {
 
     // Current language
@@ -47,6 +54,12 @@ object LanguageManager : Configurable("lang") {
     )
     private val languageMap = ConcurrentHashMap<String, ClientLanguage>()
 
+    /**
+     * The language resolved for [languageIdentifier] the last time, only looked up again when the identifier changes
+     */
+    @Volatile
+    private var currentLanguage: Pair<String, ClientLanguage?>? = null
+
     /**
      * Load a specified language which are pre-defined in [knownLanguages] and stored in assets.
      * If a language is not found, it will be logged as error.
@@ -79,7 +92,29 @@ object LanguageManager : Configurable("lang") {
         loadLanguage(languageIdentifier)
     }
 
-    fun getLanguage() = loadLanguage(languageIdentifier) ?: loadLanguage(COMMON_UNDERSTOOD_LANGUAGE)
+    fun getLanguage(): ClientLanguage? {
+        val identifier = languageIdentifier
+        currentLanguage?.let { (cachedIdentifier, language) ->
+            if (cachedIdentifier == identifier) {
+                return language
+            }
+        }
+
+        val language = loadLanguage(identifier) ?: loadLanguage(COMMON_UNDERSTOOD_LANGUAGE)
+        // Don't remember failed loads, the language might just not be ready yet
+        if (language != null) {
+            currentLanguage = identifier to language
+        }
+        return language
+    }
+
+    /**
+     * Translates [key] with the current language, falling back to the common language and the key itself
+     */
+    fun translate(key: String, args: Array<out Any> = emptyArray()): String =
+        getLanguage()?.format(key, args)
+            ?: getCommonLanguage()?.format(key, args)
+            ?: key
 
     fun getCommonLanguage() = loadLanguage(COMMON_UNDERSTOOD_LANGUAGE)
 
@@ -88,10 +123,37 @@ object LanguageManager : Configurable("lang") {
 
 }
 
-class ClientLanguage(private val translations: Map<String, String>) : Language() {
+/**
+ * A loaded language file.
+ *
+ * Keys and translations are interned, translations with placeholders are compiled into a [TranslationFormat] when
+ * loading, so [format] never has to parse them again.
+ */
+class ClientLanguage(translations: Map<String, String>) : Language() {
+
+    private val translations = HashMap<String, String>(translations.size)
+    private val formats = HashMap<String, TranslationFormat>()
+
+    init {
+        for ((key, translation) in translations) {
+            val internedKey = key.intern()
+
+            this.translations[internedKey] = translation.intern()
+            TranslationFormat.compile(translation)?.let { format -> formats[internedKey] = format }
+        }
+    }
 
     private fun getTranslation(key: String) = translations[key]
 
+    /**
+     * Formats the translation of [key] with [args] like a [TranslatableTextContent] would,
+     * or returns `null` if this language has no translation for it.
+     */
+    fun format(key: String, args: Array<out Any?>): String? {
+        val translation = getTranslation(key) ?: return null
+        return formats[key]?.format(args) ?: translation
+    }
+
     /**
      * Get a translation for the given key.
      * If the translation is not found, the fallback will be used.
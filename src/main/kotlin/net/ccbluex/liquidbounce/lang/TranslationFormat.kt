@@ -0,0 +1,98 @@
+/*
+ * LiquidBounce Hacked Client
+ * A free open source mixin-based injection hacked client for Minecraft using Minecraft Forge.
+ * https://github.com/CCBlueX/LiquidBounce/
+ */
+package net.ccbluex.liquidbounce.lang
+
+import net.minecraft.text.Text
+
+/**
+ * A translation with its placeholders resolved ahead of time.
+ *
+ * Follows the rules of [net.minecraft.text.TranslatableTextContent]: `%s` takes the next argument, `%1$s` a fixed
+ * one and `%%` is a literal percent sign. If the translation can't be formatted, e.g. because of missing arguments or
+ * unsupported placeholders, the raw translation is used.
+ *
+ * @param literals the text between placeholders, always one more than [argumentIndices]
+ */
+class TranslationFormat private constructor(
+    private val raw: String,
+    private val literals: Array<String>,
+    private val argumentIndices: IntArray
+) {
+
+    fun format(args: Array<out Any?>): String {
+        if (argumentIndices.isEmpty()) {
+            return literals[0]
+        }
+
+        if (argumentIndices.any { index -> index !in args.indices }) {
+            return raw
+        }
+
+        val builder = StringBuilder(raw.length + args.size * 8)
+
+        for (i in argumentIndices.indices) {
+            builder.append(literals[i])
+
+            when (val arg = args[argumentIndices[i]]) {
+                is Text -> builder.append(arg.string)
+                else -> builder.append(arg)
+            }
+        }
+
+        return builder.append(literals.last()).toString()
+    }
+
+    companion object {
+
+        private val ARGUMENT_PATTERN = Regex("%(?:(\\d+)\\$)?([A-Za-z%]|$)")
+
+        /**
+         * @return the compiled format or `null` if [translation] doesn't need any formatting
+         */
+        fun compile(translation: String): TranslationFormat? {
+            if ('%' !in translation) {
+                return null
+            }
+
+            val literals = ArrayList<String>()
+            val argumentIndices = ArrayList<Int>()
+            val literal = StringBuilder()
+
+            var nextIndex = 0
+            var end = 0
+
+            for (match in ARGUMENT_PATTERN.findAll(translation)) {
+                literal.append(translation, end, match.range.first)
+                end = match.range.last + 1
+
+                val type = match.groupValues[2]
+
+                if (type == "%" && match.value == "%%") {
+                    literal.append('%')
+                    continue
+                }
+
+                if (type != "s") {
+                    // Minecraft shows the translation as is
+                    return TranslationFormat(translation, arrayOf(translation), IntArray(0))
+                }
+
+                val explicitIndex = match.groups[1]?.value
+                argumentIndices += if (explicitIndex != null) explicitIndex.toInt() - 1 else nextIndex++
+
+                literals += literal.toString()
+                literal.setLength(0)
+            }
+
+            literal.append(translation, end, translation.length)
+            literals += literal.toString()
+
+            return TranslationFormat(translation, literals.toTypedArray(), argumentIndices.toIntArray())
+        }
+
+    }
+
+}
@@ -98,9 +98,14 @@ object FontManager {
         )
     }
 
+    /**
+     * Queues all fonts of the folder. Fonts which are already known are skipped silently,
+     * so a folder can be queued again on every resource reload.
+     */
     internal fun queueFolder(path: File) {
         try {
             path.listFiles { file -> file.extension == "ttf" }
+                ?.filterNot(::isQueued)
                 ?.forEach(::queueFile)
         } catch (e: Exception) {
             throw IllegalStateException("Failed to load font from folder $path", e)
@@ -119,7 +124,7 @@ object FontManager {
                 return
             }
 
-            if (fontFaces.any { it.file == file }) {
+            if (isQueued(file)) {
                 logger.warn("Font file ${file.absolutePath} is already loaded.")
                 return
             }
@@ -139,6 +144,8 @@ object FontManager {
         }
     }
 
+    private fun isQueued(file: File) = fontFaces.any { it.file == file }
+
     private fun systemFont(name: String): FontFace {
         val fontFace = FontFace(name, DEFAULT_FONT_SIZE)
 
@@ -98,7 +98,18 @@ data class UV2s(val u: Short, val v: Short) {
 
 data class UV2f(val u: Float, val v: Float)
 
-data class Color4b(val r: Int, val g: Int, val b: Int, val a: Int) {
+/**
+ * An RGBA color packed into a single ARGB [Int].
+ *
+ * Being a value class, colors are passed around as plain ints and never allocate unless they are stored in a
+ * generic container (e.g. a [net.ccbluex.liquidbounce.config.types.Value]) or as nullable type.
+ * Channels are in the range `[0; 255]`, out of range values are clamped.
+ *
+ * The primary constructor takes the packed value and is private, because `Color4b(0xFF0000)` has always meant an
+ * opaque RGB color. Use `Color4b(argb, hasAlpha = true)` to wrap a packed ARGB value.
+ */
+@JvmInline
+value class Color4b private constructor(val argb: Int) {
 
     companion object {
 
@@ -134,12 +145,30 @@ data class Color4b(val r: Int, val g: Int, val b: Int, val a: Int) {
             }
         }
 
+        /**
+         * @see Color.HSBtoRGB
+         */
+        fun fromHSB(hue: Float, saturation: Float, brightness: Float, alpha: Int = 255) =
+            Color4b(Color.HSBtoRGB(hue, saturation, brightness)).alpha(alpha)
+
+        private fun pack(r: Int, g: Int, b: Int, a: Int) =
+            (a.coerceIn(0, 255) shl 24) or (r.coerceIn(0, 255) shl 16) or
+                (g.coerceIn(0, 255) shl 8) or b.coerceIn(0, 255)
+
+        private fun opaque(rgb: Int) = rgb or (0xFF shl 24)
+
     }
 
-    constructor(color: Color) : this(color.red, color.green, color.blue, color.alpha)
+    constructor(color: Color) : this(color.rgb)
+
+    constructor(hex: Int, hasAlpha: Boolean = false) : this(if (hasAlpha) hex else opaque(hex))
+    constructor(r: Int, g: Int, b: Int, a: Int) : this(pack(r, g, b, a))
+    constructor(r: Int, g: Int, b: Int) : this(pack(r, g, b, 255))
 
-    constructor(hex: Int, hasAlpha: Boolean = false) : this(Color(hex, hasAlpha))
-    constructor(r: Int, g: Int, b: Int) : this(r, g, b, 255)
+    val r get() = argb shr 16 and 0xFF
+    val g get() = argb shr 8 and 0xFF
+    val b get() = argb and 0xFF
+    val a get() = argb ushr 24
 
     fun writeToBuffer(idx: Int, buffer: ByteBuffer) {
         buffer.put(idx, r.toByte())
@@ -169,11 +198,11 @@ data class Color4b(val r: Int, val g: Int, val b: Int, val a: Int) {
 
     fun blue(blue: Int) = Color4b(this.r, this.g, blue, this.a)
 
-    fun alpha(alpha: Int) = Color4b(this.r, this.g, this.b, alpha)
+    fun alpha(alpha: Int) = Color4b(argb and 0xFFFFFF or (alpha.coerceIn(0, 255) shl 24))
 
-    fun toARGB() = (a shl 24) or (r shl 16) or (g shl 8) or b
+    fun toARGB() = argb
 
-    fun toABGR() = (a shl 24) or (b shl 16) or (g shl 8) or r
+    fun toABGR() = (argb and 0xFF00FF00.toInt()) or (r) or (b shl 16)
 
     fun fade(fade: Float): Color4b {
         return if (fade == 1f) {
@@ -187,8 +216,27 @@ data class Color4b(val r: Int, val g: Int, val b: Int, val a: Int) {
 
     private fun darkerChannel(value: Int) = (value * 0.7).toInt().coerceAtLeast(0)
 
+    /**
+     * Linearly interpolates every channel towards [other]
+     *
+     * @param percentageOther 0 returns this color, 1 returns [other]
+     */
+    fun interpolateTo(other: Color4b, percentageOther: Float) = Color4b(
+        (r + (other.r - r) * percentageOther).toInt(),
+        (g + (other.g - g) * percentageOther).toInt(),
+        (b + (other.b - b) * percentageOther).toInt(),
+        (a + (other.a - a) * percentageOther).toInt()
+    )
+
+    /**
+     * @see Color.RGBtoHSB
+     */
+    fun toHSB(hsbValues: FloatArray? = null): FloatArray = Color.RGBtoHSB(r, g, b, hsbValues)
+
     fun putToUniform(pointer: Int) {
         GL20.glUniform4f(pointer, r / 255f, g / 255f, b / 255f, a / 255f)
     }
 
+    override fun toString() = "Color4b(r=$r, g=$g, b=$b, a=$a)"
+
 }
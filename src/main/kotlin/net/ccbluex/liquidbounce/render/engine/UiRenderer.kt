@@ -7,28 +7,17 @@ import net.ccbluex.liquidbounce.event.EventManager.callEvent
 import net.ccbluex.liquidbounce.event.events.OverlayRenderEvent
 import net.ccbluex.liquidbounce.features.module.MinecraftShortcuts
 import net.ccbluex.liquidbounce.features.module.modules.render.ModuleHud.isBlurable
+import net.ccbluex.liquidbounce.render.shader.shaders.UiBlurShader
 import net.ccbluex.liquidbounce.render.ui.ItemImageAtlas
 import net.ccbluex.liquidbounce.utils.client.Chronometer
 import net.minecraft.client.gl.SimpleFramebuffer
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.client.gui.screen.ChatScreen
-import net.minecraft.client.render.DefaultFramebufferSet
 import net.minecraft.client.render.RenderPhase
-import net.minecraft.client.util.Pool
-import net.minecraft.util.Identifier
-import org.lwjgl.opengl.GL13
 import kotlin.math.sin
 
 object UiRenderer : MinecraftShortcuts {
 
-    /**
-     * UI Blur Post-Effect Processor
-     *
-     * @author superblaubeere27
-     */
-    private val BLUR = Identifier.of("liquidbounce", "ui_blur")
-    private val pool = Pool(3)
-
     private var isDrawingHudFramebuffer = false
 
     private val overlayFramebuffer by lazy {
@@ -116,30 +105,20 @@ object UiRenderer : MinecraftShortcuts {
         RenderSystem.defaultBlendFunc()
     }
 
+    /**
+     * Blurs the scene behind everything drawn to the overlay framebuffer.
+     *
+     * @author superblaubeere27
+     */
     fun blur() {
-        RenderSystem.disableBlend()
-//        RenderSystem.disableDepthTest()
-//        RenderSystem.resetTextureMatrix()
-
-        val overlayFramebuffer = overlayFramebuffer
-
-        val postEffectProcessor = mc.shaderLoader.loadPostEffect(BLUR, DefaultFramebufferSet.MAIN_ONLY)!!
-
-        val active = GlStateManager._getActiveTexture()
-        GlStateManager._activeTexture(GL13.GL_TEXTURE9)
-        GlStateManager._bindTexture(overlayFramebuffer.colorAttachment)
-        postEffectProcessor.passes.first().program.getUniform("Overlay")!!.set(9)
-        GlStateManager._activeTexture(active)
-
-        postEffectProcessor.passes.first().program.getUniform("Radius")!!.set(getBlurRadius())
-
-        postEffectProcessor.render(mc.framebuffer, pool)
+        UiBlurShader.apply(mc.framebuffer, overlayFramebuffer, getBlurRadius())
 
         mc.framebuffer.beginWrite(true)
     }
 
     fun setupDimensions(width: Int, height: Int) {
         this.overlayFramebuffer.resize(width, height)
+        UiBlurShader.resize(width, height)
     }
 
 }
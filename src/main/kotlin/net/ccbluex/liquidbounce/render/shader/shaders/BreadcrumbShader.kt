@@ -0,0 +1,81 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.render.shader.shaders
+
+import com.mojang.blaze3d.systems.RenderSystem
+import net.ccbluex.liquidbounce.render.engine.Color4b
+import net.ccbluex.liquidbounce.render.shader.Shader
+import net.ccbluex.liquidbounce.render.shader.UniformProvider
+import net.ccbluex.liquidbounce.utils.io.resourceToString
+import org.joml.Matrix4f
+import org.lwjgl.opengl.GL20
+import org.lwjgl.system.MemoryUtil
+
+object BreadcrumbShaderData {
+    val modelViewMatrix = Matrix4f()
+    var color = Color4b.WHITE
+    var height = 0f
+
+    /**
+     * Current time in milliseconds, relative to the epoch the trail times are stored relative to
+     */
+    var time = 0f
+
+    /**
+     * Lifetime of a point in milliseconds, zero if points do not fade
+     */
+    var alive = 0f
+}
+
+private val MATRIX_BUFFER = MemoryUtil.memAllocFloat(16)
+
+private fun putMatrix(pointer: Int, matrix: Matrix4f) {
+    MATRIX_BUFFER.position(0)
+    matrix.get(MATRIX_BUFFER)
+    GL20.glUniformMatrix4fv(pointer, false, MATRIX_BUFFER)
+}
+
+/**
+ * Draws breadcrumb trails straight from their vertex buffers.
+ *
+ * The per-trail offset to the camera is set through [setOffset] between the draw calls.
+ */
+object BreadcrumbShader : Shader(
+    resourceToString("/assets/liquidbounce/shaders/breadcrumbs/trail.vert"),
+    resourceToString("/assets/liquidbounce/shaders/breadcrumbs/trail.frag"),
+    arrayOf(
+        UniformProvider("projMat") { pointer -> putMatrix(pointer, RenderSystem.getProjectionMatrix()) },
+        UniformProvider("mvMat") { pointer -> putMatrix(pointer, BreadcrumbShaderData.modelViewMatrix) },
+        UniformProvider("color") { pointer -> BreadcrumbShaderData.color.putToUniform(pointer) },
+        UniformProvider("height") { pointer -> GL20.glUniform1f(pointer, BreadcrumbShaderData.height) },
+        UniformProvider("time") { pointer -> GL20.glUniform1f(pointer, BreadcrumbShaderData.time) },
+        UniformProvider("alive") { pointer -> GL20.glUniform1f(pointer, BreadcrumbShaderData.alive) }
+    )
+) {
+
+    private val offsetLocation by lazy { GL20.glGetUniformLocation(program, "offset") }
+
+    /**
+     * Sets the offset of the trail origin to the camera, has to be called while the shader is in use
+     */
+    fun setOffset(x: Float, y: Float, z: Float) {
+        GL20.glUniform3f(offsetLocation, x, y, z)
+    }
+
+}
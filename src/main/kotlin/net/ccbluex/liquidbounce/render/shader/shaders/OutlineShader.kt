@@ -59,6 +59,7 @@ object OutlineShader : FramebufferShader(Shader(
         dirty = false
     }
 
+    @JvmName("setColor")
     fun setColor(color4b: Color4b) {
         vertexConsumerProvider.setColor(color4b.r, color4b.g, color4b.b, color4b.a)
     }
@@ -0,0 +1,203 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.render.shader.shaders
+
+import com.mojang.blaze3d.platform.GlStateManager
+import com.mojang.blaze3d.systems.RenderSystem
+import net.ccbluex.liquidbounce.features.module.MinecraftShortcuts
+import net.ccbluex.liquidbounce.render.shader.Shader
+import net.ccbluex.liquidbounce.render.shader.UniformProvider
+import net.ccbluex.liquidbounce.utils.io.resourceToString
+import net.minecraft.client.gl.Framebuffer
+import net.minecraft.client.gl.GlUsage
+import net.minecraft.client.gl.SimpleFramebuffer
+import net.minecraft.client.gl.VertexBuffer
+import net.minecraft.client.render.Tessellator
+import net.minecraft.client.render.VertexFormat
+import net.minecraft.client.render.VertexFormats
+import org.lwjgl.opengl.GL11
+import org.lwjgl.opengl.GL13
+import org.lwjgl.opengl.GL20
+import java.io.Closeable
+
+/**
+ * Dual filter blur used behind the UI overlay.
+ *
+ * The scene is downsampled through a chain of half resolution framebuffers and upsampled again,
+ * each pass taking a fixed number of bilinear samples. The blur strength only changes the sample offsets,
+ * so the cost stays the same for every radius and is dominated by the first half resolution pass.
+ */
+object UiBlurShader : MinecraftShortcuts, Closeable {
+
+    /**
+     * Amount of downsample passes, the smallest framebuffer is 1/2^[LEVELS] of the screen size
+     */
+    private const val LEVELS = 3
+
+    private var halfTexelX = 0f
+    private var halfTexelY = 0f
+    private var offset = 1f
+
+    private val passUniforms
+        get() = arrayOf(
+            UniformProvider("texture0") { pointer -> GL20.glUniform1i(pointer, 0) },
+            UniformProvider("halfTexel") { pointer -> GL20.glUniform2f(pointer, halfTexelX, halfTexelY) },
+            UniformProvider("offset") { pointer -> GL20.glUniform1f(pointer, offset) }
+        )
+
+    private val downShader = Shader(
+        resourceToString("/assets/liquidbounce/shaders/position_tex.vert"),
+        resourceToString("/assets/liquidbounce/shaders/blur/dual_down.frag"),
+        passUniforms
+    )
+
+    private val upShader = Shader(
+        resourceToString("/assets/liquidbounce/shaders/position_tex.vert"),
+        resourceToString("/assets/liquidbounce/shaders/blur/dual_up.frag"),
+        passUniforms
+    )
+
+    private val compositeShader = Shader(
+        resourceToString("/assets/liquidbounce/shaders/position_tex.vert"),
+        resourceToString("/assets/liquidbounce/shaders/blur/ui_blur_composite.frag"),
+        arrayOf(
+            UniformProvider("texture0") { pointer -> GL20.glUniform1i(pointer, 0) },
+            UniformProvider("overlay") { pointer -> GL20.glUniform1i(pointer, 1) }
+        )
+    )
+
+    /**
+     * Index 0 is half the screen size, every following level halves it again
+     */
+    private val levels = Array(LEVELS) { level ->
+        val framebuffer = SimpleFramebuffer(
+            levelSize(mc.window.framebufferWidth, level),
+            levelSize(mc.window.framebufferHeight, level),
+            false
+        )
+
+        framebuffer.setTexFilter(GL11.GL_LINEAR)
+        framebuffer.setClearColor(0f, 0f, 0f, 0f)
+        framebuffer
+    }
+
+    private val buffer = VertexBuffer(GlUsage.STATIC_WRITE)
+
+    init {
+        val bufferBuilder = Tessellator.getInstance()
+            .begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE)
+        bufferBuilder.vertex(-1f, -1f, 0f).texture(0f, 0f)
+        bufferBuilder.vertex(1f, -1f, 0f).texture(1f, 0f)
+        bufferBuilder.vertex(1f, 1f, 0f).texture(1f, 1f)
+        bufferBuilder.vertex(-1f, 1f, 0f).texture(0f, 1f)
+        buffer.bind()
+        buffer.upload(bufferBuilder.end())
+        VertexBuffer.unbind()
+    }
+
+    private fun levelSize(size: Int, level: Int) = (size shr (level + 1)).coerceAtLeast(1)
+
+    fun resize(width: Int, height: Int) {
+        levels.forEachIndexed { level, framebuffer ->
+            val levelWidth = levelSize(width, level)
+            val levelHeight = levelSize(height, level)
+
+            if (framebuffer.textureWidth != levelWidth || framebuffer.textureHeight != levelHeight) {
+                framebuffer.resize(levelWidth, levelHeight)
+            }
+        }
+    }
+
+    /**
+     * Blurs [source] and blends the result back onto it wherever [mask] has been drawn.
+     *
+     * @param radius blur radius in screen pixels
+     */
+    fun apply(source: Framebuffer, mask: Framebuffer, radius: Float) {
+        resize(source.textureWidth, source.textureHeight)
+
+        val active = GlStateManager._getActiveTexture()
+
+        RenderSystem.disableBlend()
+        RenderSystem.disableDepthTest()
+
+        // Every level doubles the screen distance covered by an offset, so the radius is spread across the chain
+        offset = radius / (1 shl LEVELS)
+
+        buffer.bind()
+
+        var input: Framebuffer = source
+        for (framebuffer in levels) {
+            pass(downShader, input, framebuffer)
+            input = framebuffer
+        }
+
+        for (level in LEVELS - 2 downTo 0) {
+            pass(upShader, input, levels[level])
+            input = levels[level]
+        }
+
+        RenderSystem.enableBlend()
+        RenderSystem.blendFuncSeparate(
+            GlStateManager.SrcFactor.SRC_ALPHA,
+            GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA,
+            GlStateManager.SrcFactor.ZERO,
+            GlStateManager.DstFactor.ONE
+        )
+
+        source.beginWrite(true)
+        GlStateManager._activeTexture(GL13.GL_TEXTURE1)
+        GlStateManager._bindTexture(mask.colorAttachment)
+        GlStateManager._activeTexture(GL13.GL_TEXTURE0)
+        GlStateManager._bindTexture(input.colorAttachment)
+
+        compositeShader.use()
+        buffer.draw()
+        compositeShader.stop()
+
+        VertexBuffer.unbind()
+
+        RenderSystem.defaultBlendFunc()
+        RenderSystem.disableBlend()
+        RenderSystem.enableDepthTest()
+        GlStateManager._activeTexture(active)
+    }
+
+    private fun pass(shader: Shader, input: Framebuffer, output: Framebuffer) {
+        halfTexelX = 0.5f / output.textureWidth
+        halfTexelY = 0.5f / output.textureHeight
+
+        output.beginWrite(true)
+        GlStateManager._activeTexture(GL13.GL_TEXTURE0)
+        GlStateManager._bindTexture(input.colorAttachment)
+
+        shader.use()
+        buffer.draw()
+        shader.stop()
+    }
+
+    override fun close() {
+        downShader.close()
+        upShader.close()
+        compositeShader.close()
+        buffer.close()
+        levels.forEach { it.delete() }
+    }
+
+}
@@ -19,7 +19,6 @@
 package net.ccbluex.liquidbounce.render.utils
 
 import net.ccbluex.liquidbounce.render.engine.Color4b
-import java.awt.Color
 
 object ColorUtils {
     @JvmField
@@ -39,34 +38,23 @@ object ColorUtils {
 }
 
 fun rainbow(): Color4b {
-    val currentColor = Color(Color.HSBtoRGB((System.nanoTime().toDouble() / 10_000_000_000.0).toFloat() % 1.0F, 1F, 1F))
-
-    return Color4b(currentColor)
+    return Color4b.fromHSB((System.nanoTime().toDouble() / 10_000_000_000.0).toFloat() % 1.0F, 1F, 1F)
 }
 
 fun shiftHue(color4b: Color4b, shift: Int): Color4b {
-    val hsb = Color.RGBtoHSB(color4b.r, color4b.g, color4b.b, null)
-    val shiftedColor = Color(Color.HSBtoRGB((hsb[0] + shift.toFloat() / 360) % 1F, hsb[1], hsb[2]))
+    val hsb = color4b.toHSB()
 
-    return Color4b(shiftedColor).alpha(color4b.a)
+    return Color4b.fromHSB((hsb[0] + shift.toFloat() / 360) % 1F, hsb[1], hsb[2], color4b.a)
 }
 
 fun interpolateHue(primaryColor: Color4b, otherColor: Color4b, percentageOther: Float): Color4b {
-    val hsb1 = FloatArray(3)
-    val hsb2 = FloatArray(3)
-    Color.RGBtoHSB(primaryColor.r,primaryColor.g, primaryColor.b, hsb1)
-    Color.RGBtoHSB(otherColor.r, otherColor.g, otherColor.b, hsb2)
+    val hsb1 = primaryColor.toHSB()
+    val hsb2 = otherColor.toHSB()
 
     val h = hsb1[0] + (hsb2[0] - hsb1[0]) * percentageOther
     val s = hsb1[1] + (hsb2[1] - hsb1[1]) * percentageOther
     val v = hsb1[2] + (hsb2[2] - hsb1[2]) * percentageOther
     val alpha = primaryColor.a + (otherColor.a - primaryColor.a) * percentageOther
 
-    val rgb = Color.HSBtoRGB(h, s, v)
-    return Color4b(
-        (rgb shr 16) and 0xFF,
-        (rgb shr 8) and 0xFF,
-        rgb and 0xFF,
-        alpha.toInt()
-    )
+    return Color4b.fromHSB(h, s, v, alpha.toInt())
 }
@@ -18,12 +18,36 @@
  */
 package net.ccbluex.liquidbounce.script.bindings.api
 
-import net.ccbluex.liquidbounce.utils.kotlin.mapArray
 import net.ccbluex.liquidbounce.utils.mappings.EnvironmentRemapper
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.AccessibleObject
+import java.lang.reflect.Executable
+import java.lang.reflect.Field
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
 
+/**
+ * Reflection helpers for scripts.
+ *
+ * Members are resolved once per class, name and argument types, including overload resolution and remapping,
+ * and cached as [MethodHandle]. Repeated calls from script handlers are a hash lookup and a direct invoke.
+ */
 @Suppress("SpreadOperator", "unused")
 object ScriptReflectionUtil {
 
+    private val lookup = MethodHandles.lookup()
+
+    private val handles = ConcurrentHashMap<MemberKey, CachedHandle>()
+
+    /**
+     * Amount of resolved members, including unresolvable ones
+     */
+    internal val cachedMembers: Int
+        get() = handles.size
+
     @JvmName("classByName")
     fun classByName(name: String): Class<*> = Class.forName(
         EnvironmentRemapper.remapClassName(name).replace('/', '.')
@@ -34,55 +58,145 @@ object ScriptReflectionUtil {
 
     @JvmName("newInstance")
     fun newInstance(clazz: Class<*>, vararg args: Any?): Any? =
-        clazz.getDeclaredConstructor(*args.mapArray { it!!::class.java }).apply {
-            isAccessible = true
-        }.newInstance(*args)
+        constructorHandle(clazz, args).invokeExact(args)
 
     @JvmName("newInstanceByName")
     fun newInstanceByName(name: String, vararg args: Any?): Any? =
-        Class.forName(EnvironmentRemapper.remapClassName(name).replace('/', '.'))
-            .getDeclaredConstructor(*args.mapArray { it!!::class.java }).apply {
-                isAccessible = true
-            }.newInstance(*args)
+        constructorHandle(classByName(name), args).invokeExact(args)
 
     @JvmName("newInstanceByObject")
     fun newInstanceByObject(obj: Any, vararg args: Any?): Any? =
-        obj::class.java.getDeclaredConstructor(*args.mapArray { it!!::class.java }).apply {
-            isAccessible = true
-        }.newInstance(*args)
+        constructorHandle(obj::class.java, args).invokeExact(args)
 
     @JvmName("getField")
-    fun getField(obj: Any, name: String): Any? = obj::class.java.fields
-        .find { field ->
-            field.name == EnvironmentRemapper.remapField(obj::class.java, name)
-        }?.apply {
-            isAccessible = true
-        }?.get(obj)
+    fun getField(obj: Any, name: String): Any? {
+        val clazz = obj::class.java
+        val handle = cached(MemberKey(MemberKind.FIELD, clazz, name)) {
+            clazz.fields.find { field -> field.hasName(name) }?.let { field ->
+                if (Modifier.isStatic(field.modifiers)) {
+                    // Static fields can be accessed through an instance as well
+                    MethodHandles.dropArguments(lookup.unreflectGetter(field.accessible()), 0, Any::class.java)
+                } else {
+                    lookup.unreflectGetter(field.accessible())
+                }.asType(INSTANCE_GETTER)
+            }
+        } ?: return null
+
+        return handle.invokeExact(obj)
+    }
 
     @JvmName("getDeclaredField")
-    fun getDeclaredField(clazz: Class<*>, name: String): Any? = clazz.declaredFields
-        .find { field ->
-            field.name == EnvironmentRemapper.remapField(clazz, name)
-        }?.apply {
-            isAccessible = true
-        }?.get(null)
+    fun getDeclaredField(clazz: Class<*>, name: String): Any? {
+        val handle = cached(MemberKey(MemberKind.STATIC_FIELD, clazz, name)) {
+            clazz.declaredFields.find { field -> field.hasName(name) }?.let { field ->
+                lookup.unreflectGetter(field.accessible()).asType(STATIC_GETTER)
+            }
+        } ?: return null
+
+        return handle.invokeExact()
+    }
 
     @JvmName("invokeMethod")
-    fun invokeMethod(obj: Any, name: String, vararg args: Any?): Any? =
-        obj::class.java.methods.find { method ->
-            method.name == EnvironmentRemapper.remapMethod(obj::class.java, name) &&
-                method.parameterTypes.contentEquals(args.mapArray { it!!::class.java })
-        }?.apply {
-            isAccessible = true
-        }?.invoke(obj, *args)
+    fun invokeMethod(obj: Any, name: String, vararg args: Any?): Any? {
+        val clazz = obj::class.java
+        val handle = cached(MemberKey(MemberKind.METHOD, clazz, name, argumentTypes(args))) {
+            resolveOverload(clazz.methods.filter { method -> method.hasName(name) }, args)?.let { method ->
+                var handle = lookup.unreflect(method.accessible())
+
+                if (Modifier.isStatic(method.modifiers)) {
+                    handle = MethodHandles.dropArguments(handle, 0, Any::class.java)
+                }
+
+                handle.asSpreader(Array<Any?>::class.java, args.size).asType(INSTANCE_INVOKER)
+            }
+        } ?: return null
+
+        return handle.invokeExact(obj, args)
+    }
 
     @JvmName("invokeDeclaredMethod")
-    fun invokeDeclaredMethod(clazz: Class<*>, name: String, vararg args: Any?): Any? =
-        clazz.declaredMethods.find { method ->
-            method.name == EnvironmentRemapper.remapMethod(clazz, name) &&
-                method.parameterTypes.contentEquals(args.mapArray { it!!::class.java })
-        }?.apply {
-            isAccessible = true
-        }?.invoke(null, *args)
+    fun invokeDeclaredMethod(clazz: Class<*>, name: String, vararg args: Any?): Any? {
+        val handle = cached(MemberKey(MemberKind.STATIC_METHOD, clazz, name, argumentTypes(args))) {
+            resolveOverload(clazz.declaredMethods.filter { method -> method.hasName(name) }, args)?.let { method ->
+                lookup.unreflect(method.accessible())
+                    .asSpreader(Array<Any?>::class.java, args.size)
+                    .asType(STATIC_INVOKER)
+            }
+        } ?: return null
+
+        return handle.invokeExact(args)
+    }
+
+    private fun constructorHandle(clazz: Class<*>, args: Array<out Any?>): MethodHandle {
+        val argumentTypes = argumentTypes(args)
+
+        return cached(MemberKey(MemberKind.CONSTRUCTOR, clazz, "<init>", argumentTypes)) {
+            resolveOverload(clazz.declaredConstructors.asList(), args)?.let { constructor ->
+                lookup.unreflectConstructor(constructor.accessible())
+                    .asSpreader(Array<Any?>::class.java, args.size)
+                    .asType(STATIC_INVOKER)
+            }
+        } ?: throw NoSuchMethodException(
+            "${clazz.name}.<init>(${argumentTypes.joinToString { it?.name ?: "null" }})"
+        )
+    }
+
+    private inline fun cached(key: MemberKey, resolve: () -> MethodHandle?): MethodHandle? =
+        handles.getOrPut(key) { CachedHandle(resolve()) }.handle
+
+    private fun argumentTypes(args: Array<out Any?>): List<Class<*>?> = args.map { it?.javaClass }
+
+    /**
+     * Prefers an exact match of the parameter types, otherwise the first overload
+     * accepting the arguments with (un)boxing and subtypes.
+     */
+    private fun <T : Executable> resolveOverload(candidates: List<T>, args: Array<out Any?>): T? {
+        val applicable = candidates.filter { it.parameterCount == args.size }
+
+        return applicable.find { executable ->
+            executable.parameterTypes.withIndex().all { (idx, type) -> type == args[idx]?.javaClass }
+        } ?: applicable.find { executable ->
+            executable.parameterTypes.withIndex().all { (idx, type) -> type.accepts(args[idx]) }
+        }
+    }
+
+    private fun Class<*>.accepts(arg: Any?) = if (arg == null) {
+        !isPrimitive
+    } else {
+        kotlin.javaObjectType.isInstance(arg)
+    }
+
+    private fun <T : AccessibleObject> T.accessible() = apply { isAccessible = true }
+
+    /**
+     * Matches [name] against the runtime name and the named (remapped) name of the member.
+     * Each lookup is a hash lookup, so this is cheap enough to be done for every member.
+     */
+    private fun Field.hasName(name: String) =
+        this.name == name || EnvironmentRemapper.remapField(declaringClass, this.name) == name
+
+    private fun Method.hasName(name: String) =
+        this.name == name || EnvironmentRemapper.remapMethod(declaringClass, this.name) == name
+
+    private enum class MemberKind {
+        FIELD, STATIC_FIELD, METHOD, STATIC_METHOD, CONSTRUCTOR
+    }
+
+    private data class MemberKey(
+        val kind: MemberKind,
+        val clazz: Class<*>,
+        val name: String,
+        val argumentTypes: List<Class<*>?> = emptyList()
+    )
+
+    /**
+     * Unresolvable members are cached as well, [handle] is `null` in that case
+     */
+    private class CachedHandle(val handle: MethodHandle?)
+
+    private val INSTANCE_GETTER = MethodType.methodType(Any::class.java, Any::class.java)
+    private val STATIC_GETTER = MethodType.methodType(Any::class.java)
+    private val INSTANCE_INVOKER = MethodType.methodType(Any::class.java, Any::class.java, Array<Any?>::class.java)
+    private val STATIC_INVOKER = MethodType.methodType(Any::class.java, Array<Any?>::class.java)
 
 }
@@ -20,16 +20,15 @@ package net.ccbluex.liquidbounce.utils.block
 
 import net.minecraft.block.BlockState
 import net.minecraft.util.math.BlockPos
-import java.util.concurrent.ConcurrentSkipListMap
 
 /**
  * Tracks locations of specific blocks in the world
  *
  * @param T state type
  */
-abstract class AbstractBlockLocationTracker<T> : ChunkScanner.BlockChangeSubscriber {
+abstract class AbstractBlockLocationTracker<T : Any> : ChunkScanner.BlockChangeSubscriber {
 
-    val trackedBlockMap = ConcurrentSkipListMap<BlockPos, T>()
+    val trackedBlockMap = ChunkedBlockMap<T>()
 
     /**
      * Implementations of this method must be thread-safe
@@ -47,12 +46,11 @@ abstract class AbstractBlockLocationTracker<T> : ChunkScanner.BlockChangeSubscri
             return
         }
 
-        val targetBlockPos = if (pos is BlockPos.Mutable) pos.toImmutable() else pos
-        this.trackedBlockMap[targetBlockPos] = newState
+        this.trackedBlockMap[pos] = newState
     }
 
     override fun clearChunk(x: Int, z: Int) {
-        this.trackedBlockMap.entries.removeIf { (key, _) -> key.x shr 4 == x && key.z shr 4 == z }
+        this.trackedBlockMap.clearChunk(x, z)
     }
 
     override fun clearAllChunks() {
@@ -30,7 +30,6 @@ import net.ccbluex.liquidbounce.event.events.BlockBreakingProgressEvent
 import net.ccbluex.liquidbounce.render.FULL_BOX
 import net.ccbluex.liquidbounce.utils.client.*
 import net.ccbluex.liquidbounce.utils.entity.eyes
-import net.ccbluex.liquidbounce.utils.kotlin.mapArray
 import net.ccbluex.liquidbounce.utils.math.rangeTo
 import net.minecraft.block.*
 import net.minecraft.entity.Entity
@@ -148,6 +147,40 @@ fun Vec3d.searchBlocksInCuboid(radius: Float): Region {
     return from..to
 }
 
+/**
+ * Calls [action] for every loaded block in the cuboid of [searchBlocksInCuboid], closest to the position first.
+ *
+ * The position is reused between calls, use [BlockPos.toImmutable] to keep it.
+ */
+inline fun Vec3d.forEachBlockInCuboid(radius: Float, action: (BlockPos.Mutable, BlockState) -> Unit) {
+    val world = mc.world ?: return
+
+    val minX = floor(x - radius).toInt()
+    val minY = floor(y - radius).toInt()
+    val minZ = floor(z - radius).toInt()
+    val maxX = ceil(x + radius).toInt()
+    val maxY = ceil(y + radius).toInt()
+    val maxZ = ceil(z + radius).toInt()
+
+    val originX = floor(x).toInt()
+    val originY = floor(y).toInt()
+    val originZ = floor(z).toInt()
+
+    // The cuboid reaches one block further on the positive side when the position is not block aligned
+    val table = BlockOffsetTable.cuboid(MathHelper.ceil(radius) + 1)
+    val mutable = BlockPos.Mutable()
+
+    for (index in 0 until table.size) {
+        val pos = table.positionAt(index, originX, originY, originZ, mutable)
+
+        if (pos.x !in minX..maxX || pos.y !in minY..maxY || pos.z !in minZ..maxZ) {
+            continue
+        }
+
+        action(pos, world.getBlockState(pos))
+    }
+}
+
 /**
  * Scan blocks around the position in a cuboid with filtering.
  */
@@ -155,11 +188,9 @@ inline fun Vec3d.searchBlocksInCuboid(
     radius: Float,
     crossinline filter: (BlockPos, BlockState) -> Boolean
 ): Sequence<Pair<BlockPos, BlockState>> = sequence {
-    searchBlocksInCuboid(radius).forEach {
-        val state = it.getState() ?: return@forEach
-
-        if (filter(it, state)) {
-            yield(Pair(it.toImmutable(), state))
+    forEachBlockInCuboid(radius) { pos, state ->
+        if (filter(pos, state)) {
+            yield(Pair(pos.toImmutable(), state))
         }
     }
 }
@@ -172,15 +203,10 @@ inline fun Vec3d.searchBlocksInRadius(
     crossinline filter: (BlockPos, BlockState) -> Boolean,
 ): Sequence<Pair<BlockPos, BlockState>> = sequence {
     val radiusSquared = (radius * radius).toDouble()
-    searchBlocksInCuboid(radius).forEach {
-        val state = it.getState() ?: return@forEach
 
-        if (it.getSquaredDistance(this@searchBlocksInRadius) > radiusSquared) {
-            return@forEach
-        }
-
-        if (filter(it, state)) {
-            yield(Pair(it.toImmutable(), state))
+    forEachBlockInCuboid(radius) { pos, state ->
+        if (pos.getSquaredDistance(this@searchBlocksInRadius) <= radiusSquared && filter(pos, state)) {
+            yield(Pair(pos.toImmutable(), state))
         }
     }
 }
@@ -265,18 +291,21 @@ fun BlockPos.searchLayer(layers: Int, vararg directions: Direction): Sequence<In
  * **Squared Distance** to **BlockPos**
  */
 fun BlockPos.getSphere(radius: Float): Sequence<DoubleObjectPair<BlockPos>> = sequence {
-    val radiusSq = radius * radius
+    val table = BlockOffsetTable.sphere(radius)
+    val mutable = BlockPos.Mutable()
 
-    searchBlocksInCuboid(MathHelper.ceil(radius)).forEach {
-        val distanceSq = getSquaredDistance(it)
-        if (distanceSq <= radiusSq) {
-            yield(DoubleObjectPair.of(distanceSq, it.toImmutable()))
-        }
+    for (index in 0 until table.size) {
+        val pos = table.positionAt(index, x, y, z, mutable).toImmutable()
+        yield(DoubleObjectPair.of(table.squaredDistance(index).toDouble(), pos))
     }
 }
 
 fun BlockPos.getSortedSphere(radius: Float): Array<BlockPos> {
-    return getSphere(radius).toList().sortedBy { it.firstDouble() }.mapArray { it.second() }
+    // The table is already sorted by distance
+    val table = BlockOffsetTable.sphere(radius)
+    val mutable = BlockPos.Mutable()
+
+    return Array(table.size) { index -> table.positionAt(index, x, y, z, mutable).toImmutable() }
 }
 
 /**
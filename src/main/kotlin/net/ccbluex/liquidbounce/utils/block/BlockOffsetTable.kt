@@ -0,0 +1,126 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.block
+
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.MathHelper
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Block offsets of a shape around an origin, sorted by their squared distance to the origin (closest first).
+ * Offsets with the same distance keep the order of [BlockPos.iterate].
+ *
+ * Tables are immutable and shared, so searching the same shape every tick neither allocates nor sorts again.
+ */
+class BlockOffsetTable private constructor(
+    /**
+     * x, y, z of each offset
+     */
+    private val offsets: IntArray,
+    private val squaredDistances: IntArray
+) {
+
+    val size: Int
+        get() = squaredDistances.size
+
+    fun squaredDistance(index: Int) = squaredDistances[index]
+
+    /**
+     * Sets [mutable] to the position of the offset at [index] relative to [originX], [originY], [originZ]
+     */
+    fun positionAt(index: Int, originX: Int, originY: Int, originZ: Int, mutable: BlockPos.Mutable): BlockPos.Mutable {
+        val base = index * 3
+        return mutable.set(originX + offsets[base], originY + offsets[base + 1], originZ + offsets[base + 2])
+    }
+
+    /**
+     * Calls [action] for every offset applied to [origin], closest first. The position is reused between calls.
+     */
+    inline fun forEach(origin: BlockPos, action: (BlockPos.Mutable) -> Unit) {
+        val mutable = BlockPos.Mutable()
+
+        for (index in 0 until size) {
+            action(positionAt(index, origin.x, origin.y, origin.z, mutable))
+        }
+    }
+
+    companion object {
+
+        private val spheres = ConcurrentHashMap<Int, BlockOffsetTable>()
+        private val cuboids = ConcurrentHashMap<Int, BlockOffsetTable>()
+
+        /**
+         * All offsets whose squared distance is at most `radius * radius`
+         */
+        fun sphere(radius: Float): BlockOffsetTable {
+            // Squared distances between blocks are whole numbers, so radii with the same floor share a table
+            val maxSquaredDistance = MathHelper.floor((radius * radius).toDouble())
+
+            return spheres.computeIfAbsent(maxSquaredDistance) {
+                create(MathHelper.ceil(radius)) { squaredDistance -> squaredDistance <= maxSquaredDistance }
+            }
+        }
+
+        /**
+         * All offsets from `-radius` to `radius` on every axis
+         */
+        fun cuboid(radius: Int): BlockOffsetTable {
+            return cuboids.computeIfAbsent(radius) { create(radius) { true } }
+        }
+
+        private inline fun create(radius: Int, filter: (Int) -> Boolean): BlockOffsetTable {
+            require(radius in 0..MAX_RADIUS) { "Radius $radius is out of range" }
+
+            val side = radius * 2 + 1
+            val entries = ArrayList<IntArray>(side * side * side)
+
+            // Same order as BlockPos.iterate, x changes fastest
+            for (z in -radius..radius) {
+                for (y in -radius..radius) {
+                    for (x in -radius..radius) {
+                        val squaredDistance = x * x + y * y + z * z
+
+                        if (filter(squaredDistance)) {
+                            entries += intArrayOf(x, y, z, squaredDistance)
+                        }
+                    }
+                }
+            }
+
+            // Stable, keeps the iteration order for equal distances
+            entries.sortBy { it[3] }
+
+            val offsets = IntArray(entries.size * 3)
+            val squaredDistances = IntArray(entries.size)
+
+            entries.forEachIndexed { index, entry ->
+                offsets[index * 3] = entry[0]
+                offsets[index * 3 + 1] = entry[1]
+                offsets[index * 3 + 2] = entry[2]
+                squaredDistances[index] = entry[3]
+            }
+
+            return BlockOffsetTable(offsets, squaredDistances)
+        }
+
+        private const val MAX_RADIUS = 64
+
+    }
+
+}
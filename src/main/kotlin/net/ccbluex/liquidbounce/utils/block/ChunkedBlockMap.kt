@@ -0,0 +1,259 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.block
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.ChunkPos
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.ReentrantReadWriteLock
+import kotlin.concurrent.read
+import kotlin.concurrent.write
+
+/**
+ * A thread-safe map of block positions, bucketed by chunk.
+ *
+ * Each chunk stores its blocks in a primitive map keyed by the position packed relative to the chunk, so clearing
+ * a chunk only drops its bucket and lookups by chunk range don't have to visit other chunks.
+ *
+ * Iteration works on a snapshot of each chunk, which is only rebuilt after the chunk has changed. The map may
+ * therefore be modified while iterating, and readers never block the writers for longer than a copy.
+ *
+ * @param T value type
+ */
+class ChunkedBlockMap<T : Any> {
+
+    private val lock = ReentrantReadWriteLock()
+    private val chunks = Long2ObjectOpenHashMap<ChunkBucket<T>>()
+
+    @Volatile
+    private var chunkSnapshot: Array<ChunkBucket<T>>? = null
+
+    private val count = AtomicInteger()
+    private val modifications = AtomicLong()
+
+    val size: Int
+        get() = count.get()
+
+    fun isEmpty() = size == 0
+
+    /**
+     * Increases on every change of the map
+     */
+    val version: Long
+        get() = modifications.get()
+
+    operator fun get(pos: BlockPos): T? {
+        val bucket = lock.read { chunks.get(chunkKey(pos)) } ?: return null
+
+        return synchronized(bucket) { bucket.entries.get(localKey(pos)) }
+    }
+
+    operator fun contains(pos: BlockPos) = get(pos) != null
+
+    operator fun set(pos: BlockPos, value: T) {
+        val bucket = getOrCreateBucket(pos)
+
+        synchronized(bucket) {
+            // The chunk was cleared in the meantime
+            if (bucket.removed) {
+                return
+            }
+
+            if (bucket.entries.put(localKey(pos), value) == null) {
+                count.incrementAndGet()
+            }
+
+            modifications.incrementAndGet()
+            bucket.markChanged()
+        }
+    }
+
+    fun remove(pos: BlockPos): T? {
+        val bucket = lock.read { chunks.get(chunkKey(pos)) } ?: return null
+
+        synchronized(bucket) {
+            val previous = bucket.entries.remove(localKey(pos)) ?: return null
+
+            if (!bucket.removed) {
+                count.decrementAndGet()
+            }
+
+            modifications.incrementAndGet()
+            bucket.markChanged()
+            return previous
+        }
+    }
+
+    fun clearChunk(chunkX: Int, chunkZ: Int) {
+        val bucket = lock.write {
+            chunks.remove(ChunkPos.toLong(chunkX, chunkZ))?.also { chunkSnapshot = null }
+        } ?: return
+
+        detach(bucket)
+    }
+
+    fun clear() {
+        val removed = lock.write {
+            val buckets = chunks.values.toList()
+            chunks.clear()
+            chunkSnapshot = null
+            buckets
+        }
+
+        removed.forEach(::detach)
+    }
+
+    /**
+     * Calls [action] for every block of the map.
+     *
+     * The position is reused between calls, use [BlockPos.toImmutable] to keep it.
+     */
+    fun forEach(action: (BlockPos, T) -> Unit) {
+        val mutable = BlockPos.Mutable()
+
+        for (bucket in chunkSnapshot()) {
+            bucket.forEach(mutable, action)
+        }
+    }
+
+    /**
+     * Calls [action] for every block within the chunks from [minChunkX], [minChunkZ] to [maxChunkX], [maxChunkZ]
+     * (inclusive).
+     *
+     * The position is reused between calls, use [BlockPos.toImmutable] to keep it.
+     */
+    fun forEachInChunks(minChunkX: Int, minChunkZ: Int, maxChunkX: Int, maxChunkZ: Int, action: (BlockPos, T) -> Unit) {
+        val mutable = BlockPos.Mutable()
+        val buckets = chunkSnapshot()
+        val area = (maxChunkX - minChunkX + 1).toLong() * (maxChunkZ - minChunkZ + 1).toLong()
+
+        // Look up the chunks directly when the range is small compared to the amount of chunks
+        if (area <= buckets.size) {
+            for (chunkX in minChunkX..maxChunkX) {
+                for (chunkZ in minChunkZ..maxChunkZ) {
+                    val bucket = lock.read { chunks.get(ChunkPos.toLong(chunkX, chunkZ)) } ?: continue
+                    bucket.forEach(mutable, action)
+                }
+            }
+        } else {
+            for (bucket in buckets) {
+                if (bucket.chunkX in minChunkX..maxChunkX && bucket.chunkZ in minChunkZ..maxChunkZ) {
+                    bucket.forEach(mutable, action)
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls [action] for every block within the chunks that are at most [range] blocks away horizontally from
+     * [x], [z]. The blocks themselves are not filtered by distance.
+     */
+    fun forEachNear(x: Double, z: Double, range: Double, action: (BlockPos, T) -> Unit) {
+        forEachInChunks(
+            (x - range).toInt() - 1 shr 4,
+            (z - range).toInt() - 1 shr 4,
+            (x + range).toInt() + 1 shr 4,
+            (z + range).toInt() + 1 shr 4,
+            action
+        )
+    }
+
+    private fun getOrCreateBucket(pos: BlockPos): ChunkBucket<T> {
+        val key = chunkKey(pos)
+
+        lock.read { chunks.get(key) }?.let { return it }
+
+        return lock.write {
+            chunks.get(key) ?: ChunkBucket<T>(pos.x shr 4, pos.z shr 4).also {
+                chunks.put(key, it)
+                chunkSnapshot = null
+            }
+        }
+    }
+
+    private fun detach(bucket: ChunkBucket<T>) {
+        synchronized(bucket) {
+            bucket.removed = true
+            count.addAndGet(-bucket.entries.size)
+        }
+
+        modifications.incrementAndGet()
+    }
+
+    private fun chunkSnapshot(): Array<ChunkBucket<T>> {
+        chunkSnapshot?.let { return it }
+
+        return lock.read {
+            @Suppress("UNCHECKED_CAST")
+            (chunks.values.toTypedArray<ChunkBucket<*>>() as Array<ChunkBucket<T>>).also { chunkSnapshot = it }
+        }
+    }
+
+    private class ChunkBucket<T : Any>(val chunkX: Int, val chunkZ: Int) {
+
+        val entries = Int2ObjectOpenHashMap<T>()
+
+        /**
+         * Set once the chunk has been cleared, later writes to this bucket are ignored
+         */
+        var removed = false
+
+        @Volatile
+        private var snapshot: EntrySnapshot? = null
+
+        fun markChanged() {
+            snapshot = null
+        }
+
+        @Suppress("UNCHECKED_CAST")
+        fun forEach(mutable: BlockPos.Mutable, action: (BlockPos, T) -> Unit) {
+            val snapshot = snapshot ?: synchronized(this) {
+                snapshot ?: EntrySnapshot(entries.keys.toIntArray(), entries.values.toTypedArray<Any>())
+                    .also { snapshot = it }
+            }
+
+            val baseX = chunkX shl 4
+            val baseZ = chunkZ shl 4
+
+            for (idx in snapshot.keys.indices) {
+                val key = snapshot.keys[idx]
+                mutable.set(baseX + (key and 15), key shr 8, baseZ + (key shr 4 and 15))
+                action(mutable, snapshot.values[idx] as T)
+            }
+        }
+
+    }
+
+    private class EntrySnapshot(val keys: IntArray, val values: Array<Any>)
+
+    private companion object {
+
+        fun chunkKey(pos: BlockPos) = ChunkPos.toLong(pos.x shr 4, pos.z shr 4)
+
+        /**
+         * Packs the position relative to its chunk, the y coordinate keeps its sign in the upper bits
+         */
+        fun localKey(pos: BlockPos) = pos.y shl 8 or (pos.z and 15 shl 4) or (pos.x and 15)
+
+    }
+
+}
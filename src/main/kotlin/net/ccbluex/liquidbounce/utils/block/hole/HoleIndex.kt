@@ -0,0 +1,203 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.block.hole
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap
+import net.ccbluex.liquidbounce.utils.block.Region
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.ChunkSectionPos
+import java.util.concurrent.locks.ReentrantReadWriteLock
+import kotlin.concurrent.read
+import kotlin.concurrent.write
+
+/**
+ * Thread-safe storage of holes, bucketed by the chunk section of [Hole.positions].
+ *
+ * Queries take a [Region] and only look at the sections around it, the predicates passed to them still decide
+ * which holes match exactly. Like a sorted set of holes, there is at most one hole per starting position.
+ */
+class HoleIndex {
+
+    private val lock = ReentrantReadWriteLock()
+    private val sections = Long2ObjectOpenHashMap<ArrayList<Hole>>()
+    private var count = 0
+
+    val size: Int
+        get() = lock.read { count }
+
+    fun isEmpty() = size == 0
+
+    /**
+     * Adds [hole] unless there already is a hole starting at the same position
+     */
+    fun add(hole: Hole): Boolean = lock.write {
+        val from = hole.positions.from
+        val key = ChunkSectionPos.asLong(from.x shr 4, from.y shr 4, from.z shr 4)
+        val bucket = sections.get(key) ?: ArrayList<Hole>(4).also { sections.put(key, it) }
+
+        if (bucket.any { it.positions.from == from }) {
+            return false
+        }
+
+        bucket.add(hole)
+        count++
+        true
+    }
+
+    operator fun plusAssign(hole: Hole) {
+        add(hole)
+    }
+
+    /**
+     * Whether a hole contains [pos]
+     */
+    fun isInHole(pos: BlockPos): Boolean {
+        return any(Region.from(pos)) { pos in it }
+    }
+
+    /**
+     * Whether a hole near [query] matches [predicate]
+     */
+    fun any(query: Region, predicate: (Hole) -> Boolean): Boolean = lock.read {
+        forEachCandidate(query) { bucket ->
+            if (bucket.any(predicate)) {
+                return true
+            }
+        }
+
+        false
+    }
+
+    /**
+     * Calls [action] for all holes near [query], the holes still have to be filtered by the caller.
+     * The index must not be modified from within [action].
+     */
+    fun forEachNear(query: Region, action: (Hole) -> Unit) {
+        lock.read {
+            forEachCandidate(query) { bucket ->
+                bucket.forEach(action)
+            }
+        }
+    }
+
+    /**
+     * Returns the holes near [query] which match [predicate]
+     */
+    fun filterNear(query: Region, predicate: (Hole) -> Boolean = { true }): List<Hole> {
+        val result = ArrayList<Hole>()
+
+        forEachNear(query) {
+            if (predicate(it)) {
+                result += it
+            }
+        }
+
+        return result
+    }
+
+    /**
+     * Removes the holes near [query] which match [predicate]
+     */
+    fun removeIf(query: Region, predicate: (Hole) -> Boolean) {
+        lock.write {
+            forEachCandidate(query) { bucket ->
+                val before = bucket.size
+                bucket.removeIf(predicate)
+                count -= before - bucket.size
+            }
+        }
+    }
+
+    /**
+     * Removes all holes which match [predicate], regardless of their position
+     */
+    fun removeIf(predicate: (Hole) -> Boolean) {
+        lock.write {
+            val iterator = sections.values.iterator()
+
+            while (iterator.hasNext()) {
+                val bucket = iterator.next()
+                val before = bucket.size
+                bucket.removeIf(predicate)
+                count -= before - bucket.size
+
+                // Empty sections are only dropped here, as the scan region moves away
+                if (bucket.isEmpty()) {
+                    iterator.remove()
+                }
+            }
+        }
+    }
+
+    fun clear() {
+        lock.write {
+            sections.clear()
+            count = 0
+        }
+    }
+
+    /**
+     * Calls [action] with the buckets of all sections that can contain holes intersecting [query].
+     * Must be called while holding the lock.
+     */
+    private inline fun forEachCandidate(query: Region, action: (ArrayList<Hole>) -> Unit) {
+        val minX = query.from.x - MARGIN shr 4
+        val minY = query.from.y - MARGIN shr 4
+        val minZ = query.from.z - MARGIN shr 4
+        val maxX = query.to.x + MARGIN shr 4
+        val maxY = query.to.y + MARGIN shr 4
+        val maxZ = query.to.z + MARGIN shr 4
+
+        val volume = (maxX - minX + 1).toLong() * (maxY - minY + 1) * (maxZ - minZ + 1)
+
+        // Large queries are cheaper to answer by checking the coordinates of each bucket
+        if (volume > sections.size) {
+            for (entry in sections.long2ObjectEntrySet()) {
+                val key = entry.longKey
+
+                if (ChunkSectionPos.unpackX(key) in minX..maxX
+                    && ChunkSectionPos.unpackY(key) in minY..maxY
+                    && ChunkSectionPos.unpackZ(key) in minZ..maxZ) {
+                    action(entry.value)
+                }
+            }
+
+            return
+        }
+
+        for (x in minX..maxX) {
+            for (y in minY..maxY) {
+                for (z in minZ..maxZ) {
+                    action(sections.get(ChunkSectionPos.asLong(x, y, z)) ?: continue)
+                }
+            }
+        }
+    }
+
+    private companion object {
+
+        /**
+         * Holes span at most two blocks horizontally and their invalidators three blocks vertically,
+         * so holes starting this far outside a query can still reach into it
+         */
+        const val MARGIN = 2
+
+    }
+
+}
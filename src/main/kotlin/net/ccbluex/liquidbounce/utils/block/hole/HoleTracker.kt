@@ -30,19 +30,17 @@ import net.minecraft.registry.Registries
 import net.minecraft.util.math.BlockPos
 import net.minecraft.util.math.Direction
 import net.minecraft.world.chunk.Chunk
-import java.util.concurrent.ConcurrentSkipListSet
 
-private const val UNBREAKABLE = (-1).toByte()
-private const val AIR = 0.toByte()
-private const val BREAKABLE = 1.toByte()
+internal const val UNBREAKABLE = (-1).toByte()
+internal const val AIR = 0.toByte()
+internal const val BREAKABLE = 1.toByte()
 
 // BlockState types
-private typealias State = Byte
-private typealias BlockStateBuffer = Long2ByteOpenHashMap
+internal typealias State = Byte
 
 object HoleTracker : ChunkScanner.BlockChangeSubscriber {
 
-    val holes = ConcurrentSkipListSet<Hole>()
+    val holes = HoleIndex()
     private val mutable by ThreadLocal.withInitial(BlockPos::Mutable)
     private val fullSurroundings = setOf(Direction.EAST, Direction.WEST, Direction.SOUTH, Direction.NORTH)
     private val UNBREAKABLE_BLOCKS: Set<Block> by lazy {
@@ -53,27 +51,42 @@ object HoleTracker : ChunkScanner.BlockChangeSubscriber {
         get() = false
 
     override fun recordBlock(pos: BlockPos, state: BlockState, cleared: Boolean) {
+        recordBlock(pos, state, ::classifyBlock)
+    }
+
+    /**
+     * Invalidates the holes affected by [pos] changing to [state] and searches the area around it again.
+     *
+     * @param classify the state of a block, reads the world in [recordBlock]
+     */
+    internal fun recordBlock(pos: BlockPos, state: BlockState, classify: (BlockPos) -> State) {
         // Invalidate old ones
+        val changed = Region.from(pos)
         if (state.isAir) {
             // if one of the neighbor blocks becomes air, invalidate the hole
-            holes.removeIf { it.positions.any { p -> p.getManhattanDistance(pos) == 1 } }
+            holes.removeIf(changed) { it.positions.any { p -> p.getManhattanDistance(pos) == 1 } }
         } else {
-            holes.removeIf { pos in it.blockInvalidators }
+            holes.removeIf(changed) { pos in it.blockInvalidators }
         }
 
         // Check new ones
         val region = Region.quadAround(pos, 2, 3)
         invalidate(region)
-        region.cachedUpdate()
+        region.cachedUpdate(classify = classify)
     }
 
     private fun invalidate(region: Region) {
-        holes.removeIf { it.positions.intersects(region) }
+        holes.removeIf(region) { it.positions.intersects(region) }
     }
 
+    /**
+     * Searches the region for holes and adds them to [holes].
+     *
+     * @param classify the state of a block, reads the world by default
+     */
     @Suppress("detekt:CognitiveComplexMethod")
-    fun Region.cachedUpdate(chunk: Chunk? = null) {
-        val buffer = BlockStateBuffer(volume)
+    fun Region.cachedUpdate(chunk: Chunk? = null, classify: (BlockPos) -> Byte = ::classifyBlock) {
+        val buffer = BlockStateBuffer(volume, classify)
 
         // Only check positions in this chunk (pos is BlockPos.Mutable)
         forEach { pos ->
@@ -81,7 +94,7 @@ object HoleTracker : ChunkScanner.BlockChangeSubscriber {
                 return@forEach
             }
 
-            if (holes.any { pos in it } || !buffer.checkSameXZ(pos)) {
+            if (holes.isInHole(pos) || !buffer.checkSameXZ(pos)) {
                 return@forEach
             }
 
@@ -146,19 +159,27 @@ object HoleTracker : ChunkScanner.BlockChangeSubscriber {
         }
     }
 
-    private fun BlockStateBuffer.cache(blockPos: BlockPos): State {
-        val longValue = blockPos.asLong()
-        if (containsKey(longValue)) {
-            return get(longValue)
-        } else {
-            val state = blockPos.getState() ?: return AIR
-            val result = when {
-                state.isAir -> AIR
-                state.block in UNBREAKABLE_BLOCKS -> UNBREAKABLE
-                else -> BREAKABLE
+    private fun classifyBlock(blockPos: BlockPos): State {
+        val state = blockPos.getState() ?: return AIR
+        return when {
+            state.isAir -> AIR
+            state.block in UNBREAKABLE_BLOCKS -> UNBREAKABLE
+            else -> BREAKABLE
+        }
+    }
+
+    private class BlockStateBuffer(expected: Int, private val classify: (BlockPos) -> State) {
+        private val states = Long2ByteOpenHashMap(expected)
+
+        fun cache(blockPos: BlockPos): State {
+            val longValue = blockPos.asLong()
+            if (states.containsKey(longValue)) {
+                return states.get(longValue)
+            } else {
+                val result = classify(blockPos)
+                states.put(longValue, result)
+                return result
             }
-            put(longValue, result)
-            return result
         }
     }
 
@@ -18,6 +18,7 @@
  */
 package net.ccbluex.liquidbounce.utils.client
 
+import net.ccbluex.liquidbounce.interfaces.ChatHudAddition
 import net.ccbluex.liquidbounce.interfaces.ChatHudLineAddition
 import net.ccbluex.liquidbounce.interfaces.ChatMessageAddition
 import net.minecraft.client.gui.hud.ChatHud
@@ -48,6 +49,7 @@ fun ChatHud.removeMessage(id: String?) {
         val removable = it as ChatMessageAddition
         id == removable.`liquid_bounce$getId`()
     }
+    (this as ChatHudAddition).liquidbounce_unindexMessage(id)
     visibleMessages.removeIf {
         val removable = it as ChatMessageAddition
         id == removable.`liquid_bounce$getId`()
@@ -0,0 +1,295 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.client
+
+import net.ccbluex.liquidbounce.event.events.TransferOrigin
+import net.minecraft.network.packet.Packet
+import net.minecraft.network.packet.c2s.play.PlayerMoveC2SPacket
+import net.minecraft.util.math.Vec3d
+
+/**
+ * A ring buffer of held packets, ordered from oldest to newest.
+ *
+ * The positions of queued [PlayerMoveC2SPacket]s are tracked next to the packets and updated on every enqueue and
+ * dequeue, so reading [positions] never walks the queue. Every operation is synchronized, because packets are
+ * queued from the network thread while the render thread reads the positions.
+ *
+ * The buffer grows up to [maxCapacity] packets. Adding to a full queue evicts the oldest packet, which is returned
+ * to the caller to be flushed, so packets are never silently lost.
+ *
+ * Removing operations return the removed snapshots instead of taking a callback, so they can be flushed outside
+ * the lock. Flushing a packet might queue new packets.
+ */
+class PacketQueue(
+    private val maxCapacity: Int = MAX_CAPACITY,
+    private val positionOf: (Packet<*>) -> Vec3d? = ::movePosition
+) {
+
+    init {
+        require(maxCapacity > 0 && maxCapacity and (maxCapacity - 1) == 0) { "Capacity has to be a power of two" }
+    }
+
+    private var snapshots = arrayOfNulls<PacketSnapshot>(INITIAL_CAPACITY.coerceAtMost(maxCapacity))
+    private var head = 0
+    private var count = 0
+
+    private val movePositions = ArrayDeque<Vec3d>()
+    private var positionsSnapshot: List<Vec3d>? = emptyList()
+
+    private val originCounts = IntArray(TransferOrigin.entries.size)
+
+    /**
+     * Amount of queued packets
+     */
+    val size
+        @Synchronized get() = count
+
+    /**
+     * Largest [size] since the queue was empty the last time
+     */
+    var peakSize = 0
+        @Synchronized get
+        private set
+
+    /**
+     * Positions of the queued move packets, oldest first.
+     *
+     * The returned list is an immutable snapshot which is shared until the queue changes.
+     */
+    val positions: List<Vec3d>
+        @Synchronized get() = positionsSnapshot ?: movePositions.toList().also { positionsSnapshot = it }
+
+    @Synchronized
+    fun isEmpty() = count == 0
+
+    @Synchronized
+    fun count(origin: TransferOrigin) = originCounts[origin.ordinal]
+
+    @Synchronized
+    operator fun get(index: Int): PacketSnapshot {
+        if (index !in 0..<count) {
+            throw IndexOutOfBoundsException("Index $index out of bounds for size $count")
+        }
+
+        return slot(index)!!
+    }
+
+    @Synchronized
+    fun first() = if (count == 0) null else slot(0)
+
+    /**
+     * How long the oldest packet has been held at [now]
+     */
+    @Synchronized
+    fun heldDuration(now: Long = System.currentTimeMillis()) = if (count == 0) 0L else now - slot(0)!!.timestamp
+
+    /**
+     * Queues [snapshot]
+     *
+     * @return the oldest snapshot if it had to be evicted to make room
+     */
+    @Synchronized
+    fun add(snapshot: PacketSnapshot): PacketSnapshot? {
+        var evicted: PacketSnapshot? = null
+
+        if (count == snapshots.size) {
+            if (snapshots.size < maxCapacity) {
+                grow()
+            } else {
+                evicted = removeFirstInternal()
+            }
+        }
+
+        snapshots[(head + count) and (snapshots.size - 1)] = snapshot
+        count++
+        originCounts[snapshot.origin.ordinal]++
+        peakSize = maxOf(peakSize, count)
+
+        positionOf(snapshot.packet)?.let { position ->
+            movePositions.addLast(position)
+            positionsSnapshot = null
+        }
+
+        return evicted
+    }
+
+    @Synchronized
+    fun removeFirst() = if (count == 0) null else removeFirstInternal()
+
+    /**
+     * Removes packets from the front of the queue until [moves] move packets have been removed or the queue is empty
+     */
+    @Synchronized
+    fun removeMoves(moves: Int): List<PacketSnapshot> {
+        val removed = ArrayList<PacketSnapshot>()
+        var counter = 0
+
+        while (count > 0 && counter < moves) {
+            val snapshot = removeFirstInternal()
+
+            if (positionOf(snapshot.packet) != null) {
+                counter++
+            }
+
+            removed += snapshot
+        }
+
+        return removed
+    }
+
+    /**
+     * Removes every packet matching [predicate], keeping the order of the remaining packets
+     */
+    @Synchronized
+    fun removeIf(predicate: (PacketSnapshot) -> Boolean): List<PacketSnapshot> {
+        if (count == 0) {
+            return emptyList()
+        }
+
+        val removed = ArrayList<PacketSnapshot>()
+        val mask = snapshots.size - 1
+        var kept = 0
+
+        // Compact the remaining packets towards the head in a single pass
+        for (i in 0..<count) {
+            val snapshot = slot(i)!!
+
+            if (predicate(snapshot)) {
+                removed += snapshot
+            } else {
+                snapshots[(head + kept) and mask] = snapshot
+                kept++
+            }
+        }
+
+        if (removed.isEmpty()) {
+            return removed
+        }
+
+        for (i in kept..<count) {
+            snapshots[(head + i) and mask] = null
+        }
+
+        count = kept
+
+        for (snapshot in removed) {
+            originCounts[snapshot.origin.ordinal]--
+        }
+
+        rebuildPositions()
+        onRemoved()
+
+        return removed
+    }
+
+    /**
+     * Removes every packet from [origin]
+     */
+    fun removeAll(origin: TransferOrigin) =
+        if (count(origin) == 0) emptyList() else removeIf { snapshot -> snapshot.origin == origin }
+
+    /**
+     * Removes and returns every packet
+     */
+    @Synchronized
+    fun drain(): List<PacketSnapshot> {
+        val removed = toList()
+        clear()
+        return removed
+    }
+
+    @Synchronized
+    fun clear() {
+        snapshots.fill(null)
+        head = 0
+        count = 0
+        originCounts.fill(0)
+        movePositions.clear()
+        positionsSnapshot = emptyList()
+        onRemoved()
+    }
+
+    @Synchronized
+    fun toList() = List(count) { i -> slot(i)!! }
+
+    private fun slot(index: Int) = snapshots[(head + index) and (snapshots.size - 1)]
+
+    private fun removeFirstInternal(): PacketSnapshot {
+        val snapshot = snapshots[head]!!
+        snapshots[head] = null
+        head = (head + 1) and (snapshots.size - 1)
+        count--
+        originCounts[snapshot.origin.ordinal]--
+
+        if (positionOf(snapshot.packet) != null) {
+            movePositions.removeFirst()
+            positionsSnapshot = null
+        }
+
+        onRemoved()
+        return snapshot
+    }
+
+    private fun onRemoved() {
+        if (count == 0) {
+            head = 0
+            peakSize = 0
+        }
+    }
+
+    private fun rebuildPositions() {
+        movePositions.clear()
+
+        for (i in 0..<count) {
+            positionOf(slot(i)!!.packet)?.let(movePositions::addLast)
+        }
+
+        positionsSnapshot = null
+    }
+
+    private fun grow() {
+        val newSnapshots = arrayOfNulls<PacketSnapshot>(snapshots.size * 2)
+
+        for (i in 0..<count) {
+            newSnapshots[i] = slot(i)
+        }
+
+        snapshots = newSnapshots
+        head = 0
+    }
+
+    companion object {
+
+        private const val INITIAL_CAPACITY = 64
+
+        /**
+         * Over ten minutes of movement packets
+         */
+        const val MAX_CAPACITY = 16384
+
+        private fun movePosition(packet: Packet<*>) =
+            if (packet is PlayerMoveC2SPacket && packet.changePosition) {
+                Vec3d(packet.x, packet.y, packet.z)
+            } else {
+                null
+            }
+
+    }
+
+}
@@ -18,7 +18,6 @@
  */
 package net.ccbluex.liquidbounce.utils.client
 
-import com.google.common.collect.Queues
 import net.ccbluex.liquidbounce.event.EventListener
 import net.ccbluex.liquidbounce.event.EventManager
 import net.ccbluex.liquidbounce.event.events.*
@@ -46,8 +45,6 @@ import net.minecraft.network.packet.s2c.play.HealthUpdateS2CPacket
 import net.minecraft.network.packet.s2c.play.PlaySoundS2CPacket
 import net.minecraft.network.packet.s2c.play.PlayerPositionLookS2CPacket
 import net.minecraft.sound.SoundEvents
-import net.minecraft.util.math.Vec3d
-import java.util.concurrent.ConcurrentLinkedQueue
 
 /**
  * Allows to queue packets and flush them later on demand.
@@ -57,16 +54,34 @@ import java.util.concurrent.ConcurrentLinkedQueue
  */
 object PacketQueueManager : EventListener {
 
-    val packetQueue: ConcurrentLinkedQueue<PacketSnapshot> = Queues.newConcurrentLinkedQueue()
+    val packetQueue = PacketQueue()
+
+    /**
+     * Positions of the queued move packets, oldest first
+     */
     val positions
-        get() = packetQueue
-            .map { snapshot -> snapshot.packet }
-            .filterIsInstance<PlayerMoveC2SPacket>()
-            .filter { playerMoveC2SPacket -> playerMoveC2SPacket.changePosition }
-            .map { playerMoveC2SPacket -> Vec3d(playerMoveC2SPacket.x, playerMoveC2SPacket.y, playerMoveC2SPacket.z) }
+        get() = packetQueue.positions
 
     val isLagging
-        get() = packetQueue.isNotEmpty()
+        get() = !packetQueue.isEmpty()
+
+    /**
+     * Amount of currently held packets
+     */
+    val queueSize
+        get() = packetQueue.size
+
+    /**
+     * Largest amount of packets held at once since the queue was empty the last time
+     */
+    val peakQueueSize
+        get() = packetQueue.peakSize
+
+    /**
+     * How long the oldest packet has been held in milliseconds
+     */
+    val heldDuration
+        get() = packetQueue.heldDuration()
 
     @Suppress("unused")
     private val flushHandler = handler<GameRenderTaskQueueEvent> {
@@ -76,11 +91,11 @@ object PacketQueueManager : EventListener {
         }
 
         if (fireEvent(null, TransferOrigin.RECEIVE) == Action.FLUSH) {
-            flush { snapshot -> snapshot.origin == TransferOrigin.RECEIVE }
+            flush(TransferOrigin.RECEIVE)
         }
 
         if (fireEvent(null, TransferOrigin.SEND) == Action.FLUSH) {
-            flush { snapshot -> snapshot.origin == TransferOrigin.SEND }
+            flush(TransferOrigin.SEND)
         }
     }
 
@@ -99,7 +114,7 @@ object PacketQueueManager : EventListener {
         // If we shouldn't lag, don't do anything
         val lagResult = fireEvent(packet, origin)
         if (lagResult == Action.FLUSH) {
-            flush { snapshot -> snapshot.origin == origin }
+            flush(origin)
             return@handler
         }
 
@@ -120,7 +135,7 @@ object PacketQueueManager : EventListener {
 
             // Flush on teleport or disconnect
             is PlayerPositionLookS2CPacket, is DisconnectS2CPacket -> {
-                flush { snapshot -> snapshot.origin == origin }
+                flush(origin)
                 return@handler
             }
 
@@ -134,7 +149,7 @@ object PacketQueueManager : EventListener {
             // Flush on own death
             is HealthUpdateS2CPacket -> {
                 if (packet.health <= 0) {
-                    flush { snapshot -> snapshot.origin == origin }
+                    flush(origin)
                     return@handler
                 }
             }
@@ -148,7 +163,7 @@ object PacketQueueManager : EventListener {
                 origin,
                 System.currentTimeMillis()
             )
-        )
+        )?.let(::flushSnapshot)
     }
 
     @Suppress("unused")
@@ -183,34 +198,19 @@ object PacketQueueManager : EventListener {
     }
 
     fun flush(flushWhen: (PacketSnapshot) -> Boolean) {
-        packetQueue.removeIf { snapshot ->
-            if (flushWhen(snapshot)) {
-                flushSnapshot(snapshot)
-                true
-            } else {
-                false
-            }
-        }
+        packetQueue.removeIf(flushWhen).forEach(::flushSnapshot)
+    }
+
+    /**
+     * Flushes every packet from [origin], does nothing if none of them are queued
+     */
+    fun flush(origin: TransferOrigin) {
+        packetQueue.removeAll(origin).forEach(::flushSnapshot)
     }
 
     fun flush(count: Int) {
         // Take all packets until the counter of move packets reaches count and send them
-        var counter = 0
-
-        for (snapshot in packetQueue.iterator()) {
-            val packet = snapshot.packet
-
-            if (packet is PlayerMoveC2SPacket && packet.changePosition) {
-                counter += 1
-            }
-
-            flushSnapshot(snapshot)
-            packetQueue.remove(snapshot)
-
-            if (counter >= count) {
-                break
-            }
-        }
+        packetQueue.removeMoves(count).forEach(::flushSnapshot)
     }
 
     fun cancel() {
@@ -218,24 +218,26 @@ object PacketQueueManager : EventListener {
             player.setPosition(pos)
         }
 
-        for (snapshot in packetQueue) {
+        for (snapshot in packetQueue.drain()) {
             when (snapshot.packet) {
                 is PlayerMoveC2SPacket -> continue
                 else -> flushSnapshot(snapshot)
             }
         }
-        packetQueue.clear()
     }
 
     fun isAboveTime(delay: Long): Boolean {
-        val entryPacketTime = (packetQueue.firstOrNull()?.timestamp ?: return false)
-        return System.currentTimeMillis() - entryPacketTime >= delay
+        return !packetQueue.isEmpty() && packetQueue.heldDuration() >= delay
     }
 
     inline fun <reified T> rewrite(action: (T) -> Unit) {
-        packetQueue
-            .filterIsInstance<T>()
-            .forEach(action)
+        for (snapshot in packetQueue.toList()) {
+            val packet = snapshot.packet
+
+            if (packet is T) {
+                action(packet)
+            }
+        }
     }
 
     private fun flushSnapshot(snapshot: PacketSnapshot) {
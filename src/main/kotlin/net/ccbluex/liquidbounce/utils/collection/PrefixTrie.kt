@@ -0,0 +1,178 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.collection
+
+import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap
+import java.util.*
+
+/**
+ * A case-insensitive prefix trie used for autocompletion.
+ *
+ * Every [put] maps a lookup key to a value, a value might be reachable by several keys (e.g. a command and its
+ * aliases or an identifier and its path). The trie is meant to be built once and rebuilt as a whole when the
+ * underlying set changes, it does not support removal.
+ */
+class PrefixTrie<V : Any> {
+
+    private val root = Node<V>()
+
+    /**
+     * All distinct values in insertion order, used to order the completions and by the fuzzy fallback
+     */
+    private val entries = LinkedHashMap<V, Entry>()
+
+    val size
+        get() = entries.size
+
+    fun put(key: String, value: V) {
+        val lowered = key.lowercase(Locale.ROOT)
+        var node = root
+
+        for (c in lowered) {
+            node = node.children[c] ?: Node<V>().also { node.children[c] = it }
+        }
+
+        if (value !in node.values) {
+            node.values += value
+        }
+        entries.getOrPut(value) { Entry(entries.size) }.keys += lowered
+    }
+
+    /**
+     * Returns the first value which was put with exactly [key], ignoring case.
+     */
+    operator fun get(key: String): V? {
+        return find(key.lowercase(Locale.ROOT))?.values?.firstOrNull()
+    }
+
+    /**
+     * Returns all distinct values with a key starting with [prefix], ignoring case, in the order they were first put.
+     */
+    fun withPrefix(prefix: String): List<V> {
+        val node = find(prefix.lowercase(Locale.ROOT)) ?: return emptyList()
+        val output = HashSet<V>()
+
+        node.collect(output)
+        // The children are hashed by character, so the traversal order says nothing about the values
+        return output.sortedBy { entries[it]!!.index }
+    }
+
+    /**
+     * Returns all values starting with [query]. If there are none, the values are ranked by how well [query] matches
+     * as subsequence of their keys, e.g. `kaur` matches `KillAura` and `diamond` matches `minecraft:diamond_sword`.
+     *
+     * @param fuzzyLimit the maximum amount of values returned by the fuzzy fallback
+     */
+    fun search(query: String, fuzzyLimit: Int = DEFAULT_FUZZY_LIMIT): List<V> {
+        val prefixed = withPrefix(query)
+
+        if (prefixed.isNotEmpty() || query.isEmpty()) {
+            return prefixed
+        }
+
+        val lowered = query.lowercase(Locale.ROOT)
+
+        return entries.mapNotNull { (value, entry) ->
+            val score = entry.keys.maxOf { fuzzyScore(lowered, it) }
+
+            if (score == NO_MATCH) null else value to score
+        }.sortedByDescending { it.second }.take(fuzzyLimit).map { it.first }
+    }
+
+    private fun find(lowered: String): Node<V>? {
+        var node = root
+
+        for (c in lowered) {
+            node = node.children[c] ?: return null
+        }
+
+        return node
+    }
+
+    private class Entry(val index: Int) {
+        val keys = ArrayList<String>(1)
+    }
+
+    private class Node<V> {
+        val children = Char2ObjectOpenHashMap<Node<V>>(2)
+        val values = ArrayList<V>(1)
+
+        fun collect(output: MutableCollection<V>) {
+            output += values
+            for (child in children.values) {
+                child.collect(output)
+            }
+        }
+    }
+
+    companion object {
+
+        const val DEFAULT_FUZZY_LIMIT = 10
+
+        private const val NO_MATCH = Int.MIN_VALUE
+
+        /**
+         * Scores [query] as subsequence of [key], both have to be lowercase.
+         *
+         * Consecutive characters and characters at the beginning of a word (after `:`, `_`, `.`, `/` or ` `)
+         * are rewarded, skipped characters are penalized.
+         */
+        internal fun fuzzyScore(query: String, key: String): Int {
+            var score = 0
+            var keyIdx = 0
+            var previousMatch = -2
+
+            for (c in query) {
+                val found = key.indexOf(c, keyIdx)
+
+                if (found < 0) {
+                    return NO_MATCH
+                }
+
+                score += when {
+                    found == previousMatch + 1 -> 8
+                    found == 0 || key[found - 1] in WORD_SEPARATORS -> 6
+                    else -> 1
+                }
+                score -= found - keyIdx
+
+                previousMatch = found
+                keyIdx = found + 1
+            }
+
+            // Prefer shorter keys, they are closer to what has been typed
+            return score - (key.length - query.length) / 4
+        }
+
+        private const val WORD_SEPARATORS = ":_. /"
+
+        /**
+         * Builds a trie from [values], each value is reachable by all of its [keys].
+         */
+        inline fun <V : Any> of(values: Iterable<V>, keys: (V) -> Iterable<String>) = PrefixTrie<V>().apply {
+            for (value in values) {
+                for (key in keys(value)) {
+                    put(key, value)
+                }
+            }
+        }
+
+    }
+
+}
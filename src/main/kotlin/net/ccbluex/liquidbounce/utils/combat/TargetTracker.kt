@@ -25,7 +25,7 @@ import net.ccbluex.liquidbounce.event.events.TargetChangeEvent
 import net.ccbluex.liquidbounce.integration.interop.protocol.rest.v1.game.PlayerData
 import net.ccbluex.liquidbounce.utils.aiming.RotationManager
 import net.ccbluex.liquidbounce.utils.client.player
-import net.ccbluex.liquidbounce.utils.client.world
+import net.ccbluex.liquidbounce.utils.entity.EntityIndex
 import net.ccbluex.liquidbounce.utils.entity.boxedDistanceTo
 import net.ccbluex.liquidbounce.utils.entity.getActualHealth
 import net.ccbluex.liquidbounce.utils.entity.squaredBoxedDistanceTo
@@ -62,9 +62,8 @@ open class TargetTracker(
      * Update should be called to always pick the best target out of the current world context
      */
     fun enemies(): List<LivingEntity> {
-        val entities = world.entities
+        val entities = EntityIndex.ofType<LivingEntity>()
             .asSequence()
-            .filterIsInstance<LivingEntity>()
             .filter(this::validate)
             .map { it to it.boxedDistanceTo(player) }
             .filter { it.second <= range }
@@ -0,0 +1,305 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.entity
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap
+import it.unimi.dsi.fastutil.objects.Reference2DoubleOpenHashMap
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap
+import net.ccbluex.liquidbounce.event.EventListener
+import net.ccbluex.liquidbounce.event.events.GameTickEvent
+import net.ccbluex.liquidbounce.event.events.WorldChangeEvent
+import net.ccbluex.liquidbounce.event.handler
+import net.ccbluex.liquidbounce.utils.client.mc
+import net.ccbluex.liquidbounce.utils.combat.EntityTag
+import net.ccbluex.liquidbounce.utils.combat.EntityTaggingManager
+import net.ccbluex.liquidbounce.utils.kotlin.EventPriorityConvention
+import net.minecraft.entity.Entity
+import net.minecraft.util.math.ChunkPos
+import net.minecraft.util.math.MathHelper
+import net.minecraft.util.math.Vec3d
+import java.util.*
+
+/**
+ * A snapshot of the world's entities, shared by everything that would otherwise iterate `world.entities` itself.
+ *
+ * The snapshot is built lazily by the first query of a tick in a single pass over the world. It buckets the
+ * entities by their class and into a grid of 16x16 block columns, so type and range queries only have to look
+ * at the relevant entities.
+ *
+ * The snapshot is invalidated at the very start of every tick and whenever an entity is added to or removed from
+ * the world, so neither the type views nor [all] contain removed entities.
+ *
+ * Entities are bucketed by their position at the time of the snapshot, range queries therefore search one
+ * additional cell around the requested area and then test the current position.
+ *
+ * All queries have to be made on the client thread. The returned lists are views that are reused by the
+ * index and must not be kept after the tick, copy them if necessary.
+ */
+object EntityIndex : EventListener {
+
+    /**
+     * Cells are 16 blocks wide, aligned to chunks
+     */
+    private const val CELL_SHIFT = 4
+    private const val CELL_SIZE = 1 shl CELL_SHIFT
+
+    /**
+     * Above this many cells, visiting the cells costs more than iterating all entities
+     */
+    private const val MAX_CELL_RADIUS = 8
+
+    private val entities = ArrayList<Entity>()
+    private val cells = Long2ObjectOpenHashMap<ArrayList<Entity>>()
+    private val byClass = Reference2ObjectOpenHashMap<Class<*>, ArrayList<Entity>>()
+
+    /**
+     * Views for queried types, including subclasses. Computed from [byClass] on the first query for a type.
+     */
+    private val byType = Reference2ObjectOpenHashMap<Class<*>, List<Entity>>()
+    private val squaredDistances = Reference2DoubleOpenHashMap<Entity>()
+
+    /**
+     * Lists of the previous snapshot which can be reused for the cells and classes of the next one
+     */
+    private val listPool = ArrayDeque<ArrayList<Entity>>()
+
+    private var dirty = true
+
+    /**
+     * Runs before any other tick handler, so none of them sees the snapshot of the previous tick
+     */
+    @Suppress("unused")
+    private val tickHandler = handler<GameTickEvent>(priority = EventPriorityConvention.FIRST_PRIORITY) {
+        dirty = true
+    }
+
+    @Suppress("unused")
+    private val worldChangeHandler = handler<WorldChangeEvent> {
+        dirty = true
+        clear()
+    }
+
+    /**
+     * Called by the world when an entity was added or removed, the next query rebuilds the snapshot
+     */
+    fun invalidate() {
+        dirty = true
+    }
+
+    /**
+     * All entities of the world, including the player
+     */
+    val all: List<Entity>
+        get() {
+            update()
+            return entities
+        }
+
+    /**
+     * All entities which are an instance of [type]
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun <T : Entity> ofType(type: Class<T>): List<T> {
+        update()
+
+        return byType.getOrPut(type) {
+            var result: List<Entity>? = null
+
+            for ((clazz, bucket) in byClass) {
+                if (!type.isAssignableFrom(clazz)) {
+                    continue
+                }
+
+                // Most types only match a single class, in which case the bucket can be shared
+                result = when (result) {
+                    null -> bucket
+                    is MergedBuckets -> result.apply { addAll(bucket) }
+                    else -> MergedBuckets(result).apply { addAll(bucket) }
+                }
+            }
+
+            result ?: emptyList()
+        } as List<T>
+    }
+
+    inline fun <reified T : Entity> ofType() = ofType(T::class.java)
+
+    /**
+     * Adds all entities of [type] whose position is within [range] of [center] to [destination].
+     */
+    fun <T : Entity, C : MutableCollection<in T>> inRange(
+        center: Vec3d,
+        range: Double,
+        type: Class<T>,
+        destination: C
+    ): C {
+        forEachInRange(center, range) { entity ->
+            if (type.isInstance(entity)) {
+                destination.add(type.cast(entity))
+            }
+        }
+
+        return destination
+    }
+
+    inline fun <reified T : Entity> inRange(center: Vec3d, range: Double) =
+        inRange(center, range, T::class.java, ArrayList())
+
+    /**
+     * Calls [action] for every entity whose position is within [range] of [center].
+     */
+    fun forEachInRange(center: Vec3d, range: Double, action: (Entity) -> Unit) {
+        update()
+
+        val squaredRange = range * range
+
+        // Ranges spanning a large part of the world are cheaper to answer from the list itself
+        if (range >= CELL_SIZE * MAX_CELL_RADIUS) {
+            for (entity in entities) {
+                if (!entity.isRemoved && entity.pos.squaredDistanceTo(center) <= squaredRange) {
+                    action(entity)
+                }
+            }
+            return
+        }
+
+        // One additional cell for entities which moved since the snapshot
+        val minX = (MathHelper.floor(center.x - range) shr CELL_SHIFT) - 1
+        val maxX = (MathHelper.floor(center.x + range) shr CELL_SHIFT) + 1
+        val minZ = (MathHelper.floor(center.z - range) shr CELL_SHIFT) - 1
+        val maxZ = (MathHelper.floor(center.z + range) shr CELL_SHIFT) + 1
+
+        for (x in minX..maxX) {
+            for (z in minZ..maxZ) {
+                val cell = cells.get(ChunkPos.toLong(x, z)) ?: continue
+
+                for (idx in cell.indices) {
+                    val entity = cell[idx]
+
+                    if (!entity.isRemoved && entity.pos.squaredDistanceTo(center) <= squaredRange) {
+                        action(entity)
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the [count] entities of [type] closest to [center] within [range], closest first.
+     */
+    fun <T : Entity> nearest(
+        center: Vec3d,
+        count: Int,
+        type: Class<T>,
+        range: Double = Double.MAX_VALUE
+    ): List<T> {
+        if (count <= 0) {
+            return emptyList()
+        }
+
+        // Keeps the closest entities found so far, farthest at the head
+        val closest = PriorityQueue<Pair<T, Double>>(count + 1, compareByDescending { it.second })
+        val candidates = if (range.isFinite()) inRange(center, range, type, ArrayList()) else ofType(type)
+
+        for (entity in candidates) {
+            if (entity.isRemoved) {
+                continue
+            }
+
+            val distance = entity.pos.squaredDistanceTo(center)
+
+            if (closest.size < count) {
+                closest.add(entity to distance)
+            } else if (distance < closest.peek().second) {
+                closest.poll()
+                closest.add(entity to distance)
+            }
+        }
+
+        return closest.sortedBy { it.second }.map { it.first }
+    }
+
+    inline fun <reified T : Entity> nearest(center: Vec3d, count: Int, range: Double = Double.MAX_VALUE) =
+        nearest(center, count, T::class.java, range)
+
+    /**
+     * The squared distance between the positions of [entity] and the player at the time of the snapshot.
+     * Use the exact distance for checks that have to match the server, e.g. attack ranges.
+     */
+    fun squaredDistanceToPlayer(entity: Entity): Double {
+        update()
+
+        if (squaredDistances.containsKey(entity)) {
+            return squaredDistances.getDouble(entity)
+        }
+
+        val distance = mc.player?.let { entity.pos.squaredDistanceTo(it.pos) } ?: 0.0
+        squaredDistances.put(entity, distance)
+        return distance
+    }
+
+    /**
+     * The tag of [entity], cached by [EntityTaggingManager] until the next tick
+     */
+    fun tagOf(entity: Entity): EntityTag = EntityTaggingManager.getTag(entity)
+
+    private fun update() {
+        if (!dirty) {
+            return
+        }
+
+        dirty = false
+        clear()
+
+        val world = mc.world ?: return
+
+        for (entity in world.entities) {
+            entities.add(entity)
+
+            val cellKey = ChunkPos.toLong(entity.blockX shr CELL_SHIFT, entity.blockZ shr CELL_SHIFT)
+            (cells.get(cellKey) ?: pooledList().also { cells.put(cellKey, it) }).add(entity)
+            byClass.getOrPut(entity.javaClass, ::pooledList).add(entity)
+        }
+    }
+
+    private fun clear() {
+        for (cell in cells.values) {
+            cell.clear()
+            listPool.add(cell)
+        }
+        for (bucket in byClass.values) {
+            bucket.clear()
+            listPool.add(bucket)
+        }
+
+        entities.clear()
+        cells.clear()
+        byClass.clear()
+        byType.clear()
+        squaredDistances.clear()
+    }
+
+    private fun pooledList() = listPool.pollLast() ?: ArrayList()
+
+    /**
+     * A list combining several class buckets for a type query
+     */
+    private class MergedBuckets(first: List<Entity>) : ArrayList<Entity>(first)
+
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.io
+
+import io.netty.channel.EventLoopGroup
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.ServerSocketChannel
+import io.netty.channel.socket.SocketChannel
+import io.netty.channel.socket.nio.NioServerSocketChannel
+import io.netty.channel.socket.nio.NioSocketChannel
+import io.netty.util.concurrent.DefaultThreadFactory
+
+/**
+ * A single, client-wide Netty event loop used by our own network clients and
+ * short-lived local servers (e.g. LiquidChat, OAuth callback).
+ *
+ * Creating a new [NioEventLoopGroup] per connection spawns a full set of threads every time
+ * and leaks them if the group is not shut down properly. All users of this group must only close
+ * their channels and never shut down the group itself.
+ */
+object ClientEventLoop {
+
+    private const val THREADS = 2
+
+    val group: EventLoopGroup by lazy {
+        NioEventLoopGroup(THREADS, DefaultThreadFactory("liquidbounce-netty", true))
+    }
+
+    val socketChannel: Class<out SocketChannel>
+        get() = NioSocketChannel::class.java
+
+    val serverSocketChannel: Class<out ServerSocketChannel>
+        get() = NioServerSocketChannel::class.java
+
+}
@@ -19,6 +19,7 @@
 package net.ccbluex.liquidbounce.utils.item
 
 import net.ccbluex.liquidbounce.utils.sorting.ComparatorChain
+import net.ccbluex.liquidbounce.utils.sorting.MemoizedScore
 import net.ccbluex.liquidbounce.utils.sorting.compareByCondition
 import net.minecraft.component.DataComponentTypes
 import net.minecraft.enchantment.Enchantment
@@ -105,9 +106,20 @@ class ArmorComparator(
         private val OTHER_ENCHANTMENT_PER_LEVEL = floatArrayOf(3.0f, 1.0f, 0.1f, 0.05f, 0.01f)
     }
 
+    /**
+     * The scores only depend on the stack and the parameters of this comparator, so they are kept as long as the
+     * comparator lives.
+     */
+    private val damageReduction = MemoizedScore(ItemScores::componentKey) { stack: ItemStack ->
+        round(getThresholdedDamageReduction(stack).toDouble(), 3)
+    }
+    private val enchantmentThreshold = MemoizedScore(ItemScores::componentKey) { stack: ItemStack ->
+        round(getEnchantmentThreshold(stack).toDouble(), 3)
+    }
+
     private val comparator = ComparatorChain(
-        compareByDescending { round(getThresholdedDamageReduction(it.itemSlot.itemStack).toDouble(), 3) },
-        compareBy { round(getEnchantmentThreshold(it.itemSlot.itemStack).toDouble(), 3) },
+        compareByDescending { damageReduction[it.itemSlot.itemStack] },
+        compareBy { enchantmentThreshold[it.itemSlot.itemStack] },
         compareBy { it.itemSlot.itemStack.getEnchantmentCount() },
         compareBy { it.itemSlot.itemStack.get(DataComponentTypes.ENCHANTABLE)?.value ?: 0 },
         compareByCondition(ArmorPiece::isAlreadyEquipped),
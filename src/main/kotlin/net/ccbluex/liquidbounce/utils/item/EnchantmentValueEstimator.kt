@@ -24,7 +24,11 @@ import net.minecraft.registry.RegistryKey
 
 class EnchantmentValueEstimator(private vararg val weightedEnchantments: WeightedEnchantment) {
 
-    fun estimateValue(itemStack: ItemStack): Float {
+    private val values = ItemScores.byComponents(::computeValue)
+
+    fun estimateValue(itemStack: ItemStack): Float = values[itemStack]
+
+    private fun computeValue(itemStack: ItemStack): Float {
         var sum = 0.0f
 
         for (it in this.weightedEnchantments) {
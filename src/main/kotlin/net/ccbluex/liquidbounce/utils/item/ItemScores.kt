@@ -0,0 +1,85 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.item
+
+import net.ccbluex.liquidbounce.event.EventListener
+import net.ccbluex.liquidbounce.event.events.GameTickEvent
+import net.ccbluex.liquidbounce.event.handler
+import net.ccbluex.liquidbounce.utils.sorting.MemoizedScore
+import net.minecraft.component.ComponentChanges
+import net.minecraft.item.Item
+import net.minecraft.item.ItemStack
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * Scores of item stacks which are shared by all comparators and dropped every tick.
+ *
+ * Several modules (scaffold, inventory cleaner, auto armor, ...) sort the same inventory in the same tick, so a score
+ * is derived only once per distinct item (or item and components) and tick. Dropping them every tick covers
+ * scores depending on the world, like block hardness.
+ */
+object ItemScores : EventListener {
+
+    private val scores = CopyOnWriteArrayList<MemoizedScore<ItemStack, *, *>>()
+
+    /**
+     * A score which only depends on the item, e.g. properties of the block of a block item
+     */
+    fun <R : Any> byItem(score: (ItemStack) -> R) = register(MemoizedScore(ItemStack::item, score))
+
+    /**
+     * A score which depends on the components of the stack as well, e.g. its enchantments
+     */
+    fun <R : Any> byComponents(score: (ItemStack) -> R) = register(MemoizedScore(::componentKey, score))
+
+    /**
+     * Identifies the content of [stack] apart from its count. The key is built from the current components on every
+     * call, so a stack modified in place (e.g. losing durability) never finds the score of its previous content.
+     */
+    fun componentKey(stack: ItemStack): Any = ComponentKey.of(stack)
+
+    private fun <R : Any> register(score: MemoizedScore<ItemStack, *, R>) = score.also { scores += it }
+
+    @Suppress("unused")
+    private val tickHandler = handler<GameTickEvent> {
+        for (score in scores) {
+            score.clear()
+        }
+    }
+
+}
+
+/**
+ * The item and component changes of a stack. The component changes are an immutable snapshot, so a stack modified
+ * in place gets a new key. The hash is computed once, as it covers every changed component.
+ */
+internal class ComponentKey private constructor(private val item: Item, private val changes: ComponentChanges) {
+
+    private val hash = 31 * item.hashCode() + changes.hashCode()
+
+    override fun hashCode() = hash
+
+    override fun equals(other: Any?) =
+        other is ComponentKey && hash == other.hash && item == other.item && changes == other.changes
+
+    companion object {
+        fun of(stack: ItemStack) = ComponentKey(stack.item, stack.componentChanges)
+    }
+
+}
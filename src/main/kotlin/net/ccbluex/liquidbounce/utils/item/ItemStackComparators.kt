@@ -31,32 +31,30 @@ import kotlin.math.abs
 import kotlin.math.absoluteValue
 
 object PreferFavourableBlocks : Comparator<ItemStack> {
+    private val isFavourable = ItemScores.byItem { !ScaffoldBlockItemSelection.isBlockUnfavourable(it) }
+
     override fun compare(o1: ItemStack, o2: ItemStack): Int {
-        return compareValueByCondition(o1, o2) {
-            return@compareValueByCondition !ScaffoldBlockItemSelection.isBlockUnfavourable(it)
-        }
+        return compareValueByCondition(o1, o2, isFavourable::get)
     }
 
 }
 
 object PreferSolidBlocks : Comparator<ItemStack> {
-    override fun compare(o1: ItemStack, o2: ItemStack): Int {
-        return compareValueByCondition(o1, o2) {
-            val defaultState = (it.item as BlockItem).block.defaultState
+    private val isSolid = ItemScores.byItem { (it.item as BlockItem).block.defaultState.isSolid }
 
-            return@compareValueByCondition defaultState.isSolid
-        }
+    override fun compare(o1: ItemStack, o2: ItemStack): Int {
+        return compareValueByCondition(o1, o2, isSolid::get)
     }
 
 }
 
 object PreferFullCubeBlocks : Comparator<ItemStack> {
-    override fun compare(o1: ItemStack, o2: ItemStack): Int {
-        return compareValueByCondition(o1, o2) {
-            val defaultState = (it.item as BlockItem).block.defaultState
+    private val isFullCube = ItemScores.byItem {
+        (it.item as BlockItem).block.defaultState.isFullCube(mc.world!!, BlockPos.ORIGIN)
+    }
 
-            return@compareValueByCondition defaultState.isFullCube(mc.world!!, BlockPos.ORIGIN)
-        }
+    override fun compare(o1: ItemStack, o2: ItemStack): Int {
+        return compareValueByCondition(o1, o2, isFullCube::get)
     }
 
 }
@@ -86,9 +84,11 @@ object PreferWalkableBlocks : Comparator<ItemStack> {
  * (high/low hardness).
  */
 object PreferAverageHardBlocks : Comparator<ItemStack> {
+    private val hardnessDistances = ItemScores.byItem(::hardnessDist)
+
     override fun compare(o1: ItemStack, o2: ItemStack): Int {
-        val o1HardnessDist = hardnessDist(o1)
-        val o2HardnessDist = hardnessDist(o2)
+        val o1HardnessDist = hardnessDistances[o1]
+        val o2HardnessDist = hardnessDistances[o2]
 
         return o2HardnessDist.compareTo(o1HardnessDist)
     }
@@ -0,0 +1,221 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.kotlin
+
+import net.ccbluex.liquidbounce.utils.client.logger
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * A graph of named tasks with declared dependencies.
+ *
+ * Tasks without a path between them run concurrently. Tasks marked as [Task.mainThread] are always executed
+ * on the thread calling [run], all others on the given executor. Each execution is timed and
+ * reported through [timings].
+ *
+ * If a task fails, all tasks depending on it are skipped and the first failure is rethrown by [run]
+ * once everything else has finished.
+ */
+class TaskGraph(val name: String) {
+
+    private val tasks = LinkedHashMap<String, Task>()
+
+    /**
+     * Timings of the last run, in order of completion
+     */
+    val timings: List<Timing>
+        get() = completedTimings.toList()
+
+    private val completedTimings = ConcurrentLinkedQueue<Timing>()
+
+    /**
+     * Declare a new task
+     *
+     * @param name unique name of the task
+     * @param dependsOn names of tasks which have to be completed before this task starts
+     * @param mainThread whether the task has to run on the thread calling [run]
+     */
+    fun task(name: String, vararg dependsOn: String, mainThread: Boolean = false, action: () -> Unit) {
+        require(name !in tasks) { "Task $name is already declared in graph ${this.name}" }
+        tasks[name] = Task(name, dependsOn.toList(), mainThread, action)
+    }
+
+    /**
+     * Runs all tasks and blocks until every task has been completed or skipped.
+     * The calling thread executes all main-thread tasks while waiting.
+     */
+    fun run(executor: Executor): List<Timing> {
+        val execution = Execution(executor)
+
+        while (true) {
+            val task = execution.mainThreadQueue.take()
+            if (task === END) {
+                break
+            }
+
+            execution.execute(task)
+        }
+
+        execution.failure.get()?.let { throw it }
+        return timings
+    }
+
+    /**
+     * Runs all tasks on the given executor without blocking.
+     * Only allowed for graphs that do not contain main-thread tasks.
+     */
+    fun runAsync(executor: Executor) {
+        require(tasks.values.none(Task::mainThread)) { "Graph $name contains main-thread tasks" }
+
+        Execution(executor)
+    }
+
+    private inner class Execution(private val executor: Executor) {
+
+        val mainThreadQueue = LinkedBlockingQueue<Task>()
+        val failure = AtomicReference<Throwable>()
+
+        private val start = System.nanoTime()
+        private val remaining = AtomicInteger(tasks.size)
+        private val pendingDependencies = tasks.values.associateWith { AtomicInteger(it.dependsOn.size) }
+        private val dependents = tasks.values.associateWith { task ->
+            tasks.values.filter { task.name in it.dependsOn }
+        }
+        private val failed = tasks.values.associateWith { AtomicReference<String>() }
+
+        init {
+            validate()
+            completedTimings.clear()
+
+            if (tasks.isEmpty()) {
+                mainThreadQueue.put(END)
+            } else {
+                tasks.values.filter { it.dependsOn.isEmpty() }.forEach(::dispatch)
+            }
+        }
+
+        private fun dispatch(task: Task) {
+            when {
+                failed[task]!!.get() != null -> complete(task, Timing(task.name, null, 0, 0, failed[task]!!.get()))
+                task.mainThread -> mainThreadQueue.put(task)
+                else -> executor.execute { execute(task) }
+            }
+        }
+
+        fun execute(task: Task) {
+            val taskStart = System.nanoTime()
+            val error = runCatching(task.action).exceptionOrNull()
+            val taskEnd = System.nanoTime()
+
+            if (error != null) {
+                logger.error("[$name] Task ${task.name} failed", error)
+                failure.compareAndSet(null, error)
+            }
+
+            val timing = Timing(
+                task.name,
+                Thread.currentThread().name,
+                (taskStart - start) / 1_000_000,
+                (taskEnd - taskStart) / 1_000_000,
+                error?.let { it.message ?: it.javaClass.simpleName }
+            )
+            logger.debug("[$name] Task ${task.name} took ${timing.duration} ms on ${timing.thread}")
+            complete(task, timing)
+        }
+
+        private fun complete(task: Task, timing: Timing) {
+            completedTimings += timing
+
+            for (dependent in dependents[task]!!) {
+                if (timing.error != null) {
+                    failed[dependent]!!.compareAndSet(null, "Skipped because ${task.name} failed")
+                }
+
+                if (pendingDependencies[dependent]!!.decrementAndGet() == 0) {
+                    dispatch(dependent)
+                }
+            }
+
+            if (remaining.decrementAndGet() == 0) {
+                val duration = (System.nanoTime() - start) / 1_000_000
+                logger.info("[$name] Completed ${tasks.size} tasks in $duration ms")
+                mainThreadQueue.put(END)
+            }
+        }
+
+        /**
+         * Makes sure all dependencies exist and there are no cycles, otherwise the run would never finish
+         */
+        private fun validate() {
+            for (task in tasks.values) {
+                for (dependency in task.dependsOn) {
+                    require(dependency in tasks) { "Task ${task.name} depends on unknown task $dependency" }
+                }
+            }
+
+            val inDegree = pendingDependencies.mapValues { it.value.get() }.toMutableMap()
+            val queue = ArrayDeque(inDegree.filterValues { it == 0 }.keys)
+            var visited = 0
+
+            while (queue.isNotEmpty()) {
+                val task = queue.removeFirst()
+                visited++
+
+                for (dependent in dependents[task]!!) {
+                    inDegree[dependent] = inDegree[dependent]!! - 1
+                    if (inDegree[dependent] == 0) {
+                        queue += dependent
+                    }
+                }
+            }
+
+            require(visited == tasks.size) { "Graph $name contains a dependency cycle" }
+        }
+
+    }
+
+    class Task(
+        val name: String,
+        val dependsOn: List<String>,
+        val mainThread: Boolean,
+        val action: () -> Unit
+    )
+
+    /**
+     * @param thread the thread the task ran on, null if it was skipped
+     * @param start milliseconds since the start of the run
+     * @param duration milliseconds the task took
+     * @param error the failure or skip reason, null on success
+     */
+    data class Timing(
+        val name: String,
+        val thread: String?,
+        val start: Long,
+        val duration: Long,
+        val error: String?
+    )
+
+    private companion object {
+        val END = Task("end", emptyList(), true) { }
+    }
+
+}
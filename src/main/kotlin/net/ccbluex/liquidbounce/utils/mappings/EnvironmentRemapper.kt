@@ -2,6 +2,8 @@ package net.ccbluex.liquidbounce.utils.mappings
 
 import net.ccbluex.liquidbounce.utils.client.logger
 import net.ccbluex.liquidbounce.utils.io.resource
+import net.fabricmc.mappings.EntryTriple
+import net.fabricmc.mappings.Mappings
 import net.fabricmc.mappings.model.V2MappingsProvider
 
 object EnvironmentRemapper {
@@ -22,7 +24,7 @@ object EnvironmentRemapper {
         val mappings = mappings ?: return null
 
         val minecraftClassEntry = mappings.classEntries?.find { entry ->
-            entry?.get("named") == "net/minecraft/client/MinecraftClient"
+            entry?.get(NAMED) == "net/minecraft/client/MinecraftClient"
         }
 
         if (minecraftClassEntry == null) {
@@ -52,70 +54,137 @@ object EnvironmentRemapper {
         }
     }
 
+    /**
+     * Hash-indexed view of the mappings, built on first use.
+     *
+     * Startup builds it on a background thread (see [prepare]), so lookups from scripts or the packet logger
+     * never scan the mappings linearly. Callers racing the startup task block until it is finished.
+     */
+    private val index by lazy {
+        val environment = environment ?: return@lazy null
+        val mappings = mappings ?: return@lazy null
+
+        val start = System.currentTimeMillis()
+        val index = MappingIndex(mappings, environment)
+        logger.info("Indexed mappings in ${System.currentTimeMillis() - start}ms.")
+
+        // The raw entries are no longer needed
+        this.mappings = null
+        index
+    }
+
+    /**
+     * Builds the mapping index, if not already done
+     */
+    fun prepare() {
+        index
+    }
+
+    /**
+     * Maps a class name from named to environment namespace
+     */
     fun remapClassName(clazz: String): String {
-        environment ?: return clazz
+        val index = index ?: return clazz
 
-        val className = clazz.toSlashNotation()
-        return mappings?.classEntries?.find {
-            it?.get("named") == className
-        }?.get(environment)?.toDotNotation() ?: clazz
+        return index.namedToEnvironmentClass[clazz.toSlashNotation()]?.toDotNotation() ?: clazz
     }
 
+    /**
+     * Maps a class from environment to named namespace
+     */
     fun remapClass(clazz: Class<*>): String {
-        environment ?: return clazz.name
+        val index = index ?: return clazz.name
 
-        val className = clazz.name.toSlashNotation()
-        return mappings?.classEntries?.find {
-            it?.get(environment) == className
-        }?.get("named")?.toDotNotation() ?: clazz.name
+        return index.environmentToNamedClass[clazz.name.toSlashNotation()]?.toDotNotation() ?: clazz.name
     }
 
+    /**
+     * Maps a field name from environment to named namespace, looking at [clazz] and its superclasses
+     */
     fun remapField(clazz: Class<*>, name: String): String {
-        environment ?: return name
+        val index = index ?: return name
 
-        val clazzNames = getClassHierarchyNames(clazz)
-
-        return mappings?.fieldEntries?.find { entry ->
-            val intern = entry.get(environment)
-            clazzNames.contains(intern.owner) && intern.name == name
-        }?.get("named")?.name ?: name
+        return index.fields.toNamed(clazz, name) ?: name
     }
 
+    /**
+     * Maps a field name from environment to named namespace, [clazz] being the exact owner in environment namespace
+     */
     fun remapField(clazz: String, name: String): String {
-        environment ?: return name
+        val index = index ?: return name
 
-        val className = clazz.toSlashNotation()
-        return mappings?.fieldEntries?.find { entry ->
-            val intern = entry.get(environment)
-            className == intern.owner && intern.name == name
-        }?.get("named")?.name ?: name
+        return index.fields.toNamed[clazz.toSlashNotation()]?.get(name) ?: name
     }
 
+    /**
+     * Maps a method name from environment to named namespace, looking at [clazz] and its superclasses
+     */
     fun remapMethod(clazz: Class<*>, name: String): String {
-        environment ?: return name
+        val index = index ?: return name
+
+        return index.methods.toNamed(clazz, name) ?: name
+    }
 
-        val clazzNames = getClassHierarchyNames(clazz)
+    private class MappingIndex(mappings: Mappings, environment: String) {
+
+        val namedToEnvironmentClass = HashMap<String, String>(mappings.classEntries.size)
+        val environmentToNamedClass = HashMap<String, String>(mappings.classEntries.size)
+
+        val fields = MemberTable()
+        val methods = MemberTable()
+
+        init {
+            for (entry in mappings.classEntries) {
+                val named = entry?.get(NAMED) ?: continue
+                val intern = entry.get(environment) ?: continue
+
+                namedToEnvironmentClass[named] = intern
+                environmentToNamedClass[intern] = named
+            }
+
+            for (entry in mappings.fieldEntries) {
+                fields.add(entry.get(environment) ?: continue, entry.get(NAMED) ?: continue)
+            }
+
+            for (entry in mappings.methodEntries) {
+                methods.add(entry.get(environment) ?: continue, entry.get(NAMED) ?: continue)
+            }
+        }
 
-        return mappings?.methodEntries?.find { entry ->
-            val intern = entry.get(environment)
-            clazzNames.contains(intern.owner) && intern.name == name
-        }?.get("named")?.name ?: name
     }
 
-    private fun getClassHierarchyNames(clazz: Class<*>): Set<String> {
-        val clazzNames = mutableSetOf(clazz.name.toSlashNotation())
-        var current = clazz
+    /**
+     * Named member names by owner and name in environment namespace
+     */
+    private class MemberTable {
+
+        val toNamed = HashMap<String, HashMap<String, String>>()
+
+        fun add(intern: EntryTriple, named: EntryTriple) {
+            // The first entry wins, like with the previous linear search
+            toNamed.getOrPut(intern.owner, ::HashMap).putIfAbsent(intern.name, named.name)
+        }
+
+        /**
+         * Looks up [name] in [clazz] and its superclasses
+         */
+        fun toNamed(clazz: Class<*>, name: String): String? {
+            var current: Class<*>? = clazz
+
+            while (current != null && current != Any::class.java) {
+                toNamed[current.name.toSlashNotation()]?.get(name)?.let { return it }
+                current = current.superclass
+            }
 
-        while (current.name != "java.lang.Object") {
-            current = current.superclass ?: break
-            clazzNames.add(current.name.toSlashNotation())
+            return null
         }
 
-        return clazzNames
     }
 
     private fun String.toDotNotation(): String = replace('/', '.')
 
     private fun String.toSlashNotation(): String = replace('.', '/')
 
+    private const val NAMED = "named"
+
 }
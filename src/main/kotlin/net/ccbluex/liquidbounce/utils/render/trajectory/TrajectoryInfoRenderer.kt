@@ -28,8 +28,8 @@ import kotlin.math.sin
 
 class TrajectoryInfoRenderer(
     private val owner: Entity,
-    private var velocity: Vec3d,
-    private var pos: Vec3d,
+    velocity: Vec3d,
+    pos: Vec3d,
     private val trajectoryInfo: TrajectoryInfo,
     /**
      * The visualization should be what-you-see-is-what-you-get, so we use the actual current position of the player
@@ -37,6 +37,16 @@ class TrajectoryInfoRenderer(
      */
     private val renderOffset: Vec3d
 ) {
+
+    /**
+     * The inputs of the simulation. Within the same tick, equal inputs yield an equal [SimulationResult].
+     */
+    val initialVelocity = velocity
+    val initialPos = pos
+
+    private var velocity = velocity
+    private var pos = pos
+
     companion object {
         fun getHypotheticalTrajectory(
             entity: Entity,
@@ -91,18 +101,29 @@ class TrajectoryInfoRenderer(
         color: Color4b,
         matrixStack: MatrixStack
     ): HitResult? {
-        // Start drawing of path
-        val positions = mutableListOf<Vec3d>()
+        val result = simulate(maxTicks)
+
+        drawTrajectory(result, color, matrixStack)
+
+        return result.hitResult
+    }
 
+    /**
+     * Runs the simulation and keeps the path, so it can be drawn multiple times using [drawTrajectory]
+     */
+    fun simulate(maxTicks: Int): SimulationResult {
+        val positions = mutableListOf<Vec3d>()
         val hitResult = runSimulation(maxTicks, positions)
 
+        return SimulationResult(positions, hitResult)
+    }
+
+    fun drawTrajectory(result: SimulationResult, color: Color4b, matrixStack: MatrixStack) {
         renderEnvironmentForWorld(matrixStack) {
             withColor(color) {
-                drawLineStrip(positions.map { relativeToCamera(it + renderOffset).toVec3() })
+                drawLineStrip(result.positions.map { relativeToCamera(it + renderOffset).toVec3() })
             }
         }
-
-        return hitResult
     }
 
     fun runSimulation(
@@ -190,3 +211,5 @@ class TrajectoryInfoRenderer(
         }
     }
 }
+
+class SimulationResult(val positions: List<Vec3d>, val hitResult: HitResult?)
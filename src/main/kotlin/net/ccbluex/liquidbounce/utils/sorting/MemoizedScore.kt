@@ -0,0 +1,46 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.sorting
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Memoizes a value derived from [T], usually a score which a [Comparator] would otherwise derive again in every
+ * [Comparator.compare] call, i.e. O(n log n) times when sorting n elements.
+ *
+ * Scores are stored by [keyOf], elements with the same key share their score. The key has to capture everything
+ * the score depends on, or the cache has to be [clear]ed when something else changes.
+ */
+class MemoizedScore<T, K : Any, R : Any>(
+    private val keyOf: (T) -> K,
+    private val score: (T) -> R
+) {
+
+    private val scores = ConcurrentHashMap<K, R>()
+
+    val size
+        get() = scores.size
+
+    operator fun get(element: T): R = scores.getOrPut(keyOf(element)) { score(element) }
+
+    fun clear() {
+        scores.clear()
+    }
+
+}
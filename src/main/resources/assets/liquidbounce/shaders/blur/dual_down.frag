@@ -0,0 +1,22 @@
+#version 410 core
+
+// Downsample pass of the dual filter blur, the output framebuffer is half the size of the input
+
+in vec2 fragTexCoord;
+out vec4 fragColor;
+
+uniform sampler2D texture0;
+uniform vec2 halfTexel;
+uniform float offset;
+
+void main() {
+    vec2 o = halfTexel * offset;
+
+    vec4 sum = texture(texture0, fragTexCoord) * 4.0;
+    sum += texture(texture0, fragTexCoord - o);
+    sum += texture(texture0, fragTexCoord + o);
+    sum += texture(texture0, fragTexCoord + vec2(o.x, -o.y));
+    sum += texture(texture0, fragTexCoord - vec2(o.x, -o.y));
+
+    fragColor = sum / 8.0;
+}
@@ -0,0 +1,25 @@
+#version 410 core
+
+// Upsample pass of the dual filter blur, the output framebuffer is twice the size of the input
+
+in vec2 fragTexCoord;
+out vec4 fragColor;
+
+uniform sampler2D texture0;
+uniform vec2 halfTexel;
+uniform float offset;
+
+void main() {
+    vec2 o = halfTexel * offset;
+
+    vec4 sum = texture(texture0, fragTexCoord + vec2(-o.x * 2.0, 0.0));
+    sum += texture(texture0, fragTexCoord + vec2(-o.x, o.y)) * 2.0;
+    sum += texture(texture0, fragTexCoord + vec2(0.0, o.y * 2.0));
+    sum += texture(texture0, fragTexCoord + vec2(o.x, o.y)) * 2.0;
+    sum += texture(texture0, fragTexCoord + vec2(o.x * 2.0, 0.0));
+    sum += texture(texture0, fragTexCoord + vec2(o.x, -o.y)) * 2.0;
+    sum += texture(texture0, fragTexCoord + vec2(0.0, -o.y * 2.0));
+    sum += texture(texture0, fragTexCoord + vec2(-o.x, -o.y)) * 2.0;
+
+    fragColor = sum / 12.0;
+}
@@ -0,0 +1,19 @@
+#version 410 core
+
+// Blends the blurred scene over the main framebuffer wherever the UI overlay has been drawn
+
+in vec2 fragTexCoord;
+out vec4 fragColor;
+
+uniform sampler2D texture0;
+uniform sampler2D overlay;
+
+void main() {
+    float mask = texture(overlay, fragTexCoord).a;
+    if (mask <= 0.01) {
+        discard;
+    }
+
+    float opacity = clamp((mask - 0.1) * 2.0, 0.1, 1.0);
+    fragColor = vec4(texture(texture0, fragTexCoord).rgb, opacity);
+}
@@ -0,0 +1,22 @@
+#version 410 core
+
+// Fades trail points out over their lifetime, a lifetime of zero disables fading
+
+in float age;
+out vec4 fragColor;
+
+uniform vec4 color;
+uniform float alive;
+
+void main() {
+    float alpha = color.a;
+    if (alive > 0.0) {
+        alpha *= 1.0 - age / alive;
+    }
+
+    if (alpha <= 0.0) {
+        discard;
+    }
+
+    fragColor = vec4(color.rgb, alpha);
+}
@@ -0,0 +1,21 @@
+#version 410 core
+
+// Trail points are uploaded once, relative to the origin of their trail. The height of the ribbon and the
+// camera position are applied here, so changing them does not require uploading the trail again.
+
+layout (location = 0) in vec3 Position;
+layout (location = 1) in float CreationTime;
+layout (location = 2) in float Side;
+
+uniform mat4 projMat;
+uniform mat4 mvMat;
+uniform vec3 offset;
+uniform float height;
+uniform float time;
+
+out float age;
+
+void main() {
+    gl_Position = projMat * mvMat * vec4(Position + offset + vec3(0.0, Side * height, 0.0), 1.0);
+    age = time - CreationTime;
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.config
+
+import net.ccbluex.liquidbounce.config.types.Configurable
+import net.ccbluex.liquidbounce.config.types.Value
+import net.ccbluex.liquidbounce.event.EventListener
+import net.ccbluex.liquidbounce.event.EventManager
+import net.ccbluex.liquidbounce.event.events.ValueChangedEvent
+import net.ccbluex.liquidbounce.event.handler
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class ConfigTransactionTest {
+
+    private val changedValues = mutableListOf<Value<*>>()
+
+    private val listener = object : EventListener {
+        @Suppress("unused")
+        val valueChangedHandler = handler<ValueChangedEvent> { event ->
+            changedValues += event.value
+        }
+    }
+
+    /**
+     * Side effects of the enabled listener, like a module calling enable() and disable()
+     */
+    private var enables = 0
+    private var disables = 0
+
+    private val changed = mutableListOf<Int>()
+
+    private val root = Configurable("Root")
+    private val enabled = root.boolean("Enabled", false).onChange { new ->
+        if (new) enables++ else disables++
+        new
+    }
+    private val inner = Configurable("Inner").apply { root.tree(this) }
+    private val amount = inner.int("Amount", 1, 0..10).onChanged { changed += it }
+    private val other = Configurable("Other").boolean("Option", false)
+
+    @AfterEach
+    fun unregister() {
+        EventManager.unregisterEventHandler(listener)
+    }
+
+    @Test
+    fun testCommitNotifiesOncePerRoot() {
+        ConfigTransaction.run { transaction ->
+            transaction.notifyAsWhole(root)
+
+            enabled.set(true)
+            amount.set(2)
+            amount.set(3)
+
+            // Changed listeners and events are deferred until the commit
+            assertTrue(changed.isEmpty())
+            assertTrue(changedValues.isEmpty())
+        }
+
+        assertTrue(enabled.get())
+        assertEquals(1, enables)
+        assertEquals(listOf(3), changed)
+        assertEquals(1, changedValues.size)
+        assertSame(root, changedValues.single())
+    }
+
+    @Test
+    fun testValuesOutsideRootsAreNotifiedSeparately() {
+        ConfigTransaction.run { transaction ->
+            transaction.notifyAsWhole(inner)
+
+            amount.set(4)
+            other.set(true)
+        }
+
+        assertEquals(listOf<Value<*>>(inner, other), changedValues)
+    }
+
+    @Test
+    fun testNestedTransactionsJoin() {
+        ConfigTransaction.run { outer ->
+            outer.notifyAsWhole(root)
+
+            ConfigTransaction.run { nested ->
+                assertSame(outer, nested)
+                amount.set(5)
+            }
+
+            // The nested transaction did not commit on its own
+            assertTrue(changed.isEmpty())
+        }
+
+        assertEquals(listOf(5), changed)
+        assertEquals(listOf<Value<*>>(root), changedValues)
+    }
+
+    @Test
+    fun testRollbackOnException() {
+        assertThrows<IllegalStateException> {
+            ConfigTransaction.run { transaction ->
+                transaction.notifyAsWhole(root)
+
+                enabled.set(true)
+                amount.set(7)
+                error("Malformed config")
+            }
+        }
+
+        assertRolledBack()
+    }
+
+    @Test
+    fun testRollbackOnRecordedFailure() {
+        assertThrows<IllegalStateException> {
+            ConfigTransaction.run { transaction ->
+                transaction.notifyAsWhole(root)
+
+                enabled.set(true)
+                amount.set(7)
+
+                // Like a nested value which failed to deserialize, caught and logged by the config system
+                transaction.fail(IllegalArgumentException("Not a number"))
+            }
+        }
+
+        assertRolledBack()
+    }
+
+    @Test
+    fun testLenientSkipsRecordedFailure() {
+        ConfigTransaction.run(lenient = true) { transaction ->
+            transaction.notifyAsWhole(root)
+
+            enabled.set(true)
+            amount.set(7)
+
+            // Like a removed choice in a persistent config, only that value keeps its current value
+            transaction.fail(IllegalArgumentException("Unknown choice"))
+        }
+
+        assertTrue(enabled.get())
+        assertEquals(7, amount.get())
+        assertEquals(listOf(7), changed)
+        assertEquals(listOf<Value<*>>(root), changedValues)
+    }
+
+    @Test
+    fun testLenientRollsBackOnException() {
+        assertThrows<IllegalStateException> {
+            ConfigTransaction.run(lenient = true) { transaction ->
+                transaction.notifyAsWhole(root)
+
+                enabled.set(true)
+                amount.set(7)
+                error("Malformed config")
+            }
+        }
+
+        assertRolledBack()
+    }
+
+    @Test
+    fun testNoActiveTransactionAfterwards() {
+        runCatching {
+            ConfigTransaction.run { error("Malformed config") }
+        }
+        ConfigTransaction.run { }
+
+        assertNull(ConfigTransaction.active)
+
+        // Outside a transaction values notify right away again
+        amount.set(9)
+        assertEquals(listOf(9), changed)
+        assertEquals(listOf<Value<*>>(amount), changedValues)
+    }
+
+    private fun assertRolledBack() {
+        assertFalse(enabled.get())
+        assertEquals(1, amount.get())
+
+        // The side effect of the enabled listener is undone as well
+        assertEquals(1, enables)
+        assertEquals(1, disables)
+
+        assertTrue(changed.isEmpty())
+        assertTrue(changedValues.isEmpty())
+        assertNull(ConfigTransaction.active)
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.chat
+
+import io.netty.bootstrap.ServerBootstrap
+import io.netty.channel.Channel
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.ChannelInboundHandlerAdapter
+import io.netty.channel.ChannelInitializer
+import io.netty.channel.SimpleChannelInboundHandler
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.SocketChannel
+import io.netty.handler.codec.http.HttpObjectAggregator
+import io.netty.handler.codec.http.HttpServerCodec
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame
+import io.netty.handler.codec.http.websocketx.WebSocketFrame
+import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler
+import io.netty.util.concurrent.DefaultThreadFactory
+import net.ccbluex.liquidbounce.features.chat.packet.BinaryPacketCodec
+import net.ccbluex.liquidbounce.features.chat.packet.JsonPacketCodec
+import net.ccbluex.liquidbounce.utils.io.ClientEventLoop
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.Timeout
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.URI
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Runs [ChatClient] against a minimal websocket stand-in for the chat server.
+ */
+@Timeout(30)
+class ChatClientTest {
+
+    /**
+     * The stand-in server runs on its own threads, so they are not mistaken for the ones of the client
+     */
+    private val serverGroup = NioEventLoopGroup(1, DefaultThreadFactory("chat-test-server", true))
+    private val servers = mutableListOf<Channel>()
+    private val clients = mutableListOf<ChatClient>()
+
+    @AfterEach
+    fun shutdown() {
+        clients.forEach(ChatClient::disconnect)
+        clients.clear()
+        servers.forEach { it.close().sync() }
+        servers.clear()
+        serverGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync()
+    }
+
+    /**
+     * Starts a websocket server on loopback.
+     *
+     * @param subprotocols the subprotocols the server agrees on, null if it does not know about any
+     * @param dropConnections the number of connections to close before the handshake, like a flaky network would
+     */
+    private fun chatServer(
+        subprotocols: String?,
+        dropConnections: Int = 0,
+        frames: LinkedBlockingQueue<Class<out WebSocketFrame>> = LinkedBlockingQueue()
+    ): URI {
+        val remainingDrops = AtomicInteger(dropConnections)
+
+        val channel = ServerBootstrap()
+            .group(serverGroup)
+            .channel(ClientEventLoop.serverSocketChannel)
+            .childHandler(object : ChannelInitializer<SocketChannel>() {
+                override fun initChannel(ch: SocketChannel) {
+                    if (remainingDrops.getAndDecrement() > 0) {
+                        ch.pipeline().addLast(object : ChannelInboundHandlerAdapter() {
+                            override fun channelActive(ctx: ChannelHandlerContext) {
+                                ctx.close()
+                            }
+                        })
+                        return
+                    }
+
+                    ch.pipeline().addLast(
+                        HttpServerCodec(),
+                        HttpObjectAggregator(8192),
+                        WebSocketServerProtocolHandler("/ws", subprotocols),
+                        object : SimpleChannelInboundHandler<WebSocketFrame>() {
+                            override fun channelRead0(ctx: ChannelHandlerContext, msg: WebSocketFrame) {
+                                frames += msg.javaClass
+                            }
+                        }
+                    )
+                }
+            })
+            .bind(InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+            .sync()
+            .channel()
+        servers += channel
+
+        val port = (channel.localAddress() as InetSocketAddress).port
+        return URI("ws://127.0.0.1:$port/ws")
+    }
+
+    private fun client(uri: URI, preferBinary: Boolean) =
+        ChatClient(uri) { preferBinary }.also { clients += it }
+
+    @Test
+    fun testNegotiatesBinaryCodec() {
+        val frames = LinkedBlockingQueue<Class<out WebSocketFrame>>()
+        val client = client(
+            chatServer("${BinaryPacketCodec.SUBPROTOCOL},${JsonPacketCodec.SUBPROTOCOL}", frames = frames),
+            preferBinary = true
+        )
+
+        assertTrue(client.connect().isSuccess)
+        assertTrue(client.codec is BinaryPacketCodec)
+
+        client.sendMessage("Hello")
+        assertEquals(BinaryWebSocketFrame::class.java, frames.poll(5, TimeUnit.SECONDS))
+    }
+
+    @Test
+    fun testJsonOnlyServer() {
+        val client = client(chatServer(JsonPacketCodec.SUBPROTOCOL), preferBinary = true)
+
+        assertTrue(client.connect().isSuccess)
+        assertTrue(client.codec is JsonPacketCodec)
+    }
+
+    @Test
+    fun testFallsBackWhenBinaryRejected() {
+        val client = client(chatServer(null), preferBinary = true)
+
+        // The server does not answer with any subprotocol, which the handshaker rejects
+        assertTrue(client.connect().isFailure)
+
+        // The next attempt does not offer the binary codec anymore
+        assertTrue(client.connect().isSuccess)
+        assertTrue(client.codec is JsonPacketCodec)
+    }
+
+    @Test
+    fun testTransientFailureKeepsBinaryCodec() {
+        val client = client(
+            chatServer(BinaryPacketCodec.SUBPROTOCOL, dropConnections = 1),
+            preferBinary = true
+        )
+
+        assertTrue(client.connect().isFailure)
+        assertTrue(client.connect().isSuccess)
+        assertTrue(client.codec is BinaryPacketCodec)
+    }
+
+    @Test
+    fun testReconnectBackoff() {
+        val client = client(chatServer(JsonPacketCodec.SUBPROTOCOL), preferBinary = false)
+
+        assertEquals(listOf(2, 4, 8), List(3) { client.nextReconnectDelay() })
+        repeat(10) { client.nextReconnectDelay() }
+        assertEquals(60, client.nextReconnectDelay())
+
+        // A successful connection resets the backoff
+        assertTrue(client.connect().isSuccess)
+        assertEquals(2, client.nextReconnectDelay())
+    }
+
+    @Test
+    fun testReconnectsDoNotLeakThreads() {
+        val client = client(chatServer(JsonPacketCodec.SUBPROTOCOL), preferBinary = false)
+
+        fun reconnect(times: Int) = repeat(times) {
+            assertTrue(client.connect().isSuccess)
+            client.disconnect()
+        }
+
+        // The threads of the shared event loop are started by the first channels registered to it
+        reconnect(4)
+        val before = clientThreads()
+
+        reconnect(20)
+        assertEquals(before, clientThreads())
+    }
+
+    /**
+     * The netty threads of the client, [ClientEventLoop] or a group created by default
+     */
+    private fun clientThreads() = Thread.getAllStackTraces().keys.count {
+        it.name.startsWith("liquidbounce-netty") || it.name.startsWith("nioEventLoopGroup")
+    }
+
+}
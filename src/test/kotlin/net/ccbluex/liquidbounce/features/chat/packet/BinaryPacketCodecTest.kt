@@ -0,0 +1,85 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.chat.packet
+
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import java.util.*
+
+class BinaryPacketCodecTest {
+
+    /**
+     * Registers the same packets on both sides, like a server would for its outgoing packets.
+     */
+    private fun codec(): BinaryPacketCodec {
+        val serializer = PacketSerializer().apply {
+            registerPacket("Message", ClientMessagePacket::class.java)
+            registerPacket("Success", ClientSuccessPacket::class.java)
+            registerPacket("LoginMojang", ServerLoginMojangPacket::class.java)
+        }
+        val deserializer = PacketDeserializer().apply {
+            registerPacket("Message", ClientMessagePacket::class.java)
+            registerPacket("Success", ClientSuccessPacket::class.java)
+            registerPacket("LoginMojang", ServerLoginMojangPacket::class.java)
+        }
+
+        return BinaryPacketCodec(serializer, deserializer)
+    }
+
+    @Test
+    fun testRoundTrip() {
+        val codec = codec()
+        val packets = listOf(
+            ClientMessagePacket("1", User("Player", UUID.randomUUID()), "Hello äöü ☃"),
+            ClientSuccessPacket("Login"),
+            ServerLoginMojangPacket("Player", UUID.randomUUID(), allowMessages = true)
+        )
+
+        for (packet in packets) {
+            val frame = codec.encode(packet)
+            assertTrue(frame is BinaryWebSocketFrame)
+
+            assertEquals(packet, codec.decode(frame))
+            frame.release()
+        }
+    }
+
+    @Test
+    fun testCompactness() {
+        val codec = codec()
+        val packet = ClientMessagePacket("1", User("Player", UUID.randomUUID()), "Hello")
+
+        val frame = codec.encode(packet)
+        // id + "1" + user presence + "Player" + uuid presence + uuid + "Hello"
+        assertEquals(1 + 2 + 1 + 7 + 1 + 16 + 6, frame.content().readableBytes())
+        frame.release()
+    }
+
+    @Test
+    fun testIgnoresForeignFrames() {
+        val codec = codec()
+
+        assertNull(codec.decode(TextWebSocketFrame("{}")))
+    }
+
+}
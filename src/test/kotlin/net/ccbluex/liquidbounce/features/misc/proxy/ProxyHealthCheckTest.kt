@@ -0,0 +1,154 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.misc.proxy
+
+import kotlinx.coroutines.runBlocking
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import java.io.DataInputStream
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.ServerSocket
+import java.net.Socket
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class ProxyHealthCheckTest {
+
+    private val servers = mutableListOf<ServerSocket>()
+
+    @AfterEach
+    fun closeServers() {
+        servers.forEach(ServerSocket::close)
+        servers.clear()
+    }
+
+    /**
+     * Starts a minimal SOCKS5 stand-in on loopback, which accepts every CONNECT request
+     * after waiting [delay] milliseconds.
+     */
+    private fun socksServer(
+        delay: Long = 0,
+        concurrent: AtomicInteger? = null,
+        maxConcurrent: AtomicInteger? = null
+    ): Int {
+        val server = ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+        servers += server
+
+        thread(isDaemon = true) {
+            while (!server.isClosed) {
+                val socket = runCatching { server.accept() }.getOrNull() ?: break
+                thread(isDaemon = true) { handleSocks(socket, delay, concurrent, maxConcurrent) }
+            }
+        }
+
+        return server.localPort
+    }
+
+    private fun handleSocks(socket: Socket, delay: Long, concurrent: AtomicInteger?, maxConcurrent: AtomicInteger?) =
+        socket.use {
+            val current = concurrent?.incrementAndGet() ?: 0
+            maxConcurrent?.accumulateAndGet(current, ::maxOf)
+
+            val input = DataInputStream(socket.getInputStream())
+            val output = socket.getOutputStream()
+
+            // Greeting: version, method count, methods
+            input.readByte()
+            input.skipNBytes(input.readUnsignedByte().toLong())
+            output.write(byteArrayOf(5, 0))
+
+            // Request: version, command, reserved, address type, address, port
+            input.skipNBytes(3)
+            when (input.readUnsignedByte()) {
+                1 -> input.skipNBytes(4)
+                3 -> input.skipNBytes(input.readUnsignedByte().toLong())
+                4 -> input.skipNBytes(16)
+            }
+            input.skipNBytes(2)
+
+            Thread.sleep(delay)
+            output.write(byteArrayOf(5, 0, 0, 1, 127, 0, 0, 1, 0, 0))
+            output.flush()
+
+            concurrent?.decrementAndGet()
+            // Wait for the client to close the tunnel
+            runCatching { input.read() }
+        }
+
+    private fun unusedPort() = ServerSocket(0, 50, InetAddress.getLoopbackAddress()).use { it.localPort }
+
+    private val target = InetSocketAddress(InetAddress.getLoopbackAddress(), 25565)
+
+    @Test
+    fun testRanking() {
+        val fast = Proxy("127.0.0.1", socksServer(), null)
+        val slow = Proxy("127.0.0.1", socksServer(delay = 300), null)
+        val dead = Proxy("127.0.0.1", unusedPort(), null)
+
+        val ranked = runBlocking {
+            ProxyHealthCheck(listOf(dead, slow, fast), target, timeout = 2000).run()
+        }
+
+        assertEquals(listOf(fast, slow, dead), ranked)
+        assertTrue(fast.health!!.lastSuccessful)
+        assertTrue(slow.health!!.latency >= 300)
+        assertFalse(dead.health!!.lastSuccessful)
+        assertEquals(0.0, dead.health!!.score)
+    }
+
+    @Test
+    fun testBoundedParallelism() {
+        val concurrent = AtomicInteger()
+        val maxConcurrent = AtomicInteger()
+        val port = socksServer(delay = 50, concurrent = concurrent, maxConcurrent = maxConcurrent)
+        val proxies = List(20) { Proxy("127.0.0.1", port, null) }
+        val progress = AtomicInteger()
+
+        runBlocking {
+            ProxyHealthCheck(proxies, target, parallelism = 4).run { _, _, error ->
+                assertEquals(null, error)
+                progress.incrementAndGet()
+            }
+        }
+
+        assertEquals(proxies.size, progress.get())
+        assertTrue(maxConcurrent.get() in 1..4, "max concurrent probes: ${maxConcurrent.get()}")
+    }
+
+    @Test
+    fun testHistory() {
+        var health = ProxyHealth()
+
+        repeat(ProxyHealth.HISTORY_SIZE * 2) {
+            health = health.record(100)
+        }
+        assertEquals(ProxyHealth.HISTORY_SIZE, health.samples)
+        assertEquals(1.0, health.successRate)
+
+        health = health.record(null)
+        assertFalse(health.lastSuccessful)
+        assertEquals(100, health.latency)
+        assertEquals((ProxyHealth.HISTORY_SIZE - 1) / ProxyHealth.HISTORY_SIZE.toDouble(), health.successRate)
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.misc.betterchat
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class ChatFilterMatcherTest {
+
+    private val filters = listOf(
+        "discord.gg/\\w+",
+        "Buy cheap coins at .*",
+        "(?i)free rank",
+        "(\\w+) \\1",
+        "(?<word>spam)+",
+        "(?<word>ad) here",
+        "gg",
+        "Welcome back!",
+    ) + List(100) { "Spammer$it says .*" } + List(100) { "literal filter $it" }
+
+    @Test
+    fun testMatchesLikeSeparateRegexes() {
+        val matcher = ChatFilterMatcher(filters)
+        val regexes = filters.map(::Regex)
+
+        for (message in messages) {
+            assertEquals(regexes.any { it.matches(message) }, matcher.matches(message), message)
+        }
+    }
+
+    @Test
+    fun testFilterKinds() {
+        val matcher = ChatFilterMatcher(filters)
+
+        assertTrue(matcher.matches("gg"))
+        assertFalse(matcher.matches("ggg"))
+        assertTrue(matcher.matches("FREE RANK"))
+        assertTrue(matcher.matches("hello hello"))
+        assertFalse(matcher.matches("hello world"))
+        assertTrue(matcher.matches("spamspam"))
+        assertTrue(matcher.matches("ad here"))
+        assertTrue(matcher.matches("literal filter 42"))
+        assertTrue(ChatFilterMatcher.EMPTY.isEmpty)
+    }
+
+    /**
+     * Messages on both sides of every filter kind, including the ones which could leak into
+     * other alternatives once the filters are combined
+     */
+    private val messages = listOf(
+        "",
+        "gg",
+        "GG",
+        "ggg",
+        "gg ",
+        "Welcome back!",
+        "Welcome back",
+        "literal filter 0",
+        "literal filter 99",
+        "literal filter 100",
+        "discord.gg/abc",
+        "discordXgg/abc",
+        "discord.gg/",
+        "Buy cheap coins at ",
+        "Buy cheap coins at example.com",
+        "buy cheap coins at example.com",
+        "free rank",
+        "FREE RANK",
+        "free rank gg",
+        "Spammer0 says hi",
+        "Spammer99 says ",
+        "Spammer99 says",
+        "Spammer100 says hi",
+        "hello hello",
+        "hello world",
+        "spam",
+        "spamspamspam",
+        "spamad here",
+        "ad here",
+        "AD HERE",
+    )
+
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.misc.debugrecorder
+
+import com.google.gson.GsonBuilder
+import com.google.gson.TypeAdapter
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonWriter
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+
+class DebugRecordingWriterTest {
+
+    private data class Record(val module: String, val index: Int)
+
+    private class Unserializable
+
+    @TempDir
+    lateinit var folder: File
+
+    @Test
+    fun testRoundTrip() {
+        DebugRecordingWriter(folder, "test").use { writer ->
+            repeat(100) { writer.record(Record(if (it % 2 == 0) "A" else "B", it)) }
+        }
+
+        val files = DebugRecordingReader.parts(folder, "test")
+        assertEquals(1, files.size)
+
+        val indices = DebugRecordingReader.read(files).map { it.asJsonObject["index"].asInt }.toList()
+        assertEquals((0 until 100).toList(), indices)
+        assertEquals(50, DebugRecordingReader.filterByModule(files, "A").count())
+    }
+
+    @Test
+    fun testRotation() {
+        val writer = DebugRecordingWriter(folder, "test", maxFileSize = 1)
+        repeat(10) { writer.record(Record("A", it)) }
+        writer.close()
+
+        val files = DebugRecordingReader.parts(folder, "test")
+        assertTrue(files.size > 1)
+        assertEquals(files, writer.files)
+        assertEquals(10, DebugRecordingReader.replay(files) { })
+    }
+
+    @Test
+    fun testDropsOldestWhenFull() {
+        // Producing faster than the writer consumes may drop records, but never the newest ones
+        val writer = DebugRecordingWriter(folder, "test", bufferCapacity = 4)
+        repeat(10_000) { writer.record(Record("A", it)) }
+        writer.close()
+
+        assertEquals(10_000L, writer.recorded.get() + writer.dropped.get())
+
+        val last = DebugRecordingReader.read(writer.files).last().asJsonObject["index"].asInt
+        assertEquals(9_999, last)
+    }
+
+    @Test
+    fun testKeepsWritingAfterFailure() {
+        val gson = GsonBuilder().registerTypeAdapter(Unserializable::class.java, object : TypeAdapter<Unserializable>() {
+            override fun write(out: JsonWriter, value: Unserializable) = error("Cannot serialize")
+            override fun read(reader: JsonReader) = error("Cannot deserialize")
+        }).create()
+
+        val writer = DebugRecordingWriter(folder, "test", gson = gson)
+        writer.record(Record("A", 0))
+        writer.record(Unserializable())
+        writer.record(Record("A", 1))
+        writer.close()
+
+        assertEquals(2L, writer.recorded.get())
+        assertEquals(1L, writer.failed.get())
+
+        val indices = DebugRecordingReader.read(writer.files).map { it.asJsonObject["index"].asInt }.toList()
+        assertEquals(listOf(0, 1), indices)
+    }
+
+}
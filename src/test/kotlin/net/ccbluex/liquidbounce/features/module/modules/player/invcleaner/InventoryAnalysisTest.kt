@@ -0,0 +1,219 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.features.module.modules.player.invcleaner
+
+import net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.items.ArrowItemFacet
+import net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.items.FoodItemFacet
+import net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.items.ItemFacet
+import net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.items.PrimitiveItemFacet
+import net.ccbluex.liquidbounce.features.module.modules.player.invcleaner.items.ThrowableItemFacet
+import net.ccbluex.liquidbounce.utils.item.isFood
+import net.minecraft.Bootstrap
+import net.minecraft.SharedConstants
+import net.minecraft.component.DataComponentTypes
+import net.minecraft.item.ItemStack
+import net.minecraft.item.Items
+import net.minecraft.registry.Registries
+import net.minecraft.text.Text
+import net.minecraft.util.Identifier
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.Test
+
+/**
+ * Generates cleanup plans for the inventories of the invcleaner resources, once with a shared [InventoryAnalysis]
+ * and once from scratch.
+ *
+ * Weapon, tool, armor and block facets read the player's attributes, the enchantments of the joined world or
+ * scaffold settings, which a bootstrapped game without a client does not have. The facets are therefore created
+ * like [ItemCategorization] does for the remaining items, which cover food, gapples, buckets, throwables and arrows,
+ * while everything else becomes a plain [ItemFacet].
+ */
+class InventoryAnalysisTest {
+
+    companion object {
+        private val ITEM_PATTERN = Regex("""Count:(\d+)b,Slot:(-?\d+)b,id:"([a-z0-9_:]+)"""")
+
+        @JvmStatic
+        @BeforeAll
+        fun bootstrap() {
+            SharedConstants.createGameVersion()
+            Bootstrap.initialize()
+        }
+    }
+
+    /**
+     * Facets created per slot id
+     */
+    private val facetCreations = HashMap<Int, Int>()
+    private var categorizations = 0
+
+    private fun analysis() = InventoryAnalysis { _ ->
+        categorizations++
+        ::facetsOf
+    }
+
+    private fun facetsOf(slot: ItemSlot): Array<ItemFacet> {
+        facetCreations.merge((slot as VirtualItemSlot).id, 1, Int::plus)
+
+        val stack = slot.itemStack
+        return when (stack.item) {
+            Items.GOLDEN_APPLE -> arrayOf(
+                FoodItemFacet(slot),
+                PrimitiveItemFacet(slot, ItemCategory(ItemType.GAPPLE, 0)),
+            )
+            Items.WATER_BUCKET -> arrayOf(PrimitiveItemFacet(slot, ItemCategory(ItemType.BUCKET, 0)))
+            Items.LAVA_BUCKET -> arrayOf(PrimitiveItemFacet(slot, ItemCategory(ItemType.BUCKET, 1)))
+            Items.SNOWBALL -> arrayOf(ThrowableItemFacet(slot))
+            Items.ARROW -> arrayOf(ArrowItemFacet(slot))
+            else -> if (stack.isFood) arrayOf(FoodItemFacet(slot)) else arrayOf(ItemFacet(slot))
+        }
+    }
+
+    private fun inventory(name: String): List<VirtualItemSlot> {
+        val content = javaClass.getResource("/invcleaner/$name.nbttxt")!!.readText()
+
+        return ITEM_PATTERN.findAll(content).map { match ->
+            val (count, slotId, itemId) = match.destructured
+            val stack = ItemStack(Registries.ITEM.get(Identifier.of(itemId)), count.toInt())
+
+            slot(stack, slotId.toInt())
+        }.toList()
+    }
+
+    private fun slot(stack: ItemStack, id: Int): VirtualItemSlot {
+        val type = when (id) {
+            in 0..8 -> ItemSlotType.HOTBAR
+            in 100..103 -> ItemSlotType.ARMOR
+            else -> ItemSlotType.INVENTORY
+        }
+
+        return VirtualItemSlot(stack, type, id)
+    }
+
+    private fun template(slots: List<VirtualItemSlot>): CleanupPlanPlacementTemplate {
+        fun hotbarSlot(id: Int) = slots.find { it.id == id } ?: slot(ItemStack.EMPTY, id)
+
+        val slotTargets = hashMapOf<ItemSlot, ItemSortChoice>(
+            hotbarSlot(5) to ItemSortChoice.GAPPLE,
+            hotbarSlot(6) to ItemSortChoice.FOOD,
+            hotbarSlot(7) to ItemSortChoice.WATER,
+            hotbarSlot(8) to ItemSortChoice.THROWABLES,
+        )
+
+        // Like the inventory cleaner with its default settings
+        val constraints = { facet: ItemFacet ->
+            if (facet.providedItemFunctions.isEmpty()) {
+                val desiredAmount = if (facet.category.type.oneIsSufficient) 1 else Integer.MAX_VALUE
+                val group = ItemCategoryConstraintGroup(desiredAmount..Integer.MAX_VALUE, 10, facet.category)
+
+                arrayListOf(ItemConstraintInfo(group, facet.itemStack.count))
+            } else {
+                facet.providedItemFunctions.mapTo(ArrayList()) { (function, amount) ->
+                    ItemConstraintInfo(ItemFunctionCategoryConstraintGroup(1..Integer.MAX_VALUE, 10, function), amount)
+                }
+            }
+        }
+
+        return CleanupPlanPlacementTemplate(
+            slotTargets,
+            itemAmountConstraintProvider = constraints,
+            isGreedy = false,
+            forbiddenSlots = slots.filterTo(HashSet()) { it.slotType == ItemSlotType.ARMOR },
+            forbiddenSlotsToFill = emptySet(),
+        )
+    }
+
+    private fun generatePlan(slots: List<VirtualItemSlot>, analysis: InventoryAnalysis) =
+        CleanupPlanGenerator(template(slots), slots, analysis).generatePlan()
+
+    private fun assertSamePlan(expected: InventoryCleanupPlan, actual: InventoryCleanupPlan) {
+        assertEquals(expected.usefulItems, actual.usefulItems)
+        assertEquals(expected.swaps, actual.swaps)
+        assertEquals(expected.mergeableItems.values.toSet(), actual.mergeableItems.values.toSet())
+    }
+
+    @Test
+    fun testReusedAnalysisGeneratesSamePlans() {
+        for (name in listOf("93bce905c1b7e016", "9bb7f967fe02fe08", "e5550562694e55de")) {
+            val slots = inventory(name)
+            val analysis = analysis()
+
+            val first = generatePlan(slots, analysis)
+            facetCreations.clear()
+
+            val second = generatePlan(slots, analysis)
+
+            // The second run did not create a single facet
+            assertEquals(emptyMap<Int, Int>(), facetCreations, name)
+
+            assertSamePlan(first, second)
+            assertSamePlan(generatePlan(slots, InventoryAnalysis { ::facetsOf }), second)
+        }
+    }
+
+    @Test
+    fun testOnlyChangedSlotsAreAnalyzedAgain() {
+        val slots = inventory("93bce905c1b7e016").toMutableList()
+        val analysis = analysis()
+        generatePlan(slots, analysis)
+
+        // Slot 32 (cooked cod) is replaced by bread, slot 31 (arrows) is emptied
+        val index = slots.indexOfFirst { it.id == 32 }
+        slots[index] = slot(ItemStack(Items.BREAD, 3), 32)
+        slots.removeIf { it.id == 31 }
+
+        facetCreations.clear()
+        val plan = generatePlan(slots, analysis)
+
+        assertEquals(mapOf(32 to 1), facetCreations)
+        assertSamePlan(generatePlan(slots, InventoryAnalysis { ::facetsOf }), plan)
+    }
+
+    @Test
+    fun testInPlaceChangesInvalidateSlot() {
+        val slots = inventory("93bce905c1b7e016")
+        val analysis = analysis()
+        generatePlan(slots, analysis)
+
+        // Like a client-side prediction, which modifies the stack instance instead of replacing it
+        slots.first { it.id == 35 }.itemStack.count = 1
+        slots.first { it.id == 27 }.itemStack.set(DataComponentTypes.CUSTOM_NAME, Text.literal("Snowball"))
+
+        facetCreations.clear()
+        val plan = generatePlan(slots, analysis)
+
+        assertEquals(mapOf(27 to 1, 35 to 1), facetCreations)
+        assertSamePlan(generatePlan(slots, InventoryAnalysis { ::facetsOf }), plan)
+    }
+
+    @Test
+    fun testArmorChangeRebuildsCategorization() {
+        val slots = inventory("93bce905c1b7e016").toMutableList()
+        val analysis = analysis()
+        generatePlan(slots, analysis)
+        generatePlan(slots, analysis)
+        assertEquals(1, categorizations)
+
+        slots.removeIf { it.id == 16 }
+        generatePlan(slots, analysis)
+        assertEquals(2, categorizations)
+    }
+
+}
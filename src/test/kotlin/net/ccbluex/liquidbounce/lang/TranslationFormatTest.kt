@@ -0,0 +1,50 @@
+/*
+ * LiquidBounce Hacked Client
+ * A free open source mixin-based injection hacked client for Minecraft using Minecraft Forge.
+ * https://github.com/CCBlueX/LiquidBounce/
+ */
+package net.ccbluex.liquidbounce.lang
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+
+class TranslationFormatTest {
+
+    private fun format(translation: String, vararg args: Any?) =
+        TranslationFormat.compile(translation)?.format(args) ?: translation
+
+    @Test
+    fun testPlainTranslation() {
+        assertNull(TranslationFormat.compile("Enables the module"))
+    }
+
+    @Test
+    fun testSequentialArguments() {
+        assertEquals("Toggled Fly on", format("Toggled %s %s", "Fly", "on"))
+        assertEquals("Value: 5", format("Value: %s", 5))
+    }
+
+    @Test
+    fun testIndexedArguments() {
+        assertEquals("on Fly", format("%2\$s %1\$s", "Fly", "on"))
+        assertEquals("Fly Fly", format("%1\$s %1\$s", "Fly"))
+    }
+
+    @Test
+    fun testEscapedPercent() {
+        assertEquals("100% sure", format("100%% sure"))
+        assertEquals("50% of Fly", format("50%% of %s", "Fly"))
+    }
+
+    @Test
+    fun testInvalidFormatsFallBackToRaw() {
+        // Missing arguments
+        assertEquals("Toggled %s", format("Toggled %s"))
+        assertEquals("%0\$s", format("%0\$s", "Fly"))
+        // Unsupported placeholder types
+        assertEquals("Took %d ms", format("Took %d ms", 5))
+        assertEquals("100%", format("100%"))
+    }
+
+}
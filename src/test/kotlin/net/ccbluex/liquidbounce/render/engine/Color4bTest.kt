@@ -0,0 +1,104 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.render.engine
+
+import com.google.gson.GsonBuilder
+import com.google.gson.JsonPrimitive
+import net.ccbluex.liquidbounce.config.gson.adapter.ColorAdapter
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.awt.Color
+
+class Color4bTest {
+
+    private val gson = GsonBuilder()
+        .registerTypeHierarchyAdapter(Color4b::class.javaObjectType, ColorAdapter)
+        .create()
+
+    @Test
+    fun testChannels() {
+        val color = Color4b(0x12, 0x34, 0x56, 0x78)
+
+        assertEquals(0x12, color.r)
+        assertEquals(0x34, color.g)
+        assertEquals(0x56, color.b)
+        assertEquals(0x78, color.a)
+        assertEquals(0x78123456, color.toARGB())
+        assertEquals(0x78563412, color.toABGR())
+    }
+
+    @Test
+    fun testLegacyConstructors() {
+        // A hex value without alpha has always been opaque
+        assertEquals(Color4b(0x19, 0xC1, 0x5C, 255), Color4b(0x19C15C))
+        assertEquals(Color4b(0x00, 0x7C, 0xFF, 0x64), Color4b(0x64007CFF, true))
+        assertEquals(Color4b(0x00, 0x7C, 0xFF, 0x00), Color4b(0x00007CFF, true))
+        assertEquals(Color4b(255, 0, 255), Color4b(Color.MAGENTA))
+        assertEquals(Color4b(Color(0x12, 0x34, 0x56, 0x78)), Color4b(0x12, 0x34, 0x56, 0x78))
+    }
+
+    @Test
+    fun testSerializedFormat() {
+        val color = Color4b(0x00, 0x80, 0xFF, 0xC8)
+
+        // Configs store the signed ARGB integer
+        assertEquals(JsonPrimitive(Color(0x00, 0x80, 0xFF, 0xC8).rgb), gson.toJsonTree(color, Color4b::class.java))
+        assertEquals("-939491073", gson.toJson(color, Color4b::class.java))
+    }
+
+    @Test
+    fun testRoundTrip() {
+        val colors = listOf(
+            Color4b.WHITE,
+            Color4b.BLACK,
+            Color4b(0, 0, 0, 0),
+            Color4b(0x64007CFF, true),
+            Color4b(0x12, 0x34, 0x56, 0x78),
+            Color4b.fromHex("#FF00FF80")
+        )
+
+        for (color in colors) {
+            assertEquals(color, gson.fromJson(gson.toJson(color, Color4b::class.java), Color4b::class.java))
+        }
+
+        // Written by the previous data class serializer
+        assertEquals(Color4b(0x00, 0x80, 0xFF, 0xFF), gson.fromJson("-16744193", Color4b::class.java))
+    }
+
+    @Test
+    fun testHex() {
+        assertEquals(Color4b(0x11, 0x22, 0x33, 0x44), Color4b.fromHex("#11223344"))
+        assertEquals(Color4b(0x11, 0x22, 0x33), Color4b.fromHex("112233"))
+        assertEquals("#11223344", Color4b(0x11, 0x22, 0x33, 0x44).toHex(alpha = true))
+        assertEquals("#112233", Color4b(0x11, 0x22, 0x33, 0x44).toHex())
+    }
+
+    @Test
+    fun testOperations() {
+        assertEquals(Color4b(255, 0, 0, 32), Color4b.RED.alpha(32))
+        assertEquals(Color4b(255, 0, 0, 127), Color4b.RED.fade(0.5f))
+        assertEquals(Color4b(178, 0, 0), Color4b.RED.darker())
+        assertEquals(Color4b(127, 127, 127, 127), Color4b.BLACK.alpha(0).interpolateTo(Color4b.WHITE, 0.5f))
+        assertEquals(Color4b(255, 0, 0), Color4b(300, -20, 0))
+
+        val hsb = Color4b.BLUE.toHSB()
+        assertEquals(Color4b.BLUE.alpha(64), Color4b.fromHSB(hsb[0], hsb[1], hsb[2], 64))
+    }
+
+}
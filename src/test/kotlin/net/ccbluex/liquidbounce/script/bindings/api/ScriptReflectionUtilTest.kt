@@ -0,0 +1,116 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.script.bindings.api
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class ScriptReflectionUtilTest {
+
+    @Suppress("unused")
+    private class Target(@JvmField var value: Int = 5) {
+        @JvmField
+        val text = "text"
+
+        fun add(a: Int, b: Int) = a + b
+        fun add(a: Double, b: Double) = a * b
+        fun describe(value: Any?) = "any:$value"
+        fun describe(value: String?) = "string:$value"
+        fun nothing() {}
+
+        companion object {
+            @JvmField
+            val CONSTANT = "constant"
+
+            @JvmStatic
+            fun twice(x: Long) = x * 2
+        }
+    }
+
+    @Test
+    fun testFields() {
+        val target = Target()
+
+        assertEquals(5, ScriptReflectionUtil.getField(target, "value"))
+        assertEquals("text", ScriptReflectionUtil.getField(target, "text"))
+        assertNull(ScriptReflectionUtil.getField(target, "missing"))
+        assertEquals("constant", ScriptReflectionUtil.getDeclaredField(Target::class.java, "CONSTANT"))
+    }
+
+    @Test
+    fun testOverloadResolution() {
+        val target = Target()
+
+        // Boxed script arguments have to match primitive parameters
+        assertEquals(3, ScriptReflectionUtil.invokeMethod(target, "add", 1, 2))
+        assertEquals(3.0, ScriptReflectionUtil.invokeMethod(target, "add", 1.5, 2.0))
+
+        // The exact match wins over a more general overload
+        assertEquals("string:a", ScriptReflectionUtil.invokeMethod(target, "describe", "a"))
+        assertEquals("any:1", ScriptReflectionUtil.invokeMethod(target, "describe", 1))
+
+        assertNull(ScriptReflectionUtil.invokeMethod(target, "nothing"))
+        assertNull(ScriptReflectionUtil.invokeMethod(target, "missing", 1))
+        assertEquals(8L, ScriptReflectionUtil.invokeDeclaredMethod(Target::class.java, "twice", 4L))
+    }
+
+    @Test
+    fun testConstructors() {
+        assertEquals(9, (ScriptReflectionUtil.newInstance(Target::class.java, 9) as Target).value)
+        assertEquals("abc", ScriptReflectionUtil.newInstanceByName("java.lang.StringBuilder", "abc").toString())
+
+        assertThrows<NoSuchMethodException> {
+            ScriptReflectionUtil.newInstance(Target::class.java, "wrong")
+        }
+    }
+
+    @Test
+    fun testCachedHandleReuse() {
+        val target = Target()
+
+        ScriptReflectionUtil.invokeMethod(target, "add", 1, 2)
+        ScriptReflectionUtil.invokeMethod(target, "missing", 1)
+        val cached = ScriptReflectionUtil.cachedMembers
+
+        // Repeated calls with the same argument types, including unresolvable members, do not resolve again
+        repeat(10) { i ->
+            assertEquals(i + 2, ScriptReflectionUtil.invokeMethod(target, "add", i, 2))
+            assertNull(ScriptReflectionUtil.invokeMethod(target, "missing", i))
+        }
+        assertEquals(cached, ScriptReflectionUtil.cachedMembers)
+
+        // Other argument types are resolved and cached separately
+        assertEquals("any:1", ScriptReflectionUtil.invokeMethod(target, "describe", 1L))
+        assertEquals(cached + 1, ScriptReflectionUtil.cachedMembers)
+    }
+
+    @Test
+    fun testCachedOverloadsStaySeparate() {
+        val target = Target()
+
+        // A cached overload must not be picked up by calls with different argument types
+        assertEquals("string:a", ScriptReflectionUtil.invokeMethod(target, "describe", "a"))
+        assertEquals("any:1", ScriptReflectionUtil.invokeMethod(target, "describe", 1))
+        assertEquals("string:b", ScriptReflectionUtil.invokeMethod(target, "describe", "b"))
+        assertEquals("any:2", ScriptReflectionUtil.invokeMethod(target, "describe", 2))
+    }
+
+}
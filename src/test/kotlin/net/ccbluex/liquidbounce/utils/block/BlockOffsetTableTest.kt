@@ -0,0 +1,59 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.block
+
+import net.minecraft.util.math.BlockPos
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+import kotlin.math.ceil
+
+class BlockOffsetTableTest {
+
+    /**
+     * The previous implementation: iterate the cuboid, filter by distance and sort
+     */
+    private fun naiveSphere(origin: BlockPos, radius: Float): List<BlockPos> {
+        val cube = ceil(radius).toInt()
+        val radiusSq = radius * radius
+
+        return BlockPos.iterate(origin.add(-cube, -cube, -cube), origin.add(cube, cube, cube))
+            .map { it.toImmutable() }
+            .filter { origin.getSquaredDistance(it) <= radiusSq }
+            .sortedBy { origin.getSquaredDistance(it) }
+    }
+
+    @Test
+    fun testSphereMatchesNaiveOrder() {
+        val origin = BlockPos(5, -3, 7)
+
+        for (radius in listOf(0f, 1f, 1.5f, 4.5f, 6f, 10f)) {
+            assertEquals(naiveSphere(origin, radius), origin.getSortedSphere(radius).toList())
+        }
+    }
+
+    @Test
+    fun testTablesAreShared() {
+        // 4.5² = 20.25 and 4.55² = 20.7 both allow squared distances up to 20
+        assertSame(BlockOffsetTable.sphere(4.5f), BlockOffsetTable.sphere(4.55f))
+        assertSame(BlockOffsetTable.cuboid(3), BlockOffsetTable.cuboid(3))
+        assertEquals(7 * 7 * 7, BlockOffsetTable.cuboid(3).size)
+    }
+
+}
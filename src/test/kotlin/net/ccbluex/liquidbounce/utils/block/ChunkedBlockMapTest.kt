@@ -0,0 +1,136 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.block
+
+import net.minecraft.util.math.BlockPos
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class ChunkedBlockMapTest {
+
+    @Test
+    fun testPackedPositions() {
+        val map = ChunkedBlockMap<String>()
+        val positions = listOf(
+            BlockPos(0, 0, 0),
+            BlockPos(15, -64, 15),
+            BlockPos(-1, 319, -1),
+            BlockPos(-17, -2032, 33),
+            BlockPos(30_000_000, 2031, -30_000_000)
+        )
+
+        positions.forEach { map[it] = it.toShortString() }
+
+        assertEquals(positions.size, map.size)
+        positions.forEach { assertEquals(it.toShortString(), map[it]) }
+
+        val visited = mutableSetOf<BlockPos>()
+        map.forEach { pos, value ->
+            assertEquals(pos.toShortString(), value)
+            visited += pos.toImmutable()
+        }
+
+        assertEquals(positions.toSet(), visited)
+    }
+
+    @Test
+    fun testChunkChurn() {
+        val map = ChunkedBlockMap<Int>()
+        val random = Random(1337)
+        val expected = HashMap<BlockPos, Int>()
+
+        repeat(200) { round ->
+            val chunkX = random.nextInt(-8, 8)
+            val chunkZ = random.nextInt(-8, 8)
+
+            if (random.nextBoolean()) {
+                // Load a chunk with some blocks
+                repeat(32) {
+                    val pos = BlockPos(
+                        (chunkX shl 4) + random.nextInt(16),
+                        random.nextInt(-64, 320),
+                        (chunkZ shl 4) + random.nextInt(16)
+                    )
+
+                    map[pos] = round
+                    expected[pos] = round
+                }
+            } else {
+                map.clearChunk(chunkX, chunkZ)
+                expected.keys.removeIf { it.x shr 4 == chunkX && it.z shr 4 == chunkZ }
+            }
+
+            assertEquals(expected.size, map.size)
+        }
+
+        val actual = HashMap<BlockPos, Int>()
+        map.forEach { pos, value -> actual[pos.toImmutable()] = value }
+        assertEquals(expected, actual)
+
+        map.clear()
+        assertTrue(map.isEmpty())
+        map.forEach { _, _ -> error("map should be empty") }
+    }
+
+    @Test
+    fun testChunkRangeAndVersions() {
+        val map = ChunkedBlockMap<Int>()
+
+        for (chunkX in -4..4) {
+            for (chunkZ in -4..4) {
+                map[BlockPos(chunkX shl 4, 64, chunkZ shl 4)] = chunkX * 100 + chunkZ
+            }
+        }
+
+        val inRange = mutableListOf<Int>()
+        map.forEachInChunks(-1, 0, 1, 2) { _, value -> inRange += value }
+        assertEquals(listOf(-100, -99, -98, 0, 1, 2, 100, 101, 102), inRange.sorted())
+
+        map[BlockPos(1, 64, 1)] = 1
+        map.clearChunk(0, 0)
+        assertNull(map[BlockPos(1, 64, 1)])
+        assertFalse(BlockPos(0, 64, 0) in map)
+    }
+
+    @Test
+    fun testModificationWhileIterating() {
+        val map = ChunkedBlockMap<Int>()
+
+        for (x in 0 until 64) {
+            map[BlockPos(x, 0, 0)] = x
+        }
+
+        map.forEach { pos, value ->
+            if (value % 2 == 0) {
+                map.remove(pos)
+            } else {
+                map[pos.up()] = value
+            }
+        }
+
+        assertEquals(64, map.size)
+        assertNull(map[BlockPos(0, 0, 0)])
+        assertEquals(1, map[BlockPos(1, 1, 0)])
+    }
+
+}
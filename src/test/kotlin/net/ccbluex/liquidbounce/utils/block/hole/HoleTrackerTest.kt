@@ -0,0 +1,173 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.block.hole
+
+import net.ccbluex.liquidbounce.utils.block.Region
+import net.ccbluex.liquidbounce.utils.block.hole.HoleTracker.cachedUpdate
+import net.minecraft.Bootstrap
+import net.minecraft.SharedConstants
+import net.minecraft.block.Blocks
+import net.minecraft.util.math.BlockPos
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.Test
+
+class HoleTrackerTest {
+
+    companion object {
+        @JvmStatic
+        @BeforeAll
+        fun initialize() {
+            SharedConstants.createGameVersion()
+            Bootstrap.initialize()
+        }
+    }
+
+    /**
+     * A bedrock floor at y = 0 with walls around a 1x1 hole at 0, 1, 0 and a 1x2 hole at 15, 1, 0,
+     * which reaches over the border of its chunk section
+     */
+    private val walls = hashSetOf(
+        BlockPos(1, 1, 0), BlockPos(-1, 1, 0), BlockPos(0, 1, 1), BlockPos(0, 1, -1),
+        BlockPos(14, 1, 0), BlockPos(17, 1, 0),
+        BlockPos(15, 1, 1), BlockPos(15, 1, -1), BlockPos(16, 1, 1), BlockPos(16, 1, -1)
+    )
+
+    /**
+     * Blocks which can be broken, placed into the layout by the tests
+     */
+    private val placed = hashSetOf<BlockPos>()
+
+    private val area = Region(BlockPos(-3, 0, -3), BlockPos(19, 3, 3))
+
+    private fun classify(pos: BlockPos) = when {
+        pos.y == 0 || pos in walls -> UNBREAKABLE
+        pos in placed -> BREAKABLE
+        else -> AIR
+    }
+
+    private fun breakWall(pos: BlockPos) {
+        walls -= pos
+        HoleTracker.recordBlock(pos, Blocks.AIR.defaultState, ::classify)
+    }
+
+    private fun placeWall(pos: BlockPos) {
+        walls += pos
+        HoleTracker.recordBlock(pos, Blocks.BEDROCK.defaultState, ::classify)
+    }
+
+    private fun placeBlock(pos: BlockPos) {
+        placed += pos
+        HoleTracker.recordBlock(pos, Blocks.STONE.defaultState, ::classify)
+    }
+
+    private fun breakBlock(pos: BlockPos) {
+        placed -= pos
+        HoleTracker.recordBlock(pos, Blocks.AIR.defaultState, ::classify)
+    }
+
+    @AfterEach
+    fun cleanup() {
+        HoleTracker.holes.clear()
+    }
+
+    @Test
+    fun testSyntheticLayout() {
+        area.cachedUpdate(classify = ::classify)
+
+        val holes = HoleTracker.holes.filterNear(area).sortedBy { it.positions.from.x }
+
+        assertEquals(2, holes.size)
+        assertEquals(Hole.Type.ONE_ONE, holes[0].type)
+        assertEquals(Region.from(BlockPos(0, 1, 0)), holes[0].positions)
+        assertEquals(Hole.Type.ONE_TWO, holes[1].type)
+        assertEquals(Region(BlockPos(15, 1, 0), BlockPos(16, 1, 0)), holes[1].positions)
+
+        assertTrue(HoleTracker.holes.isInHole(BlockPos(16, 1, 0)))
+        assertFalse(HoleTracker.holes.isInHole(BlockPos(5, 1, 0)))
+    }
+
+    @Test
+    fun testBrokenWallInvalidatesHole() {
+        area.cachedUpdate(classify = ::classify)
+
+        // The wall is in the next section, the hole is stored in the section of its first position
+        breakWall(BlockPos(17, 1, 0))
+
+        assertEquals(1, HoleTracker.holes.size)
+        assertTrue(HoleTracker.holes.isInHole(BlockPos(0, 1, 0)))
+        assertFalse(HoleTracker.holes.isInHole(BlockPos(15, 1, 0)))
+        assertFalse(HoleTracker.holes.isInHole(BlockPos(16, 1, 0)))
+
+        placeWall(BlockPos(17, 1, 0))
+
+        assertEquals(2, HoleTracker.holes.size)
+        assertTrue(HoleTracker.holes.isInHole(BlockPos(16, 1, 0)))
+    }
+
+    @Test
+    fun testBlockAboveInvalidatesHole() {
+        area.cachedUpdate(classify = ::classify)
+
+        placeBlock(BlockPos(0, 3, 0))
+
+        assertEquals(1, HoleTracker.holes.size)
+        assertFalse(HoleTracker.holes.isInHole(BlockPos(0, 1, 0)))
+        assertTrue(HoleTracker.holes.isInHole(BlockPos(15, 1, 0)))
+    }
+
+    @Test
+    fun testUnrelatedChangeKeepsHoles() {
+        area.cachedUpdate(classify = ::classify)
+
+        placeBlock(BlockPos(7, 1, 2))
+        breakBlock(BlockPos(7, 1, 2))
+
+        assertEquals(2, HoleTracker.holes.size)
+        assertTrue(HoleTracker.holes.isInHole(BlockPos(0, 1, 0)))
+        assertTrue(HoleTracker.holes.isInHole(BlockPos(15, 1, 0)))
+    }
+
+    @Test
+    fun testSectionBoundaries() {
+        val index = HoleIndex()
+
+        // Holes starting right before a section border, reaching into the next one
+        for (x in -64..64 step 16) {
+            index += Hole(Hole.Type.ONE_TWO, Region(BlockPos(x - 1, 15, 0), BlockPos(x, 15, 0)))
+        }
+
+        assertEquals(9, index.size)
+        assertTrue(index.isInHole(BlockPos(-64, 15, 0)))
+        assertTrue(index.isInHole(BlockPos(15, 15, 0)))
+
+        // The same starting position is only stored once
+        assertFalse(index.add(Hole(Hole.Type.ONE_ONE, Region.from(BlockPos(-1, 15, 0)))))
+
+        val near = index.filterNear(Region.from(BlockPos(16, 16, 0))) { BlockPos(16, 15, 0) in it }
+        assertEquals(1, near.size)
+
+        index.removeIf { it.positions.from.x < 0 }
+        assertEquals(4, index.size)
+    }
+
+}
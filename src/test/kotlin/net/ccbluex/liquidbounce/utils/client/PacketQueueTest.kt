@@ -0,0 +1,142 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.client
+
+import net.ccbluex.liquidbounce.event.events.TransferOrigin
+import net.minecraft.network.listener.PacketListener
+import net.minecraft.network.packet.Packet
+import net.minecraft.network.packet.PacketType
+import net.minecraft.util.math.Vec3d
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class PacketQueueTest {
+
+    /**
+     * Stands in for a move packet when it has a position
+     */
+    private class FakePacket(val position: Vec3d?) : Packet<PacketListener> {
+        override fun getPacketType(): PacketType<out Packet<PacketListener>> = error("Never sent")
+        override fun apply(listener: PacketListener) {}
+    }
+
+    private fun queue(maxCapacity: Int = PacketQueue.MAX_CAPACITY) =
+        PacketQueue(maxCapacity) { packet -> (packet as FakePacket).position }
+
+    private fun move(x: Double, time: Long = 0L, origin: TransferOrigin = TransferOrigin.SEND) =
+        PacketSnapshot(FakePacket(Vec3d(x, 0.0, 0.0)), origin, time)
+
+    private fun other(time: Long = 0L, origin: TransferOrigin = TransferOrigin.SEND) =
+        PacketSnapshot(FakePacket(null), origin, time)
+
+    private fun List<Vec3d>.xs() = map { it.x }
+
+    @Test
+    fun testOrderAndPositions() {
+        val queue = queue()
+
+        // Enough to wrap around and grow a couple of times
+        repeat(200) { i ->
+            queue.add(if (i % 2 == 0) move(i.toDouble()) else other())
+        }
+
+        assertEquals(200, queue.size)
+        assertEquals((0..<200 step 2).map(Int::toDouble), queue.positions.xs())
+
+        val removed = queue.removeMoves(3)
+        // move 0, other, move 2, other, move 4
+        assertEquals(5, removed.size)
+        assertEquals(195, queue.size)
+        assertEquals(6.0, queue.positions.first().x)
+        assertEquals(null, (queue[0].packet as FakePacket).position)
+        assertEquals(6.0, (queue[1].packet as FakePacket).position!!.x)
+    }
+
+    @Test
+    fun testRemoveIfKeepsOrder() {
+        val queue = queue()
+
+        repeat(10) { i ->
+            queue.add(move(i.toDouble(), origin = if (i % 3 == 0) TransferOrigin.RECEIVE else TransferOrigin.SEND))
+        }
+
+        assertEquals(4, queue.count(TransferOrigin.RECEIVE))
+
+        val removed = queue.removeAll(TransferOrigin.RECEIVE)
+        assertEquals(listOf(0.0, 3.0, 6.0, 9.0), removed.map { (it.packet as FakePacket).position!!.x })
+        assertEquals(listOf(1.0, 2.0, 4.0, 5.0, 7.0, 8.0), queue.positions.xs())
+        assertEquals(0, queue.count(TransferOrigin.RECEIVE))
+        assertTrue(queue.removeAll(TransferOrigin.RECEIVE).isEmpty())
+
+        // The queue stays usable after compaction
+        queue.add(move(10.0))
+        assertEquals(listOf(1.0, 2.0, 4.0, 5.0, 7.0, 8.0, 10.0), queue.positions.xs())
+    }
+
+    @Test
+    fun testEviction() {
+        val queue = queue(maxCapacity = 4)
+
+        repeat(4) { i -> assertNull(queue.add(move(i.toDouble()))) }
+
+        val evicted = queue.add(move(4.0))
+        assertEquals(0.0, (evicted!!.packet as FakePacket).position!!.x)
+        assertEquals(4, queue.size)
+        assertEquals(listOf(1.0, 2.0, 3.0, 4.0), queue.positions.xs())
+    }
+
+    @Test
+    fun testMetrics() {
+        val queue = queue()
+
+        assertEquals(0L, queue.heldDuration(now = 1000L))
+
+        queue.add(other(time = 100L))
+        queue.add(move(0.0, time = 250L))
+        queue.add(other(time = 300L))
+
+        assertEquals(900L, queue.heldDuration(now = 1000L))
+        assertEquals(3, queue.peakSize)
+
+        queue.removeFirst()
+        assertEquals(750L, queue.heldDuration(now = 1000L))
+        assertEquals(3, queue.peakSize)
+
+        assertEquals(2, queue.drain().size)
+        assertTrue(queue.isEmpty())
+        assertEquals(0, queue.peakSize)
+        assertTrue(queue.positions.isEmpty())
+    }
+
+    @Test
+    fun testPositionsSnapshotIsStable() {
+        val queue = queue()
+        queue.add(move(1.0))
+
+        val positions = queue.positions
+        assertTrue(positions === queue.positions)
+
+        queue.add(move(2.0))
+        assertEquals(listOf(1.0), positions.xs())
+        assertEquals(listOf(1.0, 2.0), queue.positions.xs())
+    }
+
+}
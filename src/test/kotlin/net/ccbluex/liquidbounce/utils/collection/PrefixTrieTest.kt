@@ -0,0 +1,94 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.collection
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class PrefixTrieTest {
+
+    private val identifiers = PrefixTrie.of(
+        listOf("minecraft:diamond", "minecraft:diamond_sword", "minecraft:dirt", "minecraft:stone")
+    ) { listOf(it, it.substringAfter(':')) }
+
+    @Test
+    fun testPrefix() {
+        assertEquals(
+            listOf("minecraft:diamond", "minecraft:diamond_sword"),
+            identifiers.withPrefix("DIA")
+        )
+        assertEquals(listOf("minecraft:stone"), identifiers.withPrefix("minecraft:st"))
+        assertEquals(4, identifiers.withPrefix("").size)
+        assertTrue(identifiers.withPrefix("x").isEmpty())
+    }
+
+    @Test
+    fun testInsertionOrder() {
+        val names = listOf("Speed", "Scaffold", "SafeWalk", "Sprint", "Step", "Spammer", "ServerCrasher", "Sneak")
+        val modules = PrefixTrie.of(names) { listOf(it) }
+
+        assertEquals(names, modules.withPrefix("s"))
+        assertEquals(listOf("Speed", "Sprint", "Spammer"), modules.withPrefix("sp"))
+        assertEquals(names.reversed(), PrefixTrie.of(names.reversed()) { listOf(it) }.withPrefix("S"))
+    }
+
+    @Test
+    fun testNoDuplicates() {
+        val trie = PrefixTrie<String>().apply {
+            put("friend", "friend")
+            put("friends", "friend")
+        }
+
+        assertEquals(listOf("friend"), trie.withPrefix("fr"))
+        assertEquals(1, trie.size)
+    }
+
+    @Test
+    fun testExactLookup() {
+        val commands = PrefixTrie<String>().apply {
+            put("friend", "friend")
+            put("f", "friend")
+            put("fakeplayer", "fakeplayer")
+        }
+
+        assertEquals("friend", commands["F"])
+        assertEquals("fakeplayer", commands["FakePlayer"])
+        assertNull(commands["fa"])
+    }
+
+    @Test
+    fun testFuzzyFallback() {
+        val modules = PrefixTrie.of(listOf("KillAura", "AutoClicker", "Speed", "ClickGui")) { listOf(it) }
+
+        assertEquals("KillAura", modules.search("kaura").first())
+        assertEquals("ClickGui", modules.search("cgui").first())
+        assertEquals("minecraft:diamond_sword", identifiers.search("dsword").first())
+        assertTrue(modules.search("zzz").isEmpty())
+    }
+
+    @Test
+    fun testPrefixBeforeFuzzy() {
+        val modules = PrefixTrie.of(listOf("Scaffold", "AutoClicker", "Speed")) { listOf(it) }
+
+        assertEquals(listOf("Scaffold"), modules.search("sc"))
+    }
+
+}
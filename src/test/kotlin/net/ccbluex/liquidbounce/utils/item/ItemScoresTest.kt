@@ -0,0 +1,116 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.item
+
+import net.ccbluex.liquidbounce.utils.sorting.ComparatorChain
+import net.ccbluex.liquidbounce.utils.sorting.MemoizedScore
+import net.ccbluex.liquidbounce.utils.sorting.compareValueByCondition
+import net.minecraft.Bootstrap
+import net.minecraft.SharedConstants
+import net.minecraft.component.DataComponentTypes
+import net.minecraft.item.BlockItem
+import net.minecraft.item.ItemStack
+import net.minecraft.item.Items
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+/**
+ * Sorts real item stacks with the memoized comparators and with their implementation before [ItemScores].
+ *
+ * Only comparators which do not need a client can be sorted here: full cube, hardness and favourability read the
+ * client world, weapon damage reads the player's attributes, enchantments come from the registries of a joined world
+ * and armor materials are read through a mixin accessor.
+ */
+class ItemScoresTest {
+
+    companion object {
+        @JvmStatic
+        @BeforeAll
+        fun bootstrap() {
+            SharedConstants.createGameVersion()
+            Bootstrap.initialize()
+        }
+    }
+
+    /**
+     * [PreferSolidBlocks] as it was before its score was memoized
+     */
+    private val plainPreferSolidBlocks = Comparator<ItemStack> { o1, o2 ->
+        compareValueByCondition(o1, o2) {
+            val defaultState = (it.item as BlockItem).block.defaultState
+
+            defaultState.isSolid
+        }
+    }
+
+    private fun blockStacks(count: Int): List<ItemStack> {
+        val random = Random(42)
+        val items = listOf(
+            Items.STONE, Items.OAK_PLANKS, Items.GLASS, Items.SAND, Items.ICE, Items.PACKED_ICE, Items.SOUL_SAND,
+            Items.HONEY_BLOCK, Items.SLIME_BLOCK, Items.OAK_SLAB, Items.COBWEB, Items.BRICKS, Items.OAK_LEAVES,
+        )
+
+        return List(count) { ItemStack(items[random.nextInt(items.size)], random.nextInt(1, 65)) }
+    }
+
+    @Test
+    fun testBlockOrderingIsIdentical() {
+        val stacks = blockStacks(500)
+
+        for (higher in listOf(true, false)) {
+            val plain = ComparatorChain(plainPreferSolidBlocks, PreferWalkableBlocks, PreferStackSize(higher))
+            val memoized = ComparatorChain(PreferSolidBlocks, PreferWalkableBlocks, PreferStackSize(higher))
+
+            // Compared by identity, stacks with the same content have to end up in the same places as well
+            val plainOrder = stacks.sortedWith(plain)
+            val memoizedOrder = stacks.sortedWith(memoized)
+            for (i in stacks.indices) {
+                assertSame(plainOrder[i], memoizedOrder[i], "Orderings differ at $i")
+            }
+        }
+    }
+
+    @Test
+    fun testComponentKey() {
+        val stack = ItemStack(Items.DIAMOND_SWORD, 1)
+        stack.set(DataComponentTypes.DAMAGE, 5)
+
+        // The count does not matter, the components do
+        assertEquals(ItemScores.componentKey(stack), ItemScores.componentKey(stack.copyWithCount(3)))
+        assertNotEquals(ItemScores.componentKey(stack), ItemScores.componentKey(ItemStack(Items.IRON_SWORD, 1)))
+    }
+
+    @Test
+    fun testInPlaceModificationChangesKey() {
+        val durability = MemoizedScore(ItemScores::componentKey) { stack: ItemStack -> stack.maxDamage - stack.damage }
+        val stack = ItemStack(Items.DIAMOND_SWORD, 1)
+
+        assertEquals(stack.maxDamage, durability[stack])
+
+        // Like the durability lost when mining a block, the same stack instance is modified
+        stack.damage = 5
+        assertEquals(stack.maxDamage - 5, durability[stack])
+        assertEquals(2, durability.size)
+    }
+
+}
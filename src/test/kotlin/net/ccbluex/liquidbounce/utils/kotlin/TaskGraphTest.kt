@@ -0,0 +1,113 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.kotlin
+
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class TaskGraphTest {
+
+    private val executor = Executors.newFixedThreadPool(4)
+
+    @AfterEach
+    fun shutdown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun testDependencyOrder() {
+        val order = CopyOnWriteArrayList<String>()
+        val graph = TaskGraph("Test").apply {
+            task("a") { order += "a" }
+            task("b", "a") { order += "b" }
+            task("c", "a", mainThread = true) { order += "c" }
+            task("d", "b", "c") { order += "d" }
+        }
+
+        val timings = graph.run(executor)
+
+        assertEquals(4, timings.size)
+        assertEquals("a", order.first())
+        assertEquals("d", order.last())
+    }
+
+    @Test
+    fun testMainThreadTasks() {
+        val caller = Thread.currentThread()
+        var mainThread: Thread? = null
+        var workerThread: Thread? = null
+
+        TaskGraph("Test").apply {
+            task("worker") { workerThread = Thread.currentThread() }
+            task("main", "worker", mainThread = true) { mainThread = Thread.currentThread() }
+        }.run(executor)
+
+        assertSame(caller, mainThread)
+        assertTrue(workerThread !== caller)
+    }
+
+    @Test
+    fun testIndependentTasksRunConcurrently() {
+        val latch = CountDownLatch(2)
+
+        // Both tasks only finish when the other one started, which deadlocks if they run serially
+        TaskGraph("Test").apply {
+            task("a") { latch.countDown(); check(latch.await(5, TimeUnit.SECONDS)) }
+            task("b", mainThread = true) { latch.countDown(); check(latch.await(5, TimeUnit.SECONDS)) }
+        }.run(executor)
+    }
+
+    @Test
+    fun testFailureSkipsDependents() {
+        var ran = false
+        val graph = TaskGraph("Test").apply {
+            task("broken") { error("broken") }
+            task("dependent", "broken") { ran = true }
+            task("independent") { }
+        }
+
+        assertThrows(IllegalStateException::class.java) { graph.run(executor) }
+        assertTrue(!ran)
+
+        val timings = graph.timings.associateBy { it.name }
+        assertEquals(3, timings.size)
+        assertNotNull(timings["dependent"]!!.error)
+        assertEquals(null, timings["independent"]!!.error)
+    }
+
+    @Test
+    fun testCycleDetection() {
+        val graph = TaskGraph("Test").apply {
+            task("a", "b") { }
+            task("b", "a") { }
+        }
+
+        assertThrows(IllegalArgumentException::class.java) { graph.run(executor) }
+    }
+
+}
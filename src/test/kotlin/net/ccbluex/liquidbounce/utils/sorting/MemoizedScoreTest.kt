@@ -0,0 +1,77 @@
+/*
+ * This file is part of LiquidBounce (https://github.com/CCBlueX/LiquidBounce)
+ *
+ * Copyright (c) 2015 - 2024 CCBlueX
+ *
+ * LiquidBounce is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LiquidBounce is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LiquidBounce. If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.ccbluex.liquidbounce.utils.sorting
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class MemoizedScoreTest {
+
+    private class Stack(val item: Int, val enchantments: Int, val count: Int)
+
+    private fun expensiveScore(stack: Stack) = stack.item * 0.1 + stack.enchantments * 0.37
+
+    @Test
+    fun testScoresOncePerKey() {
+        val random = Random(42)
+        val stacks = List(500) { Stack(random.nextInt(20), random.nextInt(4), random.nextInt(1, 65)) }
+
+        var evaluations = 0
+        val score = MemoizedScore({ it.item * 31 + it.enchantments }) { stack: Stack ->
+            evaluations++
+            expensiveScore(stack)
+        }
+
+        val plain = ComparatorChain<Stack>(
+            compareByDescending { expensiveScore(it) },
+            compareBy { it.count },
+        )
+        val memoized = ComparatorChain<Stack>(
+            compareByDescending { score[it] },
+            compareBy { it.count },
+        )
+
+        assertEquals(stacks.sortedWith(plain), stacks.sortedWith(memoized))
+
+        // Every distinct item and enchantment combination is only scored once
+        val distinctKeys = stacks.map { it.item * 31 + it.enchantments }.distinct().size
+        assertEquals(distinctKeys, evaluations)
+        assertEquals(distinctKeys, score.size)
+    }
+
+    @Test
+    fun testClear() {
+        var evaluations = 0
+        val score = MemoizedScore({ key: Int -> key }) { value: Int ->
+            evaluations++
+            value * 2
+        }
+
+        assertEquals(4, score[2])
+        assertEquals(4, score[2])
+        assertEquals(1, evaluations)
+
+        score.clear()
+
+        assertEquals(4, score[2])
+        assertEquals(2, evaluations)
+    }
+
+}